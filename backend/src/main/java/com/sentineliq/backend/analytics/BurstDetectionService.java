@@ -0,0 +1,146 @@
+package com.sentineliq.backend.analytics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.event.BurstDetectedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.InboxStatsBucket;
+import com.sentineliq.backend.model.InboxStatsBucket.Granularity;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.DomainCountRow;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * BurstDetectionService runs a BurstDetector per inbox in the ingest path (GmailService calls
+ * inspect() before storing each message).
+ *
+ * - Messages arriving during a burst of the inbox, or of their sender domain, lose trust-penalty
+ *   points of trust score before they are stored.
+ * - Each new burst is logged, counted (ingest.bursts) and published as a BurstDetectedEvent,
+ *   which live dashboards receive as an "alert" event.
+ * - Detectors live in memory, at most max-accounts of them. A detector is warm-started from the
+ *   inbox's hourly stats rollups (last 4 weeks) and its busiest sender domains (last 7 days),
+ *   so a restart or an eviction does not make every known domain look new.
+ * - Messages are counted by arrival time (Gmail's internalDate), not by their Date header, which
+ *   the sender controls; times in the future are taken as now.
+ * - Each node learns from the syncs it runs itself.
+ */
+@Slf4j
+@Service
+public class BurstDetectionService {
+
+    static final int SEED_WEEKS = 4;
+    static final int SEED_DOMAIN_DAYS = 7;
+
+    private final InboxStatsRepository statsRepository;
+    private final EmailRepository emailRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter bursts;
+    private final boolean enabled;
+    private final int trustPenalty;
+    private final BurstDetector.Settings settings;
+    private final Cache<Long, BurstDetector> detectors;
+
+    public BurstDetectionService(
+            InboxStatsRepository statsRepository,
+            EmailRepository emailRepository,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${analytics.burst.enabled:true}") boolean enabled,
+            @Value("${analytics.burst.max-accounts:10000}") long maxAccounts,
+            @Value("${analytics.burst.idle-hours:168}") long idleHours,
+            @Value("${analytics.burst.sigmas:4}") double sigmas,
+            @Value("${analytics.burst.min-messages:20}") int minMessages,
+            @Value("${analytics.burst.min-domain-messages:10}") int minDomainMessages,
+            @Value("${analytics.burst.max-domains:256}") int maxDomains,
+            @Value("${analytics.burst.trust-penalty:30}") int trustPenalty) {
+        this.statsRepository = statsRepository;
+        this.emailRepository = emailRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.trustPenalty = trustPenalty;
+        this.settings = new BurstDetector.Settings(sigmas, minMessages, minDomainMessages, maxDomains);
+
+        this.detectors = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterAccess(Duration.ofHours(idleHours))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, detectors, "ingest.burst-detectors");
+        this.bursts = Counter.builder("ingest.bursts")
+                .description("Mail bursts detected at ingest")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Count a message about to be stored, lowering its trust score if it arrives during a burst.
+     *
+     * @param inboxId   the inbox receiving the message
+     * @param email     the parsed, not yet stored message
+     * @param arrivedAt when the mailbox received it, or null for unknown (now)
+     */
+    public void inspect(Long inboxId, Email email, Instant arrivedAt) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant arrival = arrivedAt == null || arrivedAt.isAfter(now) ? now : arrivedAt;
+        String domain = email.getSenderRef() != null ? email.getSenderRef().getDomain() : "";
+        BurstDetector.Observation observation = detectors.get(inboxId, this::load)
+                .observe(LocalDateTime.ofInstant(arrival, ZoneId.systemDefault()), domain);
+
+        for (BurstDetector.Alert alert : observation.alerts()) {
+            bursts.increment();
+            log.warn("🚨 Mail burst in inbox ID {}{}: {} messages in the hour from {} (baseline {})",
+                    inboxId, alert.domain() == null ? "" : " from " + alert.domain(),
+                    alert.count(), alert.hourStart(), String.format("%.1f", alert.expected()));
+            eventPublisher.publishEvent(new BurstDetectedEvent(
+                    inboxId, alert.domain(), alert.hourStart(), alert.count(), alert.expected()));
+        }
+
+        if (observation.burst() && email.getTrustScore() != null) {
+            email.setTrustScore(Math.max(0, email.getTrustScore() - trustPenalty));
+        }
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        detectors.invalidate(event.getInboxId());
+    }
+
+    private BurstDetector load(Long inboxId) {
+        BurstDetector detector = new BurstDetector(settings);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            LocalDateTime nextHour = Granularity.HOUR.next(Granularity.HOUR.bucketOf(now));
+            for (InboxStatsBucket bucket : statsRepository.findRange(
+                    inboxId, Granularity.HOUR, nextHour.minusWeeks(SEED_WEEKS), nextHour)) {
+                detector.seedHour(bucket.getBucketStart(), bucket.getEmailCount());
+            }
+            double hours = SEED_DOMAIN_DAYS * 24.0;
+            for (DomainCountRow row : emailRepository.countByDomainSince(
+                    inboxId, now.minusDays(SEED_DOMAIN_DAYS), PageRequest.of(0, settings.maxDomains()))) {
+                detector.seedDomain(row.getDomain(), row.getEmails() / hours, now);
+            }
+        } catch (RuntimeException e) {
+            // A cold detector only misses inbox-wide bursts for a day; never block ingest on this
+            log.warn("⚠️ Could not warm-start burst detection for inbox ID {}: {}", inboxId, e.getMessage());
+        }
+        return detector;
+    }
+}
@@ -0,0 +1,229 @@
+package com.sentineliq.backend.analytics;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming mail-volume anomaly detector for one inbox.
+ *
+ * - Inbox volume: arrivals are counted per hour and compared with a seasonal baseline, an
+ *   exponentially weighted mean and variance per hour of the week (168 slots), falling back
+ *   to a plain hourly EWMA for slots not seen yet.
+ * - Sender domains: arrivals per domain are compared with that domain's hourly EWMA, so a
+ *   wave from a domain that never (or rarely) wrote before stands out at once.
+ * - An hour is a burst once its count reaches the minimum and exceeds mean + sigmas * spread,
+ *   where the spread is at least the Poisson sqrt(mean) and 1.
+ *
+ * Each message costs O(1): closing elapsed hours is capped at one week of slots, and domains
+ * sit in an access-ordered map capped at maxDomains (least recently seen evicted), so memory
+ * per inbox is bounded. Messages older than the current hour are not scored.
+ * Thread-safe.
+ */
+public final class BurstDetector {
+
+    public record Settings(double sigmas, int minMessages, int minDomainMessages, int maxDomains) {
+    }
+
+    /**
+     * A burst raised by a message: domain is null for the inbox as a whole.
+     */
+    public record Alert(String domain, LocalDateTime hourStart, long count, double expected) {
+    }
+
+    /**
+     * Whether the message arrived during a burst, and the bursts it raised (usually none).
+     */
+    public record Observation(boolean burst, List<Alert> alerts) {
+        static final Observation NONE = new Observation(false, List.of());
+    }
+
+    static final int SLOTS = 24 * 7;
+
+    // Seasonal slots learn week over week; the fallback and domains learn hour over hour
+    static final double SEASONAL_ALPHA = 0.3;
+    static final double HOURLY_ALPHA = 0.05;
+    static final double DOMAIN_ALPHA = 0.02;
+
+    // Inbox-wide bursts need a day of history; a new domain has none by definition
+    static final int WARMUP_HOURS = 24;
+
+    private static final class DomainRate {
+        double mean;
+        long hour;
+        long count;
+        boolean flagged;
+    }
+
+    private final Settings settings;
+
+    private final double[] slotMean = new double[SLOTS];
+    private final double[] slotVar = new double[SLOTS];
+    private final boolean[] slotSeen = new boolean[SLOTS];
+    private double hourlyMean;
+    private double hourlyVar;
+    private long hoursObserved;
+
+    private long currentHour = Long.MIN_VALUE;
+    private long hourCount;
+    private boolean inboxFlagged;
+
+    private final Map<String, DomainRate> domains;
+
+    public BurstDetector(Settings settings) {
+        this.settings = settings;
+        this.domains = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DomainRate> eldest) {
+                return size() > settings.maxDomains();
+            }
+        };
+    }
+
+    /**
+     * Count one arriving message and tell whether it is part of a burst.
+     *
+     * @param arrivedAt when the message reached the mailbox, never later than now: a time from the
+     *                  future would close every slot and leave later messages behind the current hour
+     * @param domain    the sender's registrable domain ("" when unknown)
+     */
+    public synchronized Observation observe(LocalDateTime arrivedAt, String domain) {
+        long hour = epochHour(arrivedAt);
+        if (currentHour != Long.MIN_VALUE && hour < currentHour) {
+            return Observation.NONE;
+        }
+        roll(hour);
+        hourCount++;
+
+        List<Alert> alerts = new ArrayList<>(0);
+        LocalDateTime hourStart = hourStart(hour);
+
+        boolean inboxBurst = false;
+        if (hoursObserved >= WARMUP_HOURS) {
+            int slot = slotOf(hour);
+            double mean = slotSeen[slot] ? slotMean[slot] : hourlyMean;
+            double var = slotSeen[slot] ? slotVar[slot] : hourlyVar;
+            inboxBurst = hourCount >= settings.minMessages() && hourCount > threshold(mean, var);
+            if (inboxBurst && !inboxFlagged) {
+                inboxFlagged = true;
+                alerts.add(new Alert(null, hourStart, hourCount, mean));
+            }
+        }
+
+        boolean domainBurst = false;
+        if (domain != null && !domain.isEmpty()) {
+            DomainRate rate = domains.get(domain);
+            if (rate == null) {
+                rate = new DomainRate();
+                rate.hour = hour;
+                domains.put(domain, rate);
+            } else if (rate.hour < hour) {
+                // Fold the domain's last active hour, then decay over the quiet hours since
+                rate.mean += DOMAIN_ALPHA * (rate.count - rate.mean);
+                rate.mean *= Math.pow(1 - DOMAIN_ALPHA, Math.min(hour - rate.hour - 1, SLOTS * 4));
+                rate.hour = hour;
+                rate.count = 0;
+                rate.flagged = false;
+            }
+            rate.count++;
+            domainBurst = rate.count >= settings.minDomainMessages() && rate.count > threshold(rate.mean, 0);
+            if (domainBurst && !rate.flagged) {
+                rate.flagged = true;
+                alerts.add(new Alert(domain, hourStart, rate.count, rate.mean));
+            }
+        }
+
+        return new Observation(inboxBurst || domainBurst, alerts);
+    }
+
+    /**
+     * Warm start from stored history: an hour's message count, hours in increasing order.
+     */
+    public synchronized void seedHour(LocalDateTime hourStart, long count) {
+        long hour = epochHour(hourStart);
+        if (currentHour != Long.MIN_VALUE && hour < currentHour) {
+            return;
+        }
+        roll(hour);
+        hourCount += count;
+    }
+
+    /**
+     * Warm start from stored history: a domain's average messages per hour, as of an hour.
+     */
+    public synchronized void seedDomain(String domain, double perHour, LocalDateTime asOf) {
+        DomainRate rate = new DomainRate();
+        rate.mean = perHour;
+        rate.hour = epochHour(asOf);
+        domains.put(domain, rate);
+    }
+
+    synchronized int trackedDomains() {
+        return domains.size();
+    }
+
+    // Close the hours between the current one and the given (later or same) one
+    private void roll(long hour) {
+        if (currentHour == Long.MIN_VALUE) {
+            currentHour = hour;
+            return;
+        }
+        if (hour == currentHour) {
+            return;
+        }
+        for (int steps = 0; currentHour < hour && steps < SLOTS; steps++) {
+            close(currentHour, hourCount);
+            hourCount = 0;
+            currentHour++;
+        }
+        // After a week or more of silence every slot has already seen an empty hour; skip the rest
+        currentHour = hour;
+        hourCount = 0;
+        inboxFlagged = false;
+    }
+
+    private void close(long hour, long count) {
+        int slot = slotOf(hour);
+        if (!slotSeen[slot]) {
+            slotSeen[slot] = true;
+            slotMean[slot] = count;
+            slotVar[slot] = 0;
+        } else {
+            double diff = count - slotMean[slot];
+            double increment = SEASONAL_ALPHA * diff;
+            slotMean[slot] += increment;
+            slotVar[slot] = (1 - SEASONAL_ALPHA) * (slotVar[slot] + diff * increment);
+        }
+
+        if (hoursObserved == 0) {
+            hourlyMean = count;
+        } else {
+            double diff = count - hourlyMean;
+            double increment = HOURLY_ALPHA * diff;
+            hourlyMean += increment;
+            hourlyVar = (1 - HOURLY_ALPHA) * (hourlyVar + diff * increment);
+        }
+        hoursObserved++;
+    }
+
+    private double threshold(double mean, double var) {
+        double spread = Math.max(1, Math.max(Math.sqrt(var), Math.sqrt(mean)));
+        return mean + settings.sigmas() * spread;
+    }
+
+    // Local time read as UTC, so hours line up with the server-local times of the stats rollups
+    private static long epochHour(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    private static LocalDateTime hourStart(long epochHour) {
+        return LocalDateTime.ofEpochSecond(epochHour * 3600, 0, ZoneOffset.UTC);
+    }
+
+    private static int slotOf(long epochHour) {
+        return (int) Math.floorMod(epochHour, (long) SLOTS);
+    }
+}
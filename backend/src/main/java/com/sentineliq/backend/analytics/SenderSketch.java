@@ -0,0 +1,65 @@
+package com.sentineliq.backend.analytics;
+
+import com.sentineliq.backend.model.SenderSketchDay;
+
+import java.util.List;
+
+/**
+ * Top senders and distinct senders of some stream of emails, kept together.
+ * Thread-safe.
+ */
+final class SenderSketch {
+
+    private final SpaceSaving topSenders;
+    private final HyperLogLog distinctSenders;
+
+    SenderSketch(int capacity) {
+        this(new SpaceSaving(capacity), new HyperLogLog());
+    }
+
+    private SenderSketch(SpaceSaving topSenders, HyperLogLog distinctSenders) {
+        this.topSenders = topSenders;
+        this.distinctSenders = distinctSenders;
+    }
+
+    static SenderSketch from(SenderSketchDay row) {
+        return new SenderSketch(SpaceSaving.fromBytes(row.getTopSenders()), HyperLogLog.fromBytes(row.getDistinctSenders()));
+    }
+
+    synchronized void add(String address) {
+        topSenders.add(address);
+        distinctSenders.add(address);
+    }
+
+    void merge(SenderSketch other) {
+        // Copy the other side first, so the two locks are never held together
+        SpaceSaving otherTop;
+        HyperLogLog otherDistinct;
+        synchronized (other) {
+            otherTop = SpaceSaving.fromBytes(other.topSenders.toBytes());
+            otherDistinct = HyperLogLog.fromBytes(other.distinctSenders.toBytes());
+        }
+        synchronized (this) {
+            topSenders.merge(otherTop);
+            distinctSenders.merge(otherDistinct);
+        }
+    }
+
+    synchronized void writeTo(SenderSketchDay row) {
+        row.setEmailCount(topSenders.getTotal());
+        row.setTopSenders(topSenders.toBytes());
+        row.setDistinctSenders(distinctSenders.toBytes());
+    }
+
+    synchronized long emails() {
+        return topSenders.getTotal();
+    }
+
+    synchronized long distinctSenders() {
+        return distinctSenders.estimate();
+    }
+
+    synchronized List<SpaceSaving.Entry> top(int n) {
+        return topSenders.top(n);
+    }
+}
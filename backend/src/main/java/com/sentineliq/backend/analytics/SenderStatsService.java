@@ -0,0 +1,220 @@
+package com.sentineliq.backend.analytics;
+
+import com.sentineliq.backend.dto.SenderCount;
+import com.sentineliq.backend.dto.SenderStats;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.SenderSketchDay;
+import com.sentineliq.backend.repository.SenderSketchRepository;
+import com.sentineliq.backend.util.SenderAddressParser;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SenderStatsService answers "top senders" and "distinct senders" questions from sketches
+ * instead of scanning emails.
+ *
+ * - Each inbox has one pair of sketches per day (Space-Saving top senders, HyperLogLog distinct
+ *   senders), stored in sender_sketches. See SpaceSaving and HyperLogLog for the error bounds.
+ * - Ingest adds senders to this node's in-memory sketches of the emails' days: O(1) per email
+ *   for a tracked sender or while counters are free, else an O(capacity) scan to evict the smallest.
+ * - Every flush-interval-ms those pending sketches are merged into the stored rows (locked while
+ *   merging), so several nodes can record the same inbox and day without losing counts.
+ * - A query merges the stored days of the requested inboxes with this node's pending sketches;
+ *   counts from other nodes show up after their next flush.
+ * - Days past retention-days are deleted.
+ */
+@Slf4j
+@Service
+public class SenderStatsService {
+
+    public static final int DEFAULT_DAYS = 7;
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    record Key(long inboxId, LocalDate day) {
+    }
+
+    private final SenderSketchRepository sketchRepository;
+    private final TransactionTemplate tx;
+    private final int capacity;
+    private final int retentionDays;
+
+    // Counts recorded on this node since the last flush
+    private final Map<Key, SenderSketch> pending = new ConcurrentHashMap<>();
+
+    public SenderStatsService(
+            SenderSketchRepository sketchRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${analytics.sender-sketch.top-capacity:64}") int capacity,
+            @Value("${analytics.sender-sketch.retention-days:35}") int retentionDays) {
+        this.sketchRepository = sketchRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.retentionDays = retentionDays;
+    }
+
+    /**
+     * Top and distinct senders of some inboxes over the last days (today included), merged.
+     *
+     * @param inboxIds inboxes owned by the caller
+     * @param days     number of days (default 7, at most retention-days)
+     * @param limit    number of top senders (default 10, at most 50)
+     * @throws IllegalArgumentException if days is out of range
+     */
+    public SenderStats stats(Collection<Long> inboxIds, Integer days, Integer limit) {
+        int dayCount = days == null ? DEFAULT_DAYS : days;
+        if (dayCount < 1 || dayCount > retentionDays) {
+            throw new IllegalArgumentException("'days' must be between 1 and " + retentionDays);
+        }
+        int top = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, Math.min(MAX_LIMIT, capacity)));
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(dayCount - 1L);
+
+        SenderSketch merged = new SenderSketch(capacity);
+        if (!inboxIds.isEmpty()) {
+            for (SenderSketchDay row : sketchRepository.findRange(inboxIds, from, to)) {
+                merged.merge(SenderSketch.from(row));
+            }
+        }
+        pending.forEach((key, sketch) -> {
+            if (inboxIds.contains(key.inboxId()) && !key.day().isBefore(from) && !key.day().isAfter(to)) {
+                merged.merge(sketch);
+            }
+        });
+
+        return SenderStats.builder()
+                .from(from)
+                .to(to)
+                .emails(merged.emails())
+                .distinctSenders(merged.distinctSenders())
+                .topSenders(merged.top(top).stream()
+                        .map(entry -> SenderCount.builder()
+                                .address(entry.value())
+                                .count(entry.count())
+                                .maxError(entry.error())
+                                .build())
+                        .toList())
+                .build();
+    }
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        Map<Key, List<String>> byDay = new HashMap<>();
+        for (Email email : event.getEmails()) {
+            String address = address(email);
+            if (email.getReceivedAt() != null && !address.isEmpty()) {
+                byDay.computeIfAbsent(new Key(event.getInboxId(), email.getReceivedAt().toLocalDate()),
+                        k -> new ArrayList<>()).add(address);
+            }
+        }
+        // compute() is atomic with flush()'s remove(), so no sender is added to a sketch already written
+        byDay.forEach((key, addresses) -> pending.compute(key, (k, sketch) -> {
+            SenderSketch target = sketch != null ? sketch : new SenderSketch(capacity);
+            addresses.forEach(target::add);
+            return target;
+        }));
+    }
+
+    /**
+     * Merge this node's pending sketches into the stored ones.
+     */
+    @Scheduled(fixedDelayString = "${analytics.sender-sketch.flush-interval-ms:60000}")
+    public void flush() {
+        int flushed = 0;
+        for (Key key : List.copyOf(pending.keySet())) {
+            SenderSketch delta = pending.remove(key);
+            if (delta == null) {
+                continue;
+            }
+            try {
+                persist(key, delta);
+                flushed++;
+            } catch (RuntimeException e) {
+                // Keep the counts for the next attempt
+                log.warn("⚠️ Failed to store sender sketches of inbox ID {} for {}: {}", key.inboxId(), key.day(), e.getMessage());
+                pending.merge(key, delta, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                });
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Stored {} sender sketches", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Forget days past retention.
+     */
+    @Scheduled(fixedDelayString = "${analytics.sender-sketch.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDate firstKept = LocalDate.now().minusDays(retentionDays);
+        pending.keySet().removeIf(key -> key.day().isBefore(firstKept));
+        int deleted = sketchRepository.deleteBefore(firstKept);
+        if (deleted > 0) {
+            log.info("🧹 Purged {} expired sender sketches", deleted);
+        }
+    }
+
+    /**
+     * Sketches of a deleted inbox are of no use to anyone. A flush already in progress may
+     * still write one more day; retention removes it.
+     */
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        pending.keySet().removeIf(key -> key.inboxId() == event.getInboxId());
+        sketchRepository.deleteByInbox(event.getInboxId());
+    }
+
+    private void persist(Key key, SenderSketch delta) {
+        try {
+            tx.executeWithoutResult(status -> fold(key, delta));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the day's row first; it exists now, so merge into that
+            tx.executeWithoutResult(status -> fold(key, delta));
+        }
+    }
+
+    private void fold(Key key, SenderSketch delta) {
+        SenderSketchDay row = sketchRepository.findForUpdate(key.inboxId(), key.day())
+                .orElseGet(() -> SenderSketchDay.builder()
+                        .emailAccountId(key.inboxId())
+                        .day(key.day())
+                        .build());
+        SenderSketch stored = row.getId() == null ? new SenderSketch(capacity) : SenderSketch.from(row);
+        stored.merge(delta);
+        stored.writeTo(row);
+        sketchRepository.saveAndFlush(row);
+    }
+
+    // Same normalized address as the senders table
+    private static String address(Email email) {
+        if (email.getSenderRef() != null && email.getSenderRef().getAddress() != null) {
+            return email.getSenderRef().getAddress();
+        }
+        return email.getSender() == null ? "" : SenderAddressParser.parse(email.getSender()).address();
+    }
+}
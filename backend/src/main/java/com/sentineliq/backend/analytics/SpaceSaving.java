@@ -0,0 +1,199 @@
+package com.sentineliq.backend.analytics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving heavy-hitter sketch (Metwally et al.): approximate top-k with a fixed number of counters.
+ *
+ * With capacity m over a stream of N values:
+ * - every value seen more than N/m times is guaranteed to be kept;
+ * - a kept count never underestimates and overestimates by at most its error, itself at most N/m
+ *   (so with m = 64, a count is within 1.6% of the stream size);
+ * - merging two sketches (Agarwal et al., "Mergeable Summaries") keeps the same bounds
+ *   with N the combined stream size, so days and inboxes can be combined freely.
+ *
+ * Adding a kept value is O(1); a new value evicts the smallest counter with an O(m) scan.
+ * Not thread-safe; callers synchronize.
+ */
+public final class SpaceSaving {
+
+    /**
+     * A kept value: count is an upper bound, count - error a lower bound of its true frequency.
+     */
+    public record Entry(String value, long count, long error) {
+    }
+
+    private static final byte VERSION = 1;
+
+    private static final Comparator<Entry> BY_COUNT = Comparator.comparingLong(Entry::count).reversed()
+            .thenComparing(Entry::value);
+
+    private final int capacity;
+    private final Map<String, long[]> counters; // value -> {count, error}
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of values added (N), including those merged in.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void add(String value) {
+        total++;
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+        } else if (counters.size() < capacity) {
+            counters.put(value, new long[]{1, 0});
+        } else {
+            // The newcomer takes over the smallest counter, inheriting its count as error
+            String evicted = minValue();
+            long min = counters.remove(evicted)[0];
+            counters.put(value, new long[]{min + 1, min});
+        }
+    }
+
+    /**
+     * Fold another sketch into this one; the result keeps this sketch's capacity.
+     */
+    public void merge(SpaceSaving other) {
+        // A value missing from a full sketch may have occurred up to its smallest count
+        long missingHere = minCount();
+        long missingThere = other.minCount();
+
+        Set<String> values = new HashSet<>(counters.keySet());
+        values.addAll(other.counters.keySet());
+        List<Entry> merged = new ArrayList<>(values.size());
+        for (String value : values) {
+            long[] here = counters.get(value);
+            long[] there = other.counters.get(value);
+            merged.add(new Entry(value,
+                    (here == null ? missingHere : here[0]) + (there == null ? missingThere : there[0]),
+                    (here == null ? missingHere : here[1]) + (there == null ? missingThere : there[1])));
+        }
+        merged.sort(BY_COUNT);
+
+        counters.clear();
+        for (Entry entry : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counters.put(entry.value(), new long[]{entry.count(), entry.error()});
+        }
+        total += other.total;
+    }
+
+    /**
+     * The n most frequent values, highest count first.
+     */
+    public List<Entry> top(int n) {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((value, counter) -> entries.add(new Entry(value, counter[0], counter[1])));
+        entries.sort(BY_COUNT);
+        return entries.subList(0, Math.min(n, entries.size()));
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    // Serialized form: version, capacity, total, then each counter as (value, count, error)
+    public byte[] toBytes() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(16 + counters.size() * 32);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(VERSION);
+            writeVarLong(out, capacity);
+            writeVarLong(out, total);
+            writeVarLong(out, counters.size());
+            for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeVarLong(out, entry.getValue()[0]);
+                writeVarLong(out, entry.getValue()[1]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Not a serialized SpaceSaving sketch");
+            }
+            SpaceSaving sketch = new SpaceSaving((int) readVarLong(in));
+            sketch.total = readVarLong(in);
+            long size = readVarLong(in);
+            for (long i = 0; i < size; i++) {
+                String value = in.readUTF();
+                sketch.counters.put(value, new long[]{readVarLong(in), readVarLong(in)});
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a serialized SpaceSaving sketch", e);
+        }
+    }
+
+    // Smallest kept count, or 0 while there are free counters (nothing was evicted yet)
+    private long minCount() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.get(minValue())[0];
+    }
+
+    private String minValue() {
+        String min = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (entry.getValue()[0] < minCount) {
+                minCount = entry.getValue()[0];
+                min = entry.getKey();
+            }
+        }
+        return min;
+    }
+
+    // Counts are small for most senders, so 7 bits per byte saves most of the 8 bytes of a long
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
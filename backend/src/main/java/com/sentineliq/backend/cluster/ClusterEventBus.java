@@ -0,0 +1,23 @@
+package com.sentineliq.backend.cluster;
+
+import java.util.Collection;
+
+/**
+ * Carries inbox changes made on this node to the other nodes of the deployment.
+ *
+ * Local listeners are already notified through Spring application events; the bus only
+ * covers other nodes, which republish what they receive as a RemoteInboxChangedEvent.
+ * Selected with app.events.bus (local | postgres).
+ */
+public interface ClusterEventBus {
+
+    /**
+     * Announce a change. May be delayed briefly and merged with other changes to the same inbox.
+     */
+    void publish(ClusterMessage.Type type, Long inboxId, Long userId, Collection<Long> emailIds);
+
+    /**
+     * This node's id, stamped on every message it sends.
+     */
+    String nodeId();
+}
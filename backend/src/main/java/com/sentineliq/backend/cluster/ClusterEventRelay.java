@@ -0,0 +1,39 @@
+package com.sentineliq.backend.cluster;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Forwards this node's inbox changes to the other nodes through the ClusterEventBus.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClusterEventRelay {
+
+    private final ClusterEventBus clusterEventBus;
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        List<Long> ids = event.getEmails().stream().map(Email::getId).toList();
+        clusterEventBus.publish(ClusterMessage.Type.EMAILS_INGESTED, event.getInboxId(), event.getUserId(), ids);
+    }
+
+    @EventListener
+    public void onEmailsUpdated(EmailsUpdatedEvent event) {
+        List<Long> ids = event.getEmails().stream().map(EmailSummaryDto::getId).toList();
+        clusterEventBus.publish(ClusterMessage.Type.EMAILS_UPDATED, event.getInboxId(), null, ids);
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        clusterEventBus.publish(ClusterMessage.Type.INBOX_DELETED, event.getInboxId(), event.getUserId(), List.of());
+    }
+}
@@ -0,0 +1,22 @@
+package com.sentineliq.backend.cluster;
+
+import java.util.List;
+
+/**
+ * An inbox change announced to the other nodes.
+ *
+ * @param origin    node that made the change (receivers ignore their own messages)
+ * @param type      what happened
+ * @param inboxId   affected inbox
+ * @param userId    owner of the inbox, when known
+ * @param emailIds  affected emails (may be cut short, see truncated)
+ * @param truncated true when more emails changed than fit in one message
+ */
+public record ClusterMessage(String origin, Type type, Long inboxId, Long userId, List<Long> emailIds, boolean truncated) {
+
+    public enum Type {
+        EMAILS_INGESTED,
+        EMAILS_UPDATED,
+        INBOX_DELETED
+    }
+}
@@ -0,0 +1,28 @@
+package com.sentineliq.backend.cluster;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Single-node deployments: there is nobody else to tell.
+ * Local listeners already got the change as a Spring application event.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "local", matchIfMissing = true)
+public class LocalEventBus implements ClusterEventBus {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Override
+    public void publish(ClusterMessage.Type type, Long inboxId, Long userId, Collection<Long> emailIds) {
+        // Nothing to do
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+}
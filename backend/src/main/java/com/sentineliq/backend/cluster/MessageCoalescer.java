@@ -0,0 +1,70 @@
+package com.sentineliq.backend.cluster;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges bursts of changes into one message per (type, inbox).
+ *
+ * A sync that stores 200 emails one by one becomes a single message listing them,
+ * capped at maxIds so the payload stays within NOTIFY's 8000-byte limit.
+ */
+final class MessageCoalescer {
+
+    private record Key(ClusterMessage.Type type, Long inboxId) {
+    }
+
+    private static final class Pending {
+        Long userId;
+        final Set<Long> emailIds = new LinkedHashSet<>();
+        boolean truncated;
+    }
+
+    private final String origin;
+    private final int maxIds;
+    private Map<Key, Pending> pending = new LinkedHashMap<>();
+
+    MessageCoalescer(String origin, int maxIds) {
+        this.origin = origin;
+        this.maxIds = maxIds;
+    }
+
+    synchronized void add(ClusterMessage.Type type, Long inboxId, Long userId, Collection<Long> emailIds) {
+        Pending entry = pending.computeIfAbsent(new Key(type, inboxId), key -> new Pending());
+        if (userId != null) {
+            entry.userId = userId;
+        }
+        if (emailIds != null) {
+            for (Long id : emailIds) {
+                if (entry.emailIds.size() >= maxIds) {
+                    entry.truncated = true;
+                    break;
+                }
+                entry.emailIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * Take everything queued so far, one message per (type, inbox).
+     */
+    List<ClusterMessage> drain() {
+        Map<Key, Pending> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+        List<ClusterMessage> messages = new ArrayList<>(batch.size());
+        batch.forEach((key, entry) -> messages.add(new ClusterMessage(
+                origin, key.type(), key.inboxId(), entry.userId, List.copyOf(entry.emailIds), entry.truncated)));
+        return messages;
+    }
+}
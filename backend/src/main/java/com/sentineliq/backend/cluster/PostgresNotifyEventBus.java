@@ -0,0 +1,187 @@
+package com.sentineliq.backend.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster event bus on PostgreSQL LISTEN/NOTIFY (no extra broker).
+ *
+ * - Outgoing changes are coalesced for coalesce-ms and sent with pg_notify over the normal pool.
+ * - A dedicated connection (outside the pool, it never returns) LISTENs on the channel; a daemon
+ *   thread waits for notifications and republishes them as RemoteInboxChangedEvent.
+ * - If that connection breaks, it reconnects with exponential backoff and publishes a
+ *   ClusterReconnectedEvent, since anything sent meanwhile was missed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "postgres")
+public class PostgresNotifyEventBus implements ClusterEventBus {
+
+    private static final int MAX_IDS_PER_MESSAGE = 300;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final long coalesceMillis;
+    private final MessageCoalescer coalescer;
+    private final ScheduledExecutorService flusher;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresNotifyEventBus(
+            JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${app.events.channel:sentineliq_events}") String channel,
+            @Value("${app.events.coalesce-ms:100}") long coalesceMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid app.events.channel: " + channel);
+        }
+        this.channel = channel;
+        this.coalesceMillis = coalesceMillis;
+        this.coalescer = new MessageCoalescer(nodeId, MAX_IDS_PER_MESSAGE);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-events-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher.scheduleWithFixedDelay(this::flush, coalesceMillis, coalesceMillis, TimeUnit.MILLISECONDS);
+        listenerThread = new Thread(this::listenLoop, "cluster-events-listen");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Cluster event bus on channel '{}' started (node {})", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        flush();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(ClusterMessage.Type type, Long inboxId, Long userId, Collection<Long> emailIds) {
+        coalescer.add(type, inboxId, userId, emailIds);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // ---- Sending ----
+
+    private void flush() {
+        for (ClusterMessage message : coalescer.drain()) {
+            try {
+                String payload = objectMapper.writeValueAsString(message);
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, channel, payload);
+            } catch (Exception e) {
+                // Other nodes fall back to their cache TTLs for this change
+                log.warn("Failed to send cluster event for inbox {}", message.inboxId(), e);
+            }
+        }
+    }
+
+    // ---- Receiving ----
+
+    private void listenLoop() {
+        long backoff = 1000;
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                if (connectedBefore) {
+                    log.info("Cluster event bus reconnected");
+                    eventPublisher.publishEvent(new ClusterReconnectedEvent());
+                }
+                connectedBefore = true;
+                backoff = 1000;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    // Blocks up to 10s; also notices a dead connection
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster event bus connection lost, retrying in {} ms: {}", backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+        return connection;
+    }
+
+    private void receive(String payload) {
+        try {
+            ClusterMessage message = objectMapper.readValue(payload, ClusterMessage.class);
+            if (!nodeId.equals(message.origin())) {
+                eventPublisher.publishEvent(new RemoteInboxChangedEvent(message));
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cluster event: {}", payload, e);
+        }
+    }
+}
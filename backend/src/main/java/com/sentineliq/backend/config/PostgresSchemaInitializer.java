@@ -0,0 +1,97 @@
+package com.sentineliq.backend.config;
+
+import com.sentineliq.backend.util.SenderAddressParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the PostgreSQL-only parts of the schema that Hibernate's ddl-auto can't express
+ * (tsvector columns, triggers, GIN/partial indexes...).
+ *
+ * - Runs once on startup, after Hibernate has created/updated the tables.
+ * - The script is idempotent (IF NOT EXISTS / CREATE OR REPLACE), so it is safe on every boot.
+ * - Skipped on other databases (e.g. the H2 database used by tests).
+ * - Statements are separated by "^;" so function bodies can contain plain semicolons.
+ * - When the script migrates the old emails.sender column, the new sender rows get their
+ *   registrable domain here, from SenderAddressParser, so the suffix list lives in one place.
+ */
+@Slf4j
+@Component
+public class PostgresSchemaInitializer implements ApplicationRunner {
+
+    private static final String SCRIPT = "db/postgres-schema.sql";
+    private static final int DOMAIN_BATCH = 1000;
+
+    private final DataSource dataSource;
+
+    @Value("${app.db.postgres-schema.enabled:true}")
+    private boolean enabled;
+
+    public PostgresSchemaInitializer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        if (!enabled || !isPostgres()) {
+            log.info("Skipping {} (not PostgreSQL or disabled)", SCRIPT);
+            return;
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        boolean migratingSenders = hasRawSenderColumn(jdbcTemplate);
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SCRIPT));
+        populator.setSeparator("^;");
+        populator.execute(dataSource);
+        log.info("✅ Applied {}", SCRIPT);
+
+        if (migratingSenders) {
+            backfillSenderDomains(jdbcTemplate);
+        }
+    }
+
+    private static boolean hasRawSenderColumn(JdbcTemplate jdbcTemplate) {
+        Boolean exists = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                               WHERE table_name = 'emails' AND column_name = 'sender')
+                """, Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    // The migration stored each sender's full host; reduce it to the registrable domain
+    private static void backfillSenderDomains(JdbcTemplate jdbcTemplate) {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, address, domain FROM senders WHERE domain <> ''", (RowCallbackHandler) row -> {
+            String address = row.getString("address");
+            String domain = SenderAddressParser.registrableDomain(address.substring(address.lastIndexOf('@') + 1));
+            if (!domain.equals(row.getString("domain"))) {
+                updates.add(new Object[] {domain, row.getLong("id")});
+            }
+        });
+        for (int from = 0; from < updates.size(); from += DOMAIN_BATCH) {
+            jdbcTemplate.batchUpdate("UPDATE senders SET domain = ? WHERE id = ?",
+                    updates.subList(from, Math.min(from + DOMAIN_BATCH, updates.size())));
+        }
+        log.info("✅ Set the registrable domain of {} migrated senders", updates.size());
+    }
+
+    private boolean isPostgres() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        }
+    }
+}
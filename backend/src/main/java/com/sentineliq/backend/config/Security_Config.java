@@ -1,9 +1,11 @@
 package com.sentineliq.backend.config;
 
 
+import com.sentineliq.backend.security.AuthRateLimitFilter;
+import com.sentineliq.backend.security.BoundedPasswordEncoder;
 import com.sentineliq.backend.security.JwtAuthenticationFilter;
 
-import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.DispatcherType;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -19,13 +21,29 @@ import java.util.List;
 public class Security_Config {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
 
     @Value("${app.frontend.url}")
     private String frontendUrl;
 
-    // ✅ Constructor-based injection of the JWT filter
-    public Security_Config(JwtAuthenticationFilter jwtAuthenticationFilter) {
+    // BCrypt cost for new hashes; older hashes are upgraded on the next successful login
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // Dedicated hashing workers (0 = one per CPU) and how many requests may wait for one
+    @Value("${security.bcrypt.pool-size:0}")
+    private int bcryptPoolSize;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int bcryptQueueCapacity;
+
+    @Value("${security.bcrypt.timeout-ms:5000}")
+    private long bcryptTimeoutMillis;
+
+    // ✅ Constructor-based injection of the JWT and rate limit filters
+    public Security_Config(JwtAuthenticationFilter jwtAuthenticationFilter, AuthRateLimitFilter authRateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.authRateLimitFilter = authRateLimitFilter;
     }
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -44,6 +62,8 @@ public class Security_Config {
             .formLogin(form -> form.disable())
             .httpBasic(basic -> basic.disable())
             .authorizeHttpRequests(auth -> auth
+                // Async/error re-dispatches (e.g. when an SSE stream completes) were already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers(
                     "/api/auth/signup",
                     "/api/auth/login",
@@ -54,17 +74,9 @@ public class Security_Config {
                 ).permitAll()
                 .anyRequest().authenticated()
             )
-            .logout(logout -> logout
-                .logoutUrl("/api/auth/logout")
-                .deleteCookies("access_token", "refresh_token")
-                .invalidateHttpSession(true)
-                .clearAuthentication(true)
-                .logoutSuccessHandler((request, response, authentication) -> {
-                    response.setStatus(HttpServletResponse.SC_OK);
-                    response.setContentType("application/json");
-                    response.getWriter().write("{\"message\": \"Logout successful\"}");
-                })
-            )
+            // Logout is handled by AuthenticationController, which revokes the refresh token and clears the cookies
+            .logout(logout -> logout.disable())
+            .addFilterBefore(authRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -74,7 +86,12 @@ public class Security_Config {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int poolSize = bcryptPoolSize > 0 ? bcryptPoolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(bcryptStrength),
+                poolSize,
+                bcryptQueueCapacity,
+                bcryptTimeoutMillis);
     }
 
    
@@ -3,9 +3,15 @@ package com.sentineliq.backend.controller;
 import com.sentineliq.backend.dto.LoginRequest;
 import com.sentineliq.backend.dto.SignupRequest;
 import com.sentineliq.backend.dto.TokenRefreshRequest;
+import com.sentineliq.backend.dto.UserSummary;
 import com.sentineliq.backend.model.User;
 import com.sentineliq.backend.repository.UserRepository;
+import com.sentineliq.backend.security.AuthRateLimiter;
+import com.sentineliq.backend.service.RefreshTokenService;
+import com.sentineliq.backend.service.UserLookupService;
 import com.sentineliq.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -36,9 +42,21 @@ public class AuthenticationController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserLookupService userLookupService;
+
     // 📝 Signup Method
    @PostMapping("/signup")
     public ResponseEntity<Map<String, String>> registerUser(@Valid @RequestBody SignupRequest signupRequest, HttpServletResponse response) {
+        // Throttle before touching the database or hashing anything
+        authRateLimiter.checkUsername(signupRequest.getUsername());
+
         if (userRepository.existsByUsername(signupRequest.getUsername())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                                 .body(Map.of("message", "Username is already taken"));
@@ -72,6 +90,9 @@ public class AuthenticationController {
     // 🔐 Login Method
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> loginUser(@RequestBody LoginRequest loginRequest, HttpServletResponse response) {
+        // Throttle before touching the database or hashing anything
+        authRateLimiter.checkUsername(loginRequest.getUsername());
+
         // Find user by username
         Optional<User> userOptional = userRepository.findByUsername(loginRequest.getUsername());
         if (userOptional.isEmpty()) {
@@ -87,6 +108,12 @@ public class AuthenticationController {
                                  .body(Map.of("message", "Invalid credentials"));
         }
 
+        // Transparently re-hash passwords stored with an older BCrypt cost
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(loginRequest.getPassword()));
+            userRepository.save(user);
+        }
+
         // Generate tokens
         String accessToken = jwtUtil.generateAccessToken(user.getUsername(), user.getRole());
         String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
@@ -101,31 +128,62 @@ public class AuthenticationController {
 
     
 
-    // 🔄 Token Refresh Method
+    // 🔄 Token Refresh Method (rotates the refresh token: each one can be used only once)
     @PostMapping("/refresh")
-    public ResponseEntity<Map<String, String>> refreshToken(@RequestBody TokenRefreshRequest refreshRequest, HttpServletResponse response) {
-        String refreshToken = refreshRequest.getRefreshToken();
+    public ResponseEntity<Map<String, String>> refreshToken(
+            @RequestBody(required = false) TokenRefreshRequest refreshRequest,
+            @CookieValue(value = "refresh_token", required = false) String refreshCookie,
+            HttpServletResponse response) {
+        String refreshToken = refreshRequest != null && refreshRequest.getRefreshToken() != null
+                ? refreshRequest.getRefreshToken()
+                : refreshCookie;
+
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body(Map.of("message", "Missing refresh token"));
+        }
 
         // Validate the refresh token
-        if (jwtUtil.validateToken(refreshToken) == null) {
+        Claims claims;
+        try {
+            claims = jwtUtil.validateToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            claims = null;
+        }
+        if (claims == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                                  .body(Map.of("message", "Invalid refresh token"));
         }
 
+        // Consume it; a second use means it was stolen or replayed
+        if (!refreshTokenService.consume(claims)) {
+            clearCookie(response, "access_token");
+            clearCookie(response, "refresh_token");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                 .body(Map.of("message", "Refresh token has been revoked"));
+        }
+
         String username = jwtUtil.getUsernameFromToken(refreshToken);
-        User user = userRepository.findByUsername(username)
+        UserSummary user = userLookupService.findByUsername(username)
                                   .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Generate new access token
+        // Generate new access token and a replacement refresh token
         String newAccessToken = jwtUtil.generateAccessToken(user.getUsername(), user.getRole());
+        String newRefreshToken = jwtUtil.generateRefreshToken(user.getUsername());
         setCookie(response, "access_token", newAccessToken, 15 * 60); // 15 minutes
+        setCookie(response, "refresh_token", newRefreshToken, 7 * 24 * 60 * 60); // 7 days
 
         return ResponseEntity.ok(Map.of("message", "Token refreshed successfully"));
     }
 
     // 🚪 Logout Method
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logoutUser(HttpServletResponse response) {
+    public ResponseEntity<Map<String, String>> logoutUser(
+            @CookieValue(value = "refresh_token", required = false) String refreshCookie,
+            HttpServletResponse response) {
+        // Revoke the refresh token so it can't be replayed after logout
+        refreshTokenService.revokeQuietly(refreshCookie);
+
         // Clear cookies
         clearCookie(response, "access_token");
         clearCookie(response, "refresh_token");
@@ -1,20 +1,50 @@
 package com.sentineliq.backend.controller;
 
-import com.sentineliq.backend.dto.EmailDto;
-import com.sentineliq.backend.model.Email;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sentineliq.backend.analytics.SenderStatsService;
+import com.sentineliq.backend.dto.BulkEmailRequest;
+import com.sentineliq.backend.dto.BulkEmailResult;
+import com.sentineliq.backend.dto.InboxSummary;
+import com.sentineliq.backend.dto.UserSummary;
 import com.sentineliq.backend.model.EmailAccount;
 import com.sentineliq.backend.repository.EmailAccountRepository;
 import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.service.BulkEmailService;
+import com.sentineliq.backend.service.EmailChangeService;
+import com.sentineliq.backend.service.EmailJsonRenderer;
+import com.sentineliq.backend.service.EmailPageCache;
+import com.sentineliq.backend.service.EmailThreadService;
 import com.sentineliq.backend.service.GmailService;
+import com.sentineliq.backend.service.InboxDeletionService;
+import com.sentineliq.backend.service.InboxExportService;
+import com.sentineliq.backend.service.InboxStatsService;
+import com.sentineliq.backend.service.InboxVersionService;
+import com.sentineliq.backend.service.UnifiedInboxService;
+import com.sentineliq.backend.service.UserLookupService;
 import com.sentineliq.backend.util.JwtUtil;
+import com.sentineliq.backend.util.SenderAddressParser;
+import com.sentineliq.backend.util.WireFormat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.OptionalLong;
+import java.util.Set;
 
 @Slf4j // Enables logging for this class
 @RestController // Marks this class as a REST controller
@@ -25,8 +55,15 @@ public class EmailController {
     // This controller handles all email-related API endpoints for Gmail inboxes.
     // It lets authenticated users:
     // - Get all emails for one of their inboxes
+    // - Get the newest emails across all of their inboxes (unified inbox)
+    // - List the conversations (threads) of one of their inboxes
     // - Get a single email by its ID
+    // - Mark many emails as spam / not spam in one request
     // - Resync (refresh) emails from Gmail for a specific inbox
+    // - Export a whole inbox as a gzip-compressed NDJSON file
+    // - Get hourly or daily mail statistics (volume, spam rate, average trust score) of an inbox
+    // - Get the top and distinct senders of an inbox, or of all their inboxes, over the last days
+    // - Delete an inbox (in the background) and follow the deletion's progress
     // All endpoints require a valid JWT in the 'access_token' cookie and only allow access to the user's own inboxes/emails.
 
     // Inject repositories and utilities via constructor
@@ -34,20 +71,51 @@ public class EmailController {
     private final EmailRepository emailRepo;
     private final JwtUtil jwtUtil;
     private final GmailService gmailService;
+    private final UserLookupService userLookupService;
+    private final InboxVersionService inboxVersionService;
+    private final EmailPageCache emailPageCache;
+    private final EmailChangeService emailChangeService;
+    private final UnifiedInboxService unifiedInboxService;
+    private final InboxExportService inboxExportService;
+    private final EmailJsonRenderer emailJsonRenderer;
+    private final BulkEmailService bulkEmailService;
+    private final InboxDeletionService inboxDeletionService;
+    private final EmailThreadService emailThreadService;
+    private final InboxStatsService inboxStatsService;
+    private final SenderStatsService senderStatsService;
+
+    private static final int MAX_PAGE_SIZE = 500;
 
 
     /**
-     * Get all emails for a specific inbox.
+     * Get the emails of a specific inbox, newest first, optionally only those from one sender domain.
      * Only allows access if the inbox belongs to the authenticated user.
      * Requires a valid JWT in the 'access_token' cookie.
      *
-     * @param inboxId The ID of the inbox to fetch emails for
-     * @param token   JWT from cookie for authentication
-     * @return        200 OK with emails, 401/403/404 otherwise
+     * Responses carry an ETag derived from the inbox's sync version. A request whose
+     * If-None-Match still matches gets 304 without touching the database, and first pages
+     * are served from an in-memory copy until the next sync stores emails.
+     *
+     * @param inboxId     The ID of the inbox to fetch emails for
+     * @param domain      Optional registrable sender domain (e.g. "example.com")
+     * @param page        Optional page number (0-based, only used with size)
+     * @param size        Optional page size; all emails are returned when omitted
+     * @param fields      Optional comma-separated fields to return (e.g. "id,subject,receivedAt");
+     *                    only their columns are read. All fields when omitted; "id" is always included
+     * @param ifNoneMatch ETag from a previous response
+     * @param accept      application/json (default), application/x-jackson-smile or application/cbor
+     * @param token       JWT from cookie for authentication
+     * @return            200 OK with emails, 304 if unchanged, 400/401/403/404 otherwise
      */
     @GetMapping("/emails")
     public ResponseEntity<?> getEmailsByInbox(
             @RequestParam("inboxId") Long inboxId,
+            @RequestParam(value = "domain", required = false) String domain,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @CookieValue(value = "access_token", required = false) String token
     ) {
         // Check for missing JWT
@@ -65,40 +133,215 @@ public class EmailController {
             return ResponseEntity.status(401).body("Invalid authentication token");
         }
 
-        // Find the inbox by ID
-        Optional<EmailAccount> inboxOpt = emailAccountRepo.findById(inboxId);
-        if (inboxOpt.isEmpty()) {
-            log.warn("❌ Inbox ID {} not found", inboxId);
+        // Check ownership against the cached inbox list; only hit the DB to tell 404 from 403.
+        // An inbox being deleted is left out of that list, and is already gone for its owner too.
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            if (!emailAccountRepo.existsByIdAndDeletingFalse(inboxId)) {
+                log.warn("❌ Inbox ID {} not found", inboxId);
+                return ResponseEntity.status(404).body("Inbox not found");
+            }
+            log.warn("🚫 User {} tried to access inbox ID {} they do not own", username, inboxId);
+            return ResponseEntity.status(403).body("Access denied");
+        }
+
+        if (page < 0 || (size != null && (size < 1 || size > MAX_PAGE_SIZE))) {
+            return ResponseEntity.status(400).body("Invalid page or size");
+        }
+
+        Set<EmailJsonRenderer.Field> fieldSet;
+        try {
+            fieldSet = EmailJsonRenderer.Field.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+
+        OptionalLong version = inboxVersionService.currentVersion(inboxId);
+        if (version.isEmpty()) {
             return ResponseEntity.status(404).body("Inbox not found");
         }
 
-        EmailAccount inbox = inboxOpt.get();
+        String domainFilter = domain == null || domain.isBlank() ? null : SenderAddressParser.registrableDomain(domain.trim());
+        Pageable pageable = size == null ? Pageable.unpaged() : PageRequest.of(page, size);
+        WireFormat format = WireFormat.fromAccept(accept);
+        EmailPageCache.PageKey key = new EmailPageCache.PageKey(inboxId, version.getAsLong(), domainFilter, size, fieldSet, format);
+        String etag = page == 0 ? key.etag() : null;
 
-        // Check if the inbox belongs to the authenticated user
-        if (!inbox.getUser().getUsername().equals(username)) {
-            log.warn("🚫 User {} tried to access inbox ID {} they do not own", username, inboxId);
-            return ResponseEntity.status(403).body("Access denied");
+        // Unchanged since the client's copy: no body, no database
+        if (etag != null && etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(304).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT).build();
         }
 
-        // Fetch emails for the inbox, ordered by received date (descending)
-        List<Email> emails = emailRepo.findByEmailAccountIdOrderByReceivedAtDesc(inbox.getId());
-        log.info("📬 Found {} emails for inbox ID {}", emails.size(), inboxId);
+        byte[] body = page == 0
+                ? emailPageCache.get(key, () -> renderEmails(inboxId, domainFilter, pageable, fieldSet, format))
+                : renderEmails(inboxId, domainFilter, pageable, fieldSet, format);
 
-        // Convert Email entities to DTOs for the response
-        List<EmailDto> emailDTOs = emails.stream()
-                .map(email -> EmailDto.builder()
-                        .id(email.getId())
-                        .subject(email.getSubject())
-                        .sender(email.getSender())
-                        .plainTextBody(email.getPlainTextBody())
-                        .htmlBody(email.getHtmlBody())
-                        .receivedAt(email.getReceivedAt())
-                        .isSpam(email.getIsSpam())
-                        .trustScore(email.getTrustScore())
-                        .build())
-                .collect(Collectors.toList());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(body);
+    }
 
-        return ResponseEntity.ok(emailDTOs); // Return the list of emails
+    // Fetch emails for the inbox, ordered by received date (descending), in the requested format.
+    // Rows are written straight from JDBC to the generator (no entities), see EmailJsonRenderer.
+    private byte[] renderEmails(Long inboxId, String domain, Pageable pageable,
+                                Set<EmailJsonRenderer.Field> fields, WireFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        try (JsonGenerator json = format.factory().createGenerator(out)) {
+            long count = emailJsonRenderer.writeArray(json, inboxId, domain, pageable, fields);
+            log.info("📬 Found {} emails for inbox ID {}", count, inboxId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize emails for inbox " + inboxId, e);
+        }
+        return out.toByteArray();
+    }
+
+    // If-None-Match may list several ETags (possibly weak, W/"...") or be "*"
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the emails of all the user's inboxes as one list, newest first (without bodies).
+     * Pages are keyset-based: pass nextCursor from the previous response to get the next page.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param cursor nextCursor from the previous page
+     * @param limit  page size (default 50, max 200)
+     * @param token  JWT from cookie for authentication
+     * @return       200 OK with a page of emails, 400/401 otherwise
+     */
+    @GetMapping("/emails/unified")
+    public ResponseEntity<?> getUnifiedInbox(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        // Only the user's own inboxes are ever queried, so no per-email ownership check is needed
+        List<Long> inboxIds = userLookupService.findInboxes(userOpt.get().getId()).stream()
+                .map(InboxSummary::getId)
+                .toList();
+
+        try {
+            return ResponseEntity.ok(unifiedInboxService.page(inboxIds, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get the conversations (Gmail threads) of an inbox, most recently active first.
+     * Each thread is a stored summary (latest message, message count, participants, worst verdict),
+     * so listing threads costs the same as listing one page of emails.
+     * Pages are keyset-based: pass nextCursor from the previous response to get the next page.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId The ID of the inbox
+     * @param cursor  nextCursor from the previous page
+     * @param limit   page size (default 50, max 200)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with a page of threads, 400/401/403 otherwise
+     */
+    @GetMapping("/threads")
+    public ResponseEntity<?> getThreads(
+            @RequestParam("inboxId") Long inboxId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        try {
+            return ResponseEntity.ok(emailThreadService.page(inboxId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Get what changed in an inbox since a cursor: new or re-scored emails (without bodies)
+     * and IDs of deleted emails, oldest change first.
+     * Call without "since" to get the current cursor before loading the inbox, then poll with it.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId The ID of the inbox
+     * @param since   Cursor from the previous response
+     * @param limit   Max changes per response (default 200, max 1000)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with changes, 400/401/403 otherwise
+     */
+    @GetMapping("/emails/changes")
+    public ResponseEntity<?> getEmailChanges(
+            @RequestParam("inboxId") Long inboxId,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        try {
+            return ResponseEntity.ok(emailChangeService.changesSince(inboxId, since, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
     }
 
     /**
@@ -106,13 +349,17 @@ public class EmailController {
      * Only allows access if the email belongs to the authenticated user.
      * Requires a valid JWT in the 'access_token' cookie.
      *
-     * @param id    The ID of the email to fetch
-     * @param token JWT from cookie for authentication
-     * @return      200 OK with email, 401/403/404 otherwise
+     * @param id     The ID of the email to fetch
+     * @param fields Optional comma-separated fields to return (see GET /emails); all fields when omitted
+     * @param accept application/json (default), application/x-jackson-smile or application/cbor
+     * @param token  JWT from cookie for authentication
+     * @return       200 OK with email, 400/401/403/404 otherwise
      */
     @GetMapping("/emails/{id}")
     public ResponseEntity<?> getEmailById(
             @PathVariable Long id,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
             @CookieValue(value = "access_token", required = false) String token
     ) {
         // Check for missing JWT
@@ -128,31 +375,88 @@ public class EmailController {
             return ResponseEntity.status(401).body("Invalid token");
         }
 
-        // Find the email by ID
-        Optional<Email> emailOpt = emailRepo.findById(id);
-        if (emailOpt.isEmpty()) {
+        Set<EmailJsonRenderer.Field> fieldSet;
+        try {
+            fieldSet = EmailJsonRenderer.Field.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+
+        // Find the email's inbox (without loading the email)
+        Optional<Long> inboxId = emailRepo.findInboxIdById(id);
+        if (inboxId.isEmpty()) {
             return ResponseEntity.status(404).body("Email not found");
         }
 
-        Email email = emailOpt.get();
-        // Check if the email belongs to the authenticated user
-        if (!email.getEmailAccount().getUser().getUsername().equals(username)) {
+        // Check if the email belongs to the authenticated user; emails of an inbox being deleted are already gone
+        if (!userLookupService.ownsInbox(username, inboxId.get())) {
+            if (!emailAccountRepo.existsByIdAndDeletingFalse(inboxId.get())) {
+                return ResponseEntity.status(404).body("Email not found");
+            }
             return ResponseEntity.status(403).body("Forbidden");
         }
 
-        // Convert Email entity to DTO for the response
-        EmailDto dto = EmailDto.builder()
-                .id(email.getId())
-                .subject(email.getSubject())
-                .sender(email.getSender())
-                .plainTextBody(email.getPlainTextBody())
-                .htmlBody(email.getHtmlBody())
-                .receivedAt(email.getReceivedAt())
-                .isSpam(email.getIsSpam())
-                .trustScore(email.getTrustScore())
-                .build();
+        // Read only the requested columns and write them straight to the response body
+        WireFormat format = WireFormat.fromAccept(accept);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4 * 1024);
+        try (JsonGenerator json = format.factory().createGenerator(out)) {
+            if (!emailJsonRenderer.writeOne(json, id, fieldSet)) {
+                return ResponseEntity.status(404).body("Email not found"); // Deleted in between
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize email " + id, e);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(out.toByteArray());
+    }
+
+    /**
+     * Apply one action (MARK_SPAM or MARK_NOT_SPAM) to many emails at once.
+     * All emails must belong to the authenticated user; otherwise nothing is changed.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param request IDs (at most app.bulk.max-ids) and action
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with counts, 400/401/403 otherwise
+     */
+    @PostMapping("/emails/bulk")
+    public ResponseEntity<?> bulkUpdateEmails(
+            @RequestBody BulkEmailRequest request,
+            @CookieValue(value = "access_token", required = false) String token) {
 
-        return ResponseEntity.ok(dto); // Return the email DTO
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        List<Long> inboxIds = userLookupService.findInboxes(userOpt.get().getId()).stream()
+                .map(InboxSummary::getId)
+                .toList();
+
+        try {
+            Optional<BulkEmailResult> result = bulkEmailService.apply(inboxIds, request);
+            if (result.isEmpty()) {
+                log.warn("🚫 User {} sent a bulk action for emails they do not own", username);
+                return ResponseEntity.status(403).body("Forbidden");
+            }
+            return ResponseEntity.ok(result.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
     }
 
     /**
@@ -191,6 +495,11 @@ public class EmailController {
             return ResponseEntity.status(403).body("Forbidden");
         }
 
+        // Being deleted: syncing would only add emails for the purge to remove
+        if (inbox.isDeleting()) {
+            return ResponseEntity.status(404).body("Inbox not found");
+        }
+
         try {
             gmailService.fetchAndSaveEmails(inbox.getAccessToken(), inbox);
             return ResponseEntity.ok("Resync successful");
@@ -200,14 +509,191 @@ public class EmailController {
         }
     }
 
+    /**
+     * Export every email of an inbox (with bodies) as gzip-compressed NDJSON, one email per line.
+     * The file is streamed while rows are read, so memory use does not depend on inbox size.
+     * Only allows export if the inbox belongs to the authenticated user.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId The ID of the inbox to export
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with the file, 401/403 otherwise
+     */
+    @GetMapping("/inboxes/{inboxId}/export")
+    public ResponseEntity<StreamingResponseBody> exportInbox(
+            @PathVariable Long inboxId,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return plainText(401, "Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return plainText(401, "Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return plainText(403, "Forbidden");
+        }
+
+        log.info("📦 User {} started an export of inbox ID {}", username, inboxId);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("inbox-" + inboxId + ".ndjson.gz")
+                .build();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .cacheControl(CacheControl.noStore())
+                .body(out -> inboxExportService.export(inboxId, out));
+    }
+
+    // Streaming endpoints can't return a String body, so errors are written as text
+    private static ResponseEntity<StreamingResponseBody> plainText(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Hourly or daily statistics of an inbox: emails received, spam count and rate, average trust score.
+     * Served from rollups kept up to date as emails are synced and re-scored, so the cost depends
+     * on the number of buckets in the range, not on the number of emails.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId     The ID of the inbox
+     * @param from        ISO date or date-time of the first bucket (default: 7 days / 30 days before 'to')
+     * @param to          ISO date or date-time, exclusive (default: end of the current bucket)
+     * @param granularity "hour" or "day" (default "day"); at most 2232 buckets per request
+     * @param token       JWT from cookie for authentication
+     * @return            200 OK with the non-empty buckets, oldest first, 400/401/403 otherwise
+     */
+    @GetMapping("/inboxes/{inboxId}/stats")
+    public ResponseEntity<?> getInboxStats(
+            @PathVariable Long inboxId,
+            @RequestParam(value = "from", required = false) String from,
+            @RequestParam(value = "to", required = false) String to,
+            @RequestParam(value = "granularity", required = false) String granularity,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        try {
+            return ResponseEntity.ok(inboxStatsService.stats(inboxId, from, to, granularity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Most frequent senders and number of distinct senders of an inbox over the last days.
+     * Answered from per-day sketches, so counts are approximate: each top count is an upper bound
+     * with its maximum error, and the distinct count has a standard error of about 2.3%.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId The ID of the inbox
+     * @param days    Number of days, today included (default 7, max 35)
+     * @param limit   Number of top senders (default 10, max 50)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with sender statistics, 400/401/403 otherwise
+     */
+    @GetMapping("/inboxes/{inboxId}/senders/stats")
+    public ResponseEntity<?> getInboxSenderStats(
+            @PathVariable Long inboxId,
+            @RequestParam(value = "days", required = false) Integer days,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        try {
+            return ResponseEntity.ok(senderStatsService.stats(List.of(inboxId), days, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Same as /inboxes/{inboxId}/senders/stats, across all of the user's inboxes (unified view).
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param days  Number of days, today included (default 7, max 35)
+     * @param limit Number of top senders (default 10, max 50)
+     * @param token JWT from cookie for authentication
+     * @return      200 OK with sender statistics, 400/401 otherwise
+     */
+    @GetMapping("/senders/stats")
+    public ResponseEntity<?> getSenderStats(
+            @RequestParam(value = "days", required = false) Integer days,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        List<Long> inboxIds = userLookupService.findInboxes(userOpt.get().getId()).stream()
+                .map(InboxSummary::getId)
+                .toList();
+
+        try {
+            return ResponseEntity.ok(senderStatsService.stats(inboxIds, days, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
     /**
      * Delete an inbox by its ID.
      * Only allows deletion if the inbox belongs to the authenticated user.
      * Requires a valid JWT in the 'access_token' cookie.
      *
+     * The inbox is hidden right away and its emails are purged in the background;
+     * poll the Location header (GET /inboxes/{inboxId}/deletion) for progress.
+     *
      * @param inboxId The ID of the inbox to delete
      * @param token   JWT from cookie for authentication
-     * @return        200 OK if deleted, 401/403/404/500 otherwise
+     * @return        202 Accepted once deletion has started, 401/403/404/500 otherwise
      */
     @DeleteMapping("/inboxes/{inboxId}")
     public ResponseEntity<?> deleteInbox(
@@ -241,14 +727,55 @@ public class EmailController {
         }
 
         try {
-            // Delete the inbox (emails will also be deleted if cascade is set)
-            emailAccountRepo.delete(inbox);
-            log.info("🗑️ Inbox ID {} deleted by user {}", inboxId, username);
-            return ResponseEntity.ok("Inbox deleted successfully");
+            // Mark the inbox and purge its emails in the background (never loads them)
+            if (inboxDeletionService.requestDeletion(inbox)) {
+                log.info("🗑️ Inbox ID {} deletion started by user {}", inboxId, username);
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/gmail/inboxes/" + inboxId + "/deletion"))
+                    .body("Inbox deletion started");
         } catch (Exception e) {
             log.error("❌ Failed to delete inbox ID {}", inboxId, e);
             return ResponseEntity.status(500).body("Failed to delete inbox");
         }
     }
 
+    /**
+     * Progress of an inbox deletion started with DELETE /inboxes/{inboxId}.
+     * Requires a valid JWT in the 'access_token' cookie.
+     *
+     * @param inboxId The ID of the inbox being deleted
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with progress, 404 once the inbox is gone, 409 if it is not being deleted
+     */
+    @GetMapping("/inboxes/{inboxId}/deletion")
+    public ResponseEntity<?> getInboxDeletionProgress(
+            @PathVariable Long inboxId,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        // Deleting inboxes are not in the cached inbox list, so check the row itself
+        Optional<EmailAccount> inboxOpt = emailAccountRepo.findById(inboxId);
+        if (inboxOpt.isEmpty()) {
+            return ResponseEntity.status(404).body("Inbox not found");
+        }
+        if (!inboxOpt.get().getUser().getUsername().equals(username)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        return inboxDeletionService.progress(inboxOpt.get())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(409).body("Inbox is not being deleted"));
+    }
+
 }
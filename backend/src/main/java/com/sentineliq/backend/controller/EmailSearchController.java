@@ -0,0 +1,274 @@
+package com.sentineliq.backend.controller;
+
+import com.sentineliq.backend.dto.EmailSearchHit;
+import com.sentineliq.backend.dto.EmailSearchPage;
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.InboxSummary;
+import com.sentineliq.backend.dto.LabeledEmailPage;
+import com.sentineliq.backend.dto.UserSummary;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.search.InboxIndex;
+import com.sentineliq.backend.search.InboxIndexService;
+import com.sentineliq.backend.search.LabelIndex;
+import com.sentineliq.backend.search.LabelIndexService;
+import com.sentineliq.backend.search.SenderSuggestService;
+import com.sentineliq.backend.service.EmailSearchService;
+import com.sentineliq.backend.service.UserLookupService;
+import com.sentineliq.backend.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/gmail")
+@RequiredArgsConstructor
+public class EmailSearchController {
+
+    // Search and filter endpoints over the user's stored emails (full text, as-you-type, Gmail labels).
+    // Ownership is checked against the cached inbox list from UserLookupService (no DB round trip).
+
+    private final JwtUtil jwtUtil;
+    private final UserLookupService userLookupService;
+    private final EmailSearchService emailSearchService;
+    private final InboxIndexService inboxIndexService;
+    private final SenderSuggestService senderSuggestService;
+    private final LabelIndexService labelIndexService;
+    private final EmailRepository emailRepository;
+
+    /**
+     * Full-text search over subject, sender and body, best match first.
+     * Searches one inbox when inboxId is given, otherwise all of the user's inboxes.
+     *
+     * @param q       search text (websearch syntax: "exact phrase", -exclude, or)
+     * @param inboxId optional inbox to restrict the search to
+     * @param cursor  nextCursor from the previous page
+     * @param limit   page size (default 20, max 100)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with a page of results, 400/401/403 otherwise
+     */
+    @GetMapping("/emails/search")
+    public ResponseEntity<?> searchEmails(
+            @RequestParam("q") String q,
+            @RequestParam(value = "inboxId", required = false) Long inboxId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        List<Long> inboxIds = userLookupService.findInboxes(userOpt.get().getId()).stream()
+                .map(InboxSummary::getId)
+                .toList();
+        if (inboxId != null) {
+            if (!inboxIds.contains(inboxId)) {
+                return ResponseEntity.status(403).body("Forbidden");
+            }
+            inboxIds = List.of(inboxId);
+        }
+
+        try {
+            EmailSearchPage page = emailSearchService.search(inboxIds, q, cursor, limit);
+            log.info("🔎 Search by {} returned {} results", username, page.getResults().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Filter-as-you-type within one inbox, newest first.
+     * Every word must match; the last word also matches as a prefix ("inv" finds "invoice").
+     * Served from the in-memory inbox index; falls back to database search when it is disabled.
+     *
+     * @param inboxId inbox to filter
+     * @param q       text typed so far
+     * @param limit   max results (default 20, max 100)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with matching emails, 401/403 otherwise
+     */
+    @GetMapping("/emails/filter")
+    public ResponseEntity<?> filterEmails(
+            @RequestParam("inboxId") Long inboxId,
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        int pageSize = limit == null ? EmailSearchService.DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, EmailSearchService.MAX_LIMIT));
+
+        Optional<List<InboxIndex.Hit>> hits = inboxIndexService.filter(inboxId, q, pageSize);
+        if (hits.isEmpty()) {
+            return ResponseEntity.ok(emailSearchService.search(List.of(inboxId), q, null, pageSize));
+        }
+
+        List<EmailSearchHit> results = hits.get().stream()
+                .map(hit -> EmailSearchHit.builder()
+                        .id(hit.id())
+                        .inboxId(inboxId)
+                        .subject(hit.subject())
+                        .sender(hit.sender())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(EmailSearchPage.builder().results(results).build());
+    }
+
+    /**
+     * Emails of one inbox filtered by Gmail labels, most recently stored first (without bodies).
+     * For example label=INBOX&exclude=SPAM, or label=SPAM to compare Gmail's verdict with ours.
+     * Served from the inbox's in-memory label bitmaps; only the returned page is read from the database.
+     *
+     * @param inboxId inbox to filter
+     * @param label   label IDs every email must have (none: all emails)
+     * @param exclude label IDs no email may have
+     * @param before  nextBefore from the previous page
+     * @param limit   page size (default 20, max 100)
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with matching emails and the total count, 401/403 otherwise
+     */
+    @GetMapping("/emails/labeled")
+    public ResponseEntity<?> getLabeledEmails(
+            @RequestParam("inboxId") Long inboxId,
+            @RequestParam(value = "label", required = false) List<String> label,
+            @RequestParam(value = "exclude", required = false) List<String> exclude,
+            @RequestParam(value = "before", required = false) Long before,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        int pageSize = limit == null ? EmailSearchService.DEFAULT_LIMIT
+                : Math.max(1, Math.min(limit, EmailSearchService.MAX_LIMIT));
+
+        // One extra ID tells whether there is a next page
+        LabelIndex.Match match = labelIndexService.query(inboxId,
+                label == null ? List.of() : label,
+                exclude == null ? List.of() : exclude,
+                before == null ? Long.MAX_VALUE : before,
+                pageSize + 1);
+        List<Long> ids = match.emailIds().subList(0, Math.min(pageSize, match.emailIds().size()));
+
+        // Summary columns only, no bodies; the inbox filter also drops IDs purged since the index was built
+        List<EmailSummaryDto> emails = ids.isEmpty() ? List.of() : emailRepository.findStates(ids, List.of(inboxId)).stream()
+                .map(EmailSummaryDto::from)
+                .sorted(Comparator.comparing(EmailSummaryDto::getId, Comparator.reverseOrder()))
+                .toList();
+
+        return ResponseEntity.ok(LabeledEmailPage.builder()
+                .total(match.total())
+                .emails(emails)
+                .nextBefore(match.emailIds().size() > pageSize ? ids.get(ids.size() - 1) : null)
+                .build());
+    }
+
+    /**
+     * Number of emails per Gmail label in one inbox (folder sidebar counts).
+     *
+     * @param inboxId inbox to count
+     * @param token   JWT from cookie for authentication
+     * @return        200 OK with label ID -> count, 401/403 otherwise
+     */
+    @GetMapping("/inboxes/{inboxId}/labels")
+    public ResponseEntity<?> getLabelCounts(
+            @PathVariable Long inboxId,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        return ResponseEntity.ok(labelIndexService.counts(inboxId));
+    }
+
+    /**
+     * Sender autocomplete across all of the user's inboxes, most frequent senders first.
+     * Matches the start of the address, the domain, or any word of the display name.
+     *
+     * @param prefix text typed so far (may be empty for the overall top senders)
+     * @param limit  max suggestions (default 8, max 50)
+     * @param token  JWT from cookie for authentication
+     * @return       200 OK with suggestions, 401 otherwise
+     */
+    @GetMapping("/senders/suggest")
+    public ResponseEntity<?> suggestSenders(
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).body("User not found");
+        }
+
+        return ResponseEntity.ok(senderSuggestService.suggest(userOpt.get().getId(), prefix, limit));
+    }
+}
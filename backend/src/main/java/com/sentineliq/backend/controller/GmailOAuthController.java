@@ -3,6 +3,7 @@ package com.sentineliq.backend.controller;
 import com.sentineliq.backend.repository.EmailAccountRepository;
 import com.sentineliq.backend.repository.UserRepository;
 import com.sentineliq.backend.service.GmailService;
+import com.sentineliq.backend.service.UserLookupService;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -18,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.net.URLEncoder;
+import com.sentineliq.backend.dto.UserSummary;
 import com.sentineliq.backend.model.EmailAccount;
 import com.sentineliq.backend.model.User;
 import com.sentineliq.backend.util.JwtUtil;
@@ -56,6 +58,8 @@ public class GmailOAuthController {
 
     private final GmailService gmailService;
 
+    private final UserLookupService userLookupService;
+
 
 
     // We'll add methods here step by step
@@ -163,13 +167,14 @@ public class GmailOAuthController {
             return ResponseEntity.status(401).body("Invalid access token");
         }
 
-        Optional<User> userOpt = userRepo.findByUsername(username);
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
         if (userOpt.isEmpty()) {
             log.error("❌ No user found for username: {}", username);
             return ResponseEntity.status(401).body("User not found");
         }
 
-        User user = userOpt.get();
+        UserSummary userSummary = userOpt.get();
+        User user = userRepo.getReferenceById(userSummary.getId()); // No SELECT, just the FK
 
         // Step 4: Check if this Gmail is already linked
         if (emailAccountRepo.existsByEmailAddress(email)) {
@@ -192,7 +197,8 @@ public class GmailOAuthController {
             .build();
 
         emailAccountRepo.save(newAccount);
-        log.info("✅ Gmail account saved for user {}", user.getUsername());
+        userLookupService.evictInboxes(userSummary.getId()); // Show the new inbox in /api/me right away
+        log.info("✅ Gmail account saved for user {}", userSummary.getUsername());
 
         // Step 6: Fetch and save emails
         try {
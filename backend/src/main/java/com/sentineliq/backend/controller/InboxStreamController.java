@@ -0,0 +1,69 @@
+package com.sentineliq.backend.controller;
+
+import com.sentineliq.backend.service.UserLookupService;
+import com.sentineliq.backend.stream.InboxStreamService;
+import com.sentineliq.backend.util.JwtUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/gmail")
+@RequiredArgsConstructor
+public class InboxStreamController {
+
+    // Live updates for the dashboard over server-sent events (see InboxStreamService for the event types).
+    // Authenticated with the same 'access_token' cookie as the REST endpoints; EventSource sends it automatically.
+
+    private final JwtUtil jwtUtil;
+    private final UserLookupService userLookupService;
+    private final InboxStreamService inboxStreamService;
+
+    /**
+     * Open an event stream for one of the user's inboxes.
+     *
+     * @param inboxId The ID of the inbox to follow
+     * @param token   JWT from cookie for authentication
+     * @return        200 text/event-stream, 401/403 if not allowed, 503 if the server is at its connection limit
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<?> stream(
+            @RequestParam("inboxId") Long inboxId,
+            @CookieValue(value = "access_token", required = false) String token) {
+
+        if (token == null || token.isBlank()) {
+            return ResponseEntity.status(401).body("Missing authentication token");
+        }
+
+        String username;
+        try {
+            username = jwtUtil.getUsernameFromToken(token);
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid token");
+        }
+
+        if (!userLookupService.ownsInbox(username, inboxId)) {
+            return ResponseEntity.status(403).body("Forbidden");
+        }
+
+        Optional<SseEmitter> emitter = inboxStreamService.open(inboxId);
+        if (emitter.isEmpty()) {
+            log.warn("⚠️ Stream connection limit reached, rejecting inbox {}", inboxId);
+            return ResponseEntity.status(503).header("Retry-After", "30").body("Too many open streams");
+        }
+
+        log.info("📡 {} opened a stream for inbox {}", username, inboxId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noCache())
+                .header("X-Accel-Buffering", "no") // Stop nginx from buffering the stream
+                .body(emitter.get());
+    }
+}
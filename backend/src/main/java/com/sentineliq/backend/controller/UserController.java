@@ -1,9 +1,7 @@
 package com.sentineliq.backend.controller;
 
-import com.sentineliq.backend.model.EmailAccount;
-import com.sentineliq.backend.model.User;
-import com.sentineliq.backend.repository.EmailAccountRepository;
-import com.sentineliq.backend.repository.UserRepository;
+import com.sentineliq.backend.dto.UserSummary;
+import com.sentineliq.backend.service.UserLookupService;
 import com.sentineliq.backend.util.JwtUtil;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +19,7 @@ import java.util.stream.Collectors;
  * 
  * - Provides an endpoint to fetch the currently authenticated user's profile and their linked inboxes.
  * - Uses JWT authentication via cookies.
+ * - User and inbox lookups are served from UserLookupService's in-memory caches.
  */
 @RestController // Marks this class as a REST controller (returns JSON by default)
 @RequestMapping("/api") // Base path for all endpoints in this controller
@@ -30,10 +29,7 @@ public class UserController {
     private JwtUtil jwtUtil; // Utility for JWT operations
 
     @Autowired
-    private UserRepository userRepository; // Repository for User entities
-
-    @Autowired
-    private EmailAccountRepository emailAccountRepository; // Repository for EmailAccount entities
+    private UserLookupService userLookupService; // Cached user + inbox lookups
 
     /**
      * GET /api/me
@@ -60,16 +56,16 @@ public class UserController {
 
         // 🧠 Extract username from token
         String username = jwtUtil.getUsernameFromToken(token);
-        Optional<User> userOpt = userRepository.findByUsername(username);
+        Optional<UserSummary> userOpt = userLookupService.findByUsername(username);
 
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(404).body(Map.of("error", "User not found"));
         }
 
-        User user = userOpt.get();
+        UserSummary user = userOpt.get();
 
         // 📬 Fetch user's linked email accounts and map to a list of simple objects
-        List<Map<String, Object>> inboxes = emailAccountRepository.findAllByUser(user)
+        List<Map<String, Object>> inboxes = userLookupService.findInboxes(user.getId())
             .stream()
             .map(inbox -> {
                 Map<String, Object> map = new java.util.HashMap<>();
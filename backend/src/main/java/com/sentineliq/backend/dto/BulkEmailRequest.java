@@ -0,0 +1,18 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEmailRequest {
+    private List<Long> ids;  // emails to change (all must belong to the caller)
+    private Action action;
+
+    public enum Action {
+        MARK_SPAM,
+        MARK_NOT_SPAM
+    }
+}
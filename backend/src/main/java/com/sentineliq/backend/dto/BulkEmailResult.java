@@ -0,0 +1,12 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEmailResult {
+    private int requested;  // distinct IDs in the request
+    private int updated;    // emails whose state actually changed (the rest already had it)
+}
@@ -0,0 +1,16 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailChanges {
+    private List<EmailSummaryDto> changed;  // inserted or re-scored since the cursor (no bodies)
+    private List<Long> deleted;             // IDs of emails deleted since the cursor
+    private String cursor;                  // pass as "since" on the next call
+    private boolean hasMore;                // more changes are waiting; call again right away
+    private boolean resyncRequired;         // cursor is too old; reload the inbox and start over
+}
@@ -0,0 +1,20 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailSearchHit {
+    private Long id;
+    private Long inboxId;
+    private String subject;
+    private String sender;
+    private LocalDateTime receivedAt;
+    private Boolean isSpam;
+    private Integer trustScore;
+    private Float rank;
+    private String snippet;    // HTML-escaped body excerpt, matches wrapped in <mark></mark>
+}
@@ -0,0 +1,49 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.repository.EmailRepository.EmailStateRow;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailSummaryDto {
+    private Long id;
+    private Long inboxId;
+    private String subject;
+    private String sender;
+    private LocalDateTime receivedAt;
+    private Boolean isSpam;
+    private Integer trustScore;
+
+    public static EmailSummaryDto from(Email email) {
+        return EmailSummaryDto.builder()
+                .id(email.getId())
+                .inboxId(email.getEmailAccount() != null ? email.getEmailAccount().getId() : null)
+                .subject(email.getSubject())
+                .sender(email.getSender())
+                .receivedAt(email.getReceivedAt())
+                .isSpam(email.getIsSpam())
+                .trustScore(email.getTrustScore())
+                .build();
+    }
+
+    // From a bodiless projection row (see EmailRepository.findStates)
+    public static EmailSummaryDto from(EmailStateRow row) {
+        String sender = row.getSenderAddress() != null
+                ? Sender.format(row.getSenderName(), row.getSenderAddress())
+                : null;
+        return EmailSummaryDto.builder()
+                .id(row.getId())
+                .inboxId(row.getInboxId())
+                .subject(row.getSubject())
+                .sender(sender)
+                .receivedAt(row.getReceivedAt())
+                .isSpam(row.getIsSpam())
+                .trustScore(row.getTrustScore())
+                .build();
+    }
+}
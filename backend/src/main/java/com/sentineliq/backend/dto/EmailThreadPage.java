@@ -0,0 +1,13 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailThreadPage {
+    private List<EmailThreadSummary> threads; // most recently active first
+    private String nextCursor;                // null when there are no more threads
+}
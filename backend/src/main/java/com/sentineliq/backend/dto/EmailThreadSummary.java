@@ -0,0 +1,41 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.EmailThread;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailThreadSummary {
+    private Long id;
+    private Long inboxId;
+    private String threadId;             // Gmail's thread ID
+    private Long latestEmailId;
+    private String subject;              // of the latest message
+    private String sender;               // of the latest message
+    private LocalDateTime latestAt;
+    private int messageCount;
+    private List<String> participants;   // distinct sender addresses (capped)
+    private Boolean isSpam;              // true if any message is spam
+    private Integer minTrustScore;       // lowest trust score in the thread
+
+    public static EmailThreadSummary from(EmailThread thread) {
+        String participants = thread.getParticipants();
+        return EmailThreadSummary.builder()
+                .id(thread.getId())
+                .inboxId(thread.getEmailAccountId())
+                .threadId(thread.getGmailThreadId())
+                .latestEmailId(thread.getLatestEmailId())
+                .subject(thread.getLatestSubject())
+                .sender(thread.getLatestSender())
+                .latestAt(thread.getLatestAt())
+                .messageCount(thread.getMessageCount())
+                .participants(participants == null || participants.isEmpty() ? List.of() : List.of(participants.split(", ")))
+                .isSpam(thread.getSpamCount() > 0)
+                .minTrustScore(thread.getMinTrustScore())
+                .build();
+    }
+}
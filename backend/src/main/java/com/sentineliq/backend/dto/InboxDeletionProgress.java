@@ -0,0 +1,13 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxDeletionProgress {
+    private Long inboxId;
+    private long deletedEmails;    // purged so far by the job on this server (0 if it runs elsewhere)
+    private long remainingEmails;  // still stored; the inbox itself is removed when this reaches 0
+}
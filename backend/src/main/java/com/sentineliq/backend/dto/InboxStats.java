@@ -0,0 +1,17 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.InboxStatsBucket.Granularity;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxStats {
+    private Granularity granularity;
+    private LocalDateTime from;             // first bucket start (inclusive)
+    private LocalDateTime to;               // end of the range (exclusive)
+    private List<InboxStatsPoint> buckets;  // oldest first; buckets without mail are omitted
+}
@@ -0,0 +1,29 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.InboxStatsBucket;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxStatsPoint {
+    private LocalDateTime bucketStart;
+    private long emails;
+    private long spam;
+    private double spamRate;       // spam / emails
+    private Double avgTrustScore;  // null when no email of the bucket has a score
+
+    public static InboxStatsPoint from(InboxStatsBucket bucket) {
+        return InboxStatsPoint.builder()
+                .bucketStart(bucket.getBucketStart())
+                .emails(bucket.getEmailCount())
+                .spam(bucket.getSpamCount())
+                .spamRate(bucket.getEmailCount() == 0 ? 0 : (double) bucket.getSpamCount() / bucket.getEmailCount())
+                .avgTrustScore(bucket.getTrustScoreCount() == 0
+                        ? null
+                        : (double) bucket.getTrustScoreSum() / bucket.getTrustScoreCount())
+                .build();
+    }
+}
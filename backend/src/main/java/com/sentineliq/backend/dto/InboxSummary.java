@@ -0,0 +1,28 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.EmailAccount;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of a linked inbox as shown in /api/me (no OAuth tokens, no emails).
+ */
+@Value
+@Builder
+public class InboxSummary {
+    Long id;
+    String displayName;
+    String emailAddress;
+    String provider;
+    boolean primary;
+
+    public static InboxSummary from(EmailAccount account) {
+        return InboxSummary.builder()
+                .id(account.getId())
+                .displayName(account.getDisplayName())
+                .emailAddress(account.getEmailAddress())
+                .provider(account.getProvider())
+                .primary(account.isPrimary())
+                .build();
+    }
+}
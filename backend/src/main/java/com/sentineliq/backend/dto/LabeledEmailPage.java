@@ -0,0 +1,14 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabeledEmailPage {
+    private long total;                  // emails matching the label filter
+    private List<EmailSummaryDto> emails; // most recently stored first (no bodies)
+    private Long nextBefore;             // pass as "before" for the next page; null when there are no more
+}
@@ -0,0 +1,13 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SenderCount {
+    private String address;
+    private long count;     // upper bound of the true count
+    private long maxError;  // the true count is at least count - maxError
+}
@@ -0,0 +1,18 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SenderStats {
+    private LocalDate from;               // first day counted
+    private LocalDate to;                 // last day counted (today)
+    private long emails;                  // ingested since tracking began: flushed plus this node's pending,
+                                          // not other nodes' unflushed counts nor mail stored before
+    private long distinctSenders;         // estimate, standard error ~2.3%
+    private List<SenderCount> topSenders; // most frequent first, see SenderCount for the bounds
+}
@@ -0,0 +1,13 @@
+package com.sentineliq.backend.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnifiedInboxPage {
+    private List<EmailSummaryDto> emails; // newest first, across all of the user's inboxes (no bodies)
+    private String nextCursor;            // null when there are no more emails
+}
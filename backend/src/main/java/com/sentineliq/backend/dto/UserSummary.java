@@ -0,0 +1,29 @@
+package com.sentineliq.backend.dto;
+
+import com.sentineliq.backend.model.User;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable snapshot of the user fields needed on hot paths (no password, no lazy collections),
+ * safe to keep in a cache and share between threads.
+ */
+@Value
+@Builder
+public class UserSummary {
+    Long id;
+    String username;
+    String name;
+    String email;
+    String role;
+
+    public static UserSummary from(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .name(user.getName())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.sentineliq.backend.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by BurstDetectionService when an inbox, or one sender domain of it, receives
+ * far more mail in an hour than its baseline. Raised once per inbox or domain per hour.
+ */
+@Value
+public class BurstDetectedEvent {
+    Long inboxId;
+    String domain;           // null when the whole inbox is bursting
+    LocalDateTime hourStart;
+    long count;              // messages so far in that hour
+    double expected;         // baseline for that hour
+}
@@ -0,0 +1,9 @@
+package com.sentineliq.backend.event;
+
+/**
+ * Published after the ClusterEventBus lost its connection and got it back.
+ * Messages sent in between were missed, so listeners should drop everything derived
+ * from other nodes' changes.
+ */
+public class ClusterReconnectedEvent {
+}
@@ -0,0 +1,16 @@
+package com.sentineliq.backend.event;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by GmailService when Gmail's history shows labels added to or removed from
+ * stored emails. Carries each email's full, current label list (email ID -> label IDs).
+ */
+@Value
+public class EmailLabelsChangedEvent {
+    Long inboxId;
+    Map<Long, List<String>> labels;
+}
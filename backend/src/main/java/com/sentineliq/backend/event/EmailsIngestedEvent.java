@@ -0,0 +1,17 @@
+package com.sentineliq.backend.event;
+
+import com.sentineliq.backend.model.Email;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published by GmailService after a sync has stored new emails for an inbox.
+ * Listeners keep derived, in-memory structures (search indexes, caches...) up to date.
+ */
+@Value
+public class EmailsIngestedEvent {
+    Long inboxId;
+    Long userId;
+    List<Email> emails;
+}
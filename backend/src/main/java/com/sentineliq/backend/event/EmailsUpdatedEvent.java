@@ -0,0 +1,16 @@
+package com.sentineliq.backend.event;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Published when stored emails change after ingest (spam verdict, trust score...).
+ * Carries the new state as summaries so listeners don't need to reload the rows.
+ */
+@Value
+public class EmailsUpdatedEvent {
+    Long inboxId;
+    List<EmailSummaryDto> emails;
+}
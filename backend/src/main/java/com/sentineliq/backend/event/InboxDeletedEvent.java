@@ -0,0 +1,13 @@
+package com.sentineliq.backend.event;
+
+import lombok.Value;
+
+/**
+ * Published when an inbox is deleted (as soon as deletion starts; its emails are purged afterwards),
+ * so in-memory structures built for it can be dropped.
+ */
+@Value
+public class InboxDeletedEvent {
+    Long inboxId;
+    Long userId;
+}
@@ -0,0 +1,13 @@
+package com.sentineliq.backend.event;
+
+import com.sentineliq.backend.cluster.ClusterMessage;
+import lombok.Value;
+
+/**
+ * An inbox change made on another node, received through the ClusterEventBus.
+ * Listeners drop or refresh what they derived from that inbox.
+ */
+@Value
+public class RemoteInboxChangedEvent {
+    ClusterMessage message;
+}
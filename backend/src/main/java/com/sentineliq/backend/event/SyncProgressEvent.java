@@ -0,0 +1,14 @@
+package com.sentineliq.backend.event;
+
+import lombok.Value;
+
+/**
+ * Published by GmailService while a sync runs: processed out of total messages looked at.
+ * processed == total means the sync is finished.
+ */
+@Value
+public class SyncProgressEvent {
+    Long inboxId;
+    int processed;
+    int total;
+}
@@ -0,0 +1,13 @@
+package com.sentineliq.backend.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated (queue full or wait timed out).
+ * Mapped to 429 Too Many Requests by GlobalExceptionHandler so clients back off
+ * instead of piling more BCrypt work onto an overloaded server.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
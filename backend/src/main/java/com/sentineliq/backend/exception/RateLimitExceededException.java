@@ -0,0 +1,19 @@
+package com.sentineliq.backend.exception;
+
+/**
+ * Thrown when a client or username exceeds the configured authentication rate limit.
+ * Mapped to 429 Too Many Requests by GlobalExceptionHandler.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
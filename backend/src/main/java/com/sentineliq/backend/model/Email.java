@@ -7,7 +7,16 @@ import java.time.LocalDateTime;
 @Entity
 @Table(
     name = "emails",
-    uniqueConstraints = @UniqueConstraint(columnNames = {"gmailMessageId", "email_account_id"})
+    uniqueConstraints = @UniqueConstraint(columnNames = {"gmailMessageId", "email_account_id"}),
+    indexes = {
+        @Index(name = "idx_emails_sender_id", columnList = "sender_id"),
+        // Newest-first listing and keyset paging per inbox (scanned backwards)
+        @Index(name = "idx_emails_account_received", columnList = "email_account_id, receivedAt, id"),
+        // Chunked deletion of an inbox in id order
+        @Index(name = "idx_emails_account_id", columnList = "email_account_id, id"),
+        // Messages of one conversation (thread summary upkeep)
+        @Index(name = "idx_emails_account_thread", columnList = "email_account_id, threadId")
+    }
 )
 @Builder // ✅ Adds a builder pattern for this class
 @Data
@@ -26,7 +35,18 @@ public class Email {
     @Column(columnDefinition = "TEXT")
     private String subject;
 
+    // Normalized sender row (address, domain), shared across emails
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sender_id")
+    private Sender senderRef;
+
+    // Display name of this message's "From" header, null when it has none. Kept per email:
+    // one address can send under many names, and a name change is a spoofing signal
     @Column(length = 255)
+    private String senderName;
+
+    // Raw "From" value as parsed at ingest; not stored, senderRef and senderName are
+    @Transient
     private String sender;
 
     @Column(columnDefinition = "TEXT")
@@ -38,10 +58,39 @@ public class Email {
     @Column(nullable = false)
     private String gmailMessageId;
 
+    // Gmail conversation the message belongs to (see EmailThread)
+    private String threadId;
+
+    // Gmail label IDs ("INBOX,UNREAD,CATEGORY_PROMOTIONS"), comma-separated; kept current by
+    // history sync and indexed per inbox in memory (see LabelIndexService)
+    @Column(columnDefinition = "TEXT")
+    private String labelIds;
+
 
     private LocalDateTime receivedAt;
 
     private Boolean isSpam;
 
     private Integer trustScore;
+
+    // Position in the shared change sequence, set by a database trigger on insert and on
+    // spam/trust changes (PostgreSQL only, see db/postgres-schema.sql)
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+
+    // Transaction that wrote changeSeq, set by the same trigger; changes are read in
+    // (changeXid, changeSeq) order so a late commit can't slip behind a client's cursor
+    @Column(insertable = false, updatable = false)
+    private Long changeXid;
+
+    /**
+     * The raw "From" value when this email was just parsed, otherwise rebuilt from senderName
+     * and senderRef.
+     */
+    public String getSender() {
+        if (sender == null && senderRef != null) {
+            return Sender.format(senderName, senderRef.getAddress());
+        }
+        return sender;
+    }
 }
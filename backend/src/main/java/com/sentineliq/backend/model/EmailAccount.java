@@ -46,6 +46,24 @@ public class EmailAccount {
 
     private boolean isPrimary;
 
+    // Bumped by every sync that stores emails; cached listings and ETags are keyed by it.
+    // Only changed through EmailAccountRepository.incrementSyncVersion, never by saving the entity.
+    @Builder.Default
+    @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long syncVersion = 0;
+
+    // Gmail history position label changes have been synced up to (null until the first sync).
+    // Only changed through EmailAccountRepository.updateGmailHistoryId, never by saving the entity.
+    @Column(updatable = false)
+    private Long gmailHistoryId;
+
+    // Set when the user deletes the inbox; its emails are then purged in the background
+    // (InboxDeletionService) and the row is removed last. Hidden from inbox lists meanwhile.
+    @Builder.Default
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean deleting = false;
+
+    // Never loaded to delete an inbox (see InboxDeletionService); kept for mapping queries
     @OneToMany(mappedBy = "emailAccount", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Email> emails;
 }
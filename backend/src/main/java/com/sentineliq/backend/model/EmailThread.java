@@ -0,0 +1,62 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Summary of one Gmail conversation in an inbox, maintained as its messages are ingested
+ * (see EmailThreadService), so thread lists never aggregate over the emails table.
+ */
+@Entity
+@Table(
+    name = "email_threads",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"email_account_id", "gmail_thread_id"}),
+    indexes = {
+        // Newest-first listing and keyset paging per inbox (scanned backwards)
+        @Index(name = "idx_email_threads_account_latest", columnList = "email_account_id, latest_at, id")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailThread {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "email_account_id", nullable = false)
+    private Long emailAccountId;
+
+    @Column(name = "gmail_thread_id", nullable = false)
+    private String gmailThreadId;
+
+    // Most recent message of the conversation
+    @Column(name = "latest_email_id")
+    private Long latestEmailId;
+
+    @Column(name = "latest_subject", columnDefinition = "TEXT")
+    private String latestSubject;
+
+    @Column(name = "latest_sender", columnDefinition = "TEXT")
+    private String latestSender;
+
+    @Column(name = "latest_at")
+    private LocalDateTime latestAt;
+
+    @Column(name = "message_count", nullable = false)
+    private int messageCount;
+
+    // Distinct sender addresses in order of first appearance, ", "-separated, capped
+    @Column(name = "participants", columnDefinition = "TEXT")
+    private String participants;
+
+    // Worst verdict across the messages: how many are spam, and the lowest trust score
+    @Column(name = "spam_count", nullable = false)
+    private int spamCount;
+
+    @Column(name = "min_trust_score")
+    private Integer minTrustScore;
+}
@@ -0,0 +1,43 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Marker left behind when an email is deleted, so delta clients can drop it too.
+ * Rows are written by a database trigger (see db/postgres-schema.sql) and kept for a retention period.
+ */
+@Entity
+@Table(
+    name = "email_tombstones",
+    indexes = {
+        @Index(name = "idx_email_tombstones_account_change", columnList = "email_account_id, change_xid, change_seq"),
+        @Index(name = "idx_email_tombstones_deleted_at", columnList = "deleted_at")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailTombstone {
+
+    // ID of the deleted email
+    @Id
+    @Column(name = "email_id")
+    private Long emailId;
+
+    @Column(name = "email_account_id", nullable = false)
+    private Long emailAccountId;
+
+    // Transaction that deleted the email; changes are read in (changeXid, changeSeq) order
+    @Column(name = "change_xid")
+    private Long changeXid;
+
+    // Position in the shared change sequence (email_change_seq)
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,77 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Mail counters of one inbox for one hour or one day (rollup of the emails table).
+ * Incremented as emails are ingested and recomputed when they are re-scored (see InboxStatsService),
+ * so dashboards read one row per bucket instead of grouping over emails.
+ */
+@Entity
+@Table(
+    name = "inbox_stats",
+    // Also serves range reads: inbox + granularity, then buckets in time order
+    uniqueConstraints = @UniqueConstraint(columnNames = {"email_account_id", "granularity", "bucket_start"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxStatsBucket {
+
+    public enum Granularity {
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * Start of the bucket containing the time.
+         */
+        public LocalDateTime bucketOf(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        /**
+         * Start of the following bucket.
+         */
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return bucketStart.plus(1, unit);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "email_account_id", nullable = false)
+    private Long emailAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    // Server-local time, like emails.received_at
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "email_count", nullable = false)
+    private long emailCount;
+
+    @Column(name = "spam_count", nullable = false)
+    private long spamCount;
+
+    // Sum and count of non-null trust scores, so averages can be combined across buckets
+    @Column(name = "trust_score_sum", nullable = false)
+    private long trustScoreSum;
+
+    @Column(name = "trust_score_count", nullable = false)
+    private long trustScoreCount;
+}
@@ -0,0 +1,38 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token (by jti) that has been rotated or logged out and must not be accepted again.
+ * Rows are only needed until the token would have expired anyway.
+ */
+@Entity
+@Table(
+    name = "revoked_refresh_tokens",
+    indexes = {
+        @Index(name = "idx_revoked_refresh_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_refresh_tokens_expires_at", columnList = "expiresAt")
+    }
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedRefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Unique so that two replicas can't both accept the same token during rotation
+    @Column(nullable = false, unique = true, length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+}
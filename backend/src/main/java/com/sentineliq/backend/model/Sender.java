@@ -0,0 +1,44 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A distinct email sender address, shared by every email sent from it.
+ * Parsed once at ingest from the raw "From" header (see SenderAddressParser). The display name
+ * is not part of it: senders choose it per message, so each email keeps its own (Email.senderName).
+ */
+@Entity
+@Table(
+    name = "senders",
+    indexes = @Index(name = "idx_senders_domain", columnList = "domain")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Sender {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Lowercase address; for headers without one, the normalized display name
+    @Column(nullable = false, unique = true, length = 320)
+    private String address;
+
+    // Registrable domain ("bank.co.uk"), "" when there is no address
+    @Column(nullable = false)
+    private String domain;
+
+    /**
+     * A sender as a "From" value: "Jane Doe <jane@example.com>", or just the address.
+     * Mirrored by the SQL in EmailRepository.search and EmailJsonRenderer.
+     */
+    public static String format(String displayName, String address) {
+        if (displayName == null || displayName.isEmpty() || displayName.equals(address)) {
+            return address;
+        }
+        return displayName + " <" + address + ">";
+    }
+}
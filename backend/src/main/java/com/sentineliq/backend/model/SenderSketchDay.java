@@ -0,0 +1,45 @@
+package com.sentineliq.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+
+/**
+ * Sender sketches of one inbox for one day: a Space-Saving top-senders summary and a
+ * HyperLogLog of distinct senders, in their compact binary forms (see SenderStatsService).
+ * Any set of days and inboxes can be merged into one answer.
+ */
+@Entity
+@Table(
+    name = "sender_sketches",
+    // Also serves range reads: inbox, then days in order
+    uniqueConstraints = @UniqueConstraint(columnNames = {"email_account_id", "sketch_day"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SenderSketchDay {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "email_account_id", nullable = false)
+    private Long emailAccountId;
+
+    // Server-local date of emails.received_at ("day" is reserved in some databases)
+    @Column(name = "sketch_day", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "email_count", nullable = false)
+    private long emailCount;
+
+    // SpaceSaving.toBytes(), a few KB at most
+    @Column(name = "top_senders", nullable = false, length = 65536)
+    private byte[] topSenders;
+
+    // HyperLogLog.toBytes(), 1537 bytes
+    @Column(name = "distinct_senders", nullable = false, length = 2048)
+    private byte[] distinctSenders;
+}
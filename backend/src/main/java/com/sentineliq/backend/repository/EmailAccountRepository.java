@@ -3,7 +3,11 @@ package com.sentineliq.backend.repository;
 import com.sentineliq.backend.model.EmailAccount;
 import com.sentineliq.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,6 +36,30 @@ public interface EmailAccountRepository extends JpaRepository<EmailAccount, Long
      */
     List<EmailAccount> findAllByUser(User user);
 
+    /**
+     * Finds all inboxes linked to a user by the user's ID (no User entity needed).
+     *
+     * @param userId the ID of the user
+     * @return list of inboxes owned by the user
+     */
+    List<EmailAccount> findAllByUserId(Long userId);
+
+    /**
+     * IDs of inboxes whose deletion has started but not finished (resumed on startup).
+     *
+     * @return inbox IDs marked as deleting
+     */
+    @Query("SELECT a.id FROM EmailAccount a WHERE a.deleting = true")
+    List<Long> findDeletingIds();
+
+    /**
+     * Checks that an inbox exists and is not being deleted (an inbox being deleted is already gone for clients).
+     *
+     * @param id the inbox ID
+     * @return true if the inbox exists and its deletion hasn't started
+     */
+    boolean existsByIdAndDeletingFalse(Long id);
+
     /**
      * Finds a specific inbox by ID and ensures it belongs to the given user.
      *
@@ -40,4 +68,59 @@ public interface EmailAccountRepository extends JpaRepository<EmailAccount, Long
      * @return Optional containing the inbox if found and owned by the user
      */
     Optional<EmailAccount> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Reads an inbox's sync version without loading the entity.
+     *
+     * @param id the inbox ID
+     * @return the current version, empty if the inbox doesn't exist
+     */
+    @Query("SELECT a.syncVersion FROM EmailAccount a WHERE a.id = :id")
+    Optional<Long> findSyncVersionById(@Param("id") Long id);
+
+    /**
+     * Atomically bumps an inbox's sync version after its emails changed.
+     *
+     * @param id the inbox ID
+     * @return number of rows updated (0 if the inbox doesn't exist)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailAccount a SET a.syncVersion = a.syncVersion + 1 WHERE a.id = :id")
+    int incrementSyncVersion(@Param("id") Long id);
+
+    /**
+     * Records the Gmail history position an inbox's label changes are synced up to.
+     *
+     * @param id        the inbox ID
+     * @param historyId Gmail history ID
+     * @return number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailAccount a SET a.gmailHistoryId = :historyId WHERE a.id = :id")
+    int updateGmailHistoryId(@Param("id") Long id, @Param("historyId") Long historyId);
+
+    /**
+     * Marks an inbox as being deleted.
+     *
+     * @param id the inbox ID
+     * @return 1 if this call marked it, 0 if it was already marked or doesn't exist
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailAccount a SET a.deleting = true WHERE a.id = :id AND a.deleting = false")
+    int markDeleting(@Param("id") Long id);
+
+    /**
+     * Removes the inbox row itself, without loading (and cascading to) its emails.
+     * Call once its emails are gone.
+     *
+     * @param id the inbox ID
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailAccount a WHERE a.id = :id")
+    int deleteByIdWithoutCascade(@Param("id") Long id);
 }
@@ -1,9 +1,18 @@
 package com.sentineliq.backend.repository;
 
 import com.sentineliq.backend.model.Email;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for managing Email entities.
@@ -19,8 +28,257 @@ public interface EmailRepository extends JpaRepository<Email, Long> {
      * @param emailAccountId the ID of the email account
      * @return a list of emails ordered by received date (most recent first)
      */
+    @EntityGraph(attributePaths = "senderRef")
     List<Email> findByEmailAccountIdOrderByReceivedAtDesc(Long emailAccountId);
 
+    /**
+     * Keyset page of an account's emails strictly older than a (receivedAt, id) position,
+     * newest first, without loading bodies. Reads only the page from the
+     * (email_account_id, received_at, id) index.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param beforeAt       receivedAt of the last email already returned
+     * @param beforeId       id of the last email already returned
+     * @param pageable       max rows
+     * @return the next emails, most recent first
+     */
+    @Query("""
+            SELECT e.id AS id, e.emailAccount.id AS inboxId, e.subject AS subject,
+                   e.senderName AS senderName, s.address AS senderAddress,
+                   e.receivedAt AS receivedAt, e.isSpam AS isSpam, e.trustScore AS trustScore
+            FROM Email e LEFT JOIN e.senderRef s
+            WHERE e.emailAccount.id = :emailAccountId
+              AND (e.receivedAt < :beforeAt OR (e.receivedAt = :beforeAt AND e.id < :beforeId))
+            ORDER BY e.receivedAt DESC, e.id DESC
+            """)
+    List<EmailStateRow> findPageBefore(@Param("emailAccountId") Long emailAccountId,
+                                       @Param("beforeAt") LocalDateTime beforeAt,
+                                       @Param("beforeId") Long beforeId,
+                                       Pageable pageable);
+
+    /**
+     * Finds emails of an account inserted or re-scored after a (transaction, sequence) position,
+     * written by transactions below the watermark only (see findChangeWatermark).
+     *
+     * @param emailAccountId the ID of the email account
+     * @param changeXid      transaction of the last change already returned
+     * @param changeSeq      sequence of the last change already returned
+     * @param watermark      exclusive upper bound on the writing transaction
+     * @param pageable       max rows
+     * @return changed emails in change order
+     */
+    @EntityGraph(attributePaths = "senderRef")
+    @Query("""
+            SELECT e FROM Email e
+            WHERE e.emailAccount.id = :emailAccountId
+              AND e.changeXid < :watermark
+              AND (e.changeXid > :changeXid OR (e.changeXid = :changeXid AND e.changeSeq > :changeSeq))
+            ORDER BY e.changeXid ASC, e.changeSeq ASC
+            """)
+    List<Email> findChangedAfter(@Param("emailAccountId") Long emailAccountId,
+                                 @Param("changeXid") long changeXid,
+                                 @Param("changeSeq") long changeSeq,
+                                 @Param("watermark") long watermark,
+                                 Pageable pageable);
+
+    /**
+     * Oldest transaction still running anywhere in the database (PostgreSQL only).
+     * Every transaction below it has committed or rolled back, so changes they wrote are
+     * final and visible; a later commit can only carry a transaction ID at or above it.
+     *
+     * @return the snapshot xmin as a 64-bit transaction ID
+     */
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", nativeQuery = true)
+    long findChangeWatermark();
+
+    /**
+     * Inbox an email belongs to, without loading the email (used for ownership checks).
+     *
+     * @param id email ID
+     * @return the inbox ID, empty if the email doesn't exist
+     */
+    @Query("SELECT e.emailAccount.id FROM Email e WHERE e.id = :id")
+    Optional<Long> findInboxIdById(@Param("id") Long id);
+
+    /**
+     * Loads specific emails with their senders (used to push emails announced by other nodes).
+     *
+     * @param ids email IDs
+     * @return the emails that still exist
+     */
+    @EntityGraph(attributePaths = "senderRef")
+    List<Email> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Reads the current state of specific emails, restricted to the given inboxes, without
+     * loading bodies. IDs outside those inboxes (or that don't exist) are simply absent.
+     *
+     * @param ids      email IDs
+     * @param inboxIds inboxes owned by the caller
+     * @return one row per owned email
+     */
+    @Query("""
+            SELECT e.id AS id, e.emailAccount.id AS inboxId, e.subject AS subject,
+                   e.senderName AS senderName, s.address AS senderAddress,
+                   e.receivedAt AS receivedAt, e.isSpam AS isSpam, e.trustScore AS trustScore
+            FROM Email e LEFT JOIN e.senderRef s
+            WHERE e.id IN :ids AND e.emailAccount.id IN :inboxIds
+            """)
+    List<EmailStateRow> findStates(@Param("ids") Collection<Long> ids, @Param("inboxIds") Collection<Long> inboxIds);
+
+    /**
+     * Sets the spam flag on many emails in one statement. Rows that already have the value
+     * are not touched, so they keep their change position.
+     *
+     * @param ids      email IDs (already checked for ownership)
+     * @param inboxIds inboxes owned by the caller (guards against IDs that moved)
+     * @param isSpam   new value
+     * @return number of rows changed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Email e SET e.isSpam = :isSpam
+            WHERE e.id IN :ids AND e.emailAccount.id IN :inboxIds
+              AND (e.isSpam IS NULL OR e.isSpam <> :isSpam)
+            """)
+    int updateSpamFlag(@Param("ids") Collection<Long> ids,
+                       @Param("inboxIds") Collection<Long> inboxIds,
+                       @Param("isSpam") boolean isSpam);
+
+    /**
+     * IDs of an account's emails by Gmail message ID (to apply label changes from Gmail's history).
+     *
+     * @param emailAccountId  the ID of the email account
+     * @param gmailMessageIds Gmail message IDs
+     * @return one row per stored message
+     */
+    @Query("""
+            SELECT e.id AS id, e.gmailMessageId AS gmailMessageId FROM Email e
+            WHERE e.emailAccount.id = :emailAccountId AND e.gmailMessageId IN :gmailMessageIds
+            """)
+    List<GmailIdRow> findIdsByGmailMessageIds(@Param("emailAccountId") Long emailAccountId,
+                                              @Param("gmailMessageIds") Collection<String> gmailMessageIds);
+
+    /**
+     * Replaces an email's Gmail labels.
+     *
+     * @param id       email ID
+     * @param labelIds comma-separated label IDs
+     * @return number of rows changed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Email e SET e.labelIds = :labelIds WHERE e.id = :id")
+    int updateLabelIds(@Param("id") Long id, @Param("labelIds") String labelIds);
+
+    /**
+     * Threads that specific emails of an account belong to.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param ids            email IDs
+     * @return distinct Gmail thread IDs (emails without one are skipped)
+     */
+    @Query("""
+            SELECT DISTINCT e.threadId FROM Email e
+            WHERE e.emailAccount.id = :emailAccountId AND e.id IN :ids AND e.threadId IS NOT NULL
+            """)
+    List<String> findThreadIds(@Param("emailAccountId") Long emailAccountId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Current verdict of one conversation, read from the (email_account_id, thread_id) index.
+     * Used to refresh a thread summary after re-scoring, never for listing.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param threadId       Gmail's thread ID
+     * @return spam count and lowest trust score of the thread's messages
+     */
+    @Query("""
+            SELECT COALESCE(SUM(CASE WHEN e.isSpam = true THEN 1 ELSE 0 END), 0) AS spamCount,
+                   MIN(e.trustScore) AS minTrustScore
+            FROM Email e
+            WHERE e.emailAccount.id = :emailAccountId AND e.threadId = :threadId
+            """)
+    ThreadVerdictRow findThreadVerdict(@Param("emailAccountId") Long emailAccountId, @Param("threadId") String threadId);
+
+    /**
+     * Counters of an account's emails received in a time range, read from the
+     * (email_account_id, received_at, id) index. Used to recompute one rollup bucket after
+     * re-scoring, never for dashboards.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param from           start of the range (inclusive)
+     * @param to             end of the range (exclusive)
+     * @return email count, spam count, trust score sum and count
+     */
+    @Query("""
+            SELECT COUNT(e) AS emails,
+                   COALESCE(SUM(CASE WHEN e.isSpam = true THEN 1 ELSE 0 END), 0) AS spam,
+                   COALESCE(SUM(e.trustScore), 0) AS trustScoreSum,
+                   COUNT(e.trustScore) AS trustScoreCount
+            FROM Email e
+            WHERE e.emailAccount.id = :emailAccountId AND e.receivedAt >= :from AND e.receivedAt < :to
+            """)
+    InboxStatsRepository.BucketTotalsRow sumReceivedBetween(@Param("emailAccountId") Long emailAccountId,
+                                                            @Param("from") LocalDateTime from,
+                                                            @Param("to") LocalDateTime to);
+
+    /**
+     * Emails per sender domain received by an account since a time, busiest domains first.
+     * Used once per inbox to warm-start the burst detector's per-domain baselines.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param since          start of the range (inclusive)
+     * @param pageable       how many domains to return
+     * @return domains with their email counts
+     */
+    @Query("""
+            SELECT s.domain AS domain, COUNT(e) AS emails
+            FROM Email e JOIN e.senderRef s
+            WHERE e.emailAccount.id = :emailAccountId AND e.receivedAt >= :since AND s.domain <> ''
+            GROUP BY s.domain
+            ORDER BY COUNT(e) DESC
+            """)
+    List<DomainCountRow> countByDomainSince(@Param("emailAccountId") Long emailAccountId,
+                                            @Param("since") LocalDateTime since,
+                                            Pageable pageable);
+
+    /**
+     * ID of the email at a given position in an account's id order, used to cut the account's
+     * emails into chunks for deletion.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param offset         number of emails before it
+     * @return the ID, empty if the account has no more than offset emails
+     */
+    @Query(value = """
+            SELECT id FROM emails
+            WHERE email_account_id = :emailAccountId
+            ORDER BY id
+            OFFSET :offset LIMIT 1
+            """, nativeQuery = true)
+    Optional<Long> findIdAtOffset(@Param("emailAccountId") Long emailAccountId, @Param("offset") int offset);
+
+    /**
+     * Deletes one chunk of an account's emails (those with an ID below the bound) in one statement,
+     * without loading them.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param belowId        exclusive upper bound
+     * @return number of emails deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM emails WHERE email_account_id = :emailAccountId AND id < :belowId", nativeQuery = true)
+    int deleteChunk(@Param("emailAccountId") Long emailAccountId, @Param("belowId") long belowId);
+
+    /**
+     * Number of emails stored for an account.
+     *
+     * @param emailAccountId the ID of the email account
+     * @return email count
+     */
+    long countByEmailAccountId(Long emailAccountId);
 
     /**
      * Checks if an email already exists for this account based on Gmail's unique message ID.
@@ -31,4 +289,106 @@ public interface EmailRepository extends JpaRepository<Email, Long> {
      * @return true if an email with this Gmail message ID exists for the account, false otherwise
      */
     boolean existsByGmailMessageIdAndEmailAccountId(String gmailMessageId, Long emailAccountId);
+
+    /**
+     * Full-text search over subject, sender and body (PostgreSQL only, see db/postgres-schema.sql).
+     *
+     * Results are ranked with ts_rank_cd and paginated by keyset on (rank, id): pass the last
+     * row's rank and id to get the next page, or +Infinity and Long.MAX_VALUE for the first page.
+     * Snippets are only computed for the rows on the page. The body is HTML-escaped before
+     * highlighting, so the only markup in a snippet is the &lt;mark&gt; tags around matches.
+     *
+     * @param inboxIds  inboxes to search (already checked for ownership)
+     * @param query     user query in websearch syntax ("quoted phrase", -exclude, or)
+     * @param afterRank rank of the last row of the previous page
+     * @param afterId   id of the last row of the previous page
+     * @param limit     max rows to return
+     * @return matching emails, best match first
+     */
+    @Query(value = """
+            SELECT e.id AS "id",
+                   e.email_account_id AS "inboxId",
+                   e.subject AS "subject",
+                   CASE WHEN e.sender_name IS NULL OR e.sender_name = '' OR e.sender_name = s.address
+                        THEN s.address ELSE e.sender_name || ' <' || s.address || '>' END AS "sender",
+                   e.received_at AS "receivedAt",
+                   e.is_spam AS "isSpam",
+                   e.trust_score AS "trustScore",
+                   hits.rank AS "rank",
+                   ts_headline('english',
+                               replace(replace(replace(left(coalesce(e.plain_text_body, ''), 20000),
+                                   '&', '&amp;'), '<', '&lt;'), '>', '&gt;'),
+                               hits.query,
+                               'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=8') AS "snippet"
+            FROM (
+                SELECT m.id, ts_rank_cd(m.search_vector, q) AS rank, q AS query
+                FROM emails m, websearch_to_tsquery('english', :query) q
+                WHERE m.email_account_id IN (:inboxIds)
+                  AND m.search_vector @@ q
+                  AND (ts_rank_cd(m.search_vector, q), m.id) < (CAST(:afterRank AS real), :afterId)
+                ORDER BY rank DESC, m.id DESC
+                LIMIT :limit
+            ) hits
+            JOIN emails e ON e.id = hits.id
+            LEFT JOIN senders s ON s.id = e.sender_id
+            ORDER BY hits.rank DESC, e.id DESC
+            """, nativeQuery = true)
+    List<EmailSearchRow> search(@Param("inboxIds") Collection<Long> inboxIds,
+                                @Param("query") String query,
+                                @Param("afterRank") float afterRank,
+                                @Param("afterId") long afterId,
+                                @Param("limit") int limit);
+
+    /**
+     * Row returned by {@link #search}.
+     */
+    interface EmailSearchRow {
+        Long getId();
+        Long getInboxId();
+        String getSubject();
+        String getSender();
+        LocalDateTime getReceivedAt();
+        Boolean getIsSpam();
+        Integer getTrustScore();
+        Float getRank();
+        String getSnippet();
+    }
+
+    /**
+     * Row returned by {@link #findStates} and {@link #findPageBefore}.
+     */
+    interface EmailStateRow {
+        Long getId();
+        Long getInboxId();
+        String getSubject();
+        String getSenderName();
+        String getSenderAddress();
+        LocalDateTime getReceivedAt();
+        Boolean getIsSpam();
+        Integer getTrustScore();
+    }
+
+    /**
+     * Row returned by {@link #findThreadVerdict}.
+     */
+    interface ThreadVerdictRow {
+        Long getSpamCount();
+        Integer getMinTrustScore();
+    }
+
+    /**
+     * Row returned by {@link #findIdsByGmailMessageIds}.
+     */
+    interface GmailIdRow {
+        Long getId();
+        String getGmailMessageId();
+    }
+
+    /**
+     * Row returned by {@link #countByDomainSince}.
+     */
+    interface DomainCountRow {
+        String getDomain();
+        Long getEmails();
+    }
 }
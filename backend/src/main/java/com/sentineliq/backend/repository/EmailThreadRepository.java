@@ -0,0 +1,88 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.EmailThread;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for conversation summaries (one row per Gmail thread per inbox).
+ */
+@Repository
+public interface EmailThreadRepository extends JpaRepository<EmailThread, Long> {
+
+    /**
+     * Finds a thread's summary and locks it until the end of the transaction, so concurrent
+     * syncs fold their messages in one after the other.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param gmailThreadId  Gmail's thread ID
+     * @return the summary if the thread is known
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM EmailThread t WHERE t.emailAccountId = :emailAccountId AND t.gmailThreadId = :gmailThreadId")
+    Optional<EmailThread> findForUpdate(@Param("emailAccountId") Long emailAccountId,
+                                        @Param("gmailThreadId") String gmailThreadId);
+
+    /**
+     * Keyset page of an account's threads strictly older than a (latestAt, id) position,
+     * most recently active first. Reads only the page from the (email_account_id, latest_at, id) index.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param beforeAt       latestAt of the last thread already returned
+     * @param beforeId       id of the last thread already returned
+     * @param pageable       max rows
+     * @return the next threads, most recent first
+     */
+    @Query("""
+            SELECT t FROM EmailThread t
+            WHERE t.emailAccountId = :emailAccountId
+              AND (t.latestAt < :beforeAt OR (t.latestAt = :beforeAt AND t.id < :beforeId))
+            ORDER BY t.latestAt DESC, t.id DESC
+            """)
+    List<EmailThread> findPageBefore(@Param("emailAccountId") Long emailAccountId,
+                                     @Param("beforeAt") LocalDateTime beforeAt,
+                                     @Param("beforeId") Long beforeId,
+                                     Pageable pageable);
+
+    /**
+     * Replaces a thread's verdict after its messages were re-scored.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param gmailThreadId  Gmail's thread ID
+     * @param spamCount      messages marked as spam
+     * @param minTrustScore  lowest trust score
+     * @return number of rows changed
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE EmailThread t SET t.spamCount = :spamCount, t.minTrustScore = :minTrustScore
+            WHERE t.emailAccountId = :emailAccountId AND t.gmailThreadId = :gmailThreadId
+            """)
+    int updateVerdict(@Param("emailAccountId") Long emailAccountId,
+                      @Param("gmailThreadId") String gmailThreadId,
+                      @Param("spamCount") int spamCount,
+                      @Param("minTrustScore") Integer minTrustScore);
+
+    /**
+     * Deletes all thread summaries of an inbox (when the inbox itself is gone).
+     *
+     * @param emailAccountId the ID of the email account
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailThread t WHERE t.emailAccountId = :emailAccountId")
+    int deleteByInbox(@Param("emailAccountId") Long emailAccountId);
+}
@@ -0,0 +1,66 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.EmailTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for tombstones of deleted emails (read by the delta "changes since" API).
+ */
+@Repository
+public interface EmailTombstoneRepository extends JpaRepository<EmailTombstone, Long> {
+
+    /**
+     * Finds deletions in an inbox after a (transaction, sequence) position, written by
+     * transactions below the watermark only (see EmailRepository.findChangeWatermark).
+     *
+     * @param emailAccountId the ID of the email account
+     * @param changeXid      transaction of the last change already returned
+     * @param changeSeq      sequence of the last change already returned
+     * @param watermark      exclusive upper bound on the writing transaction
+     * @param pageable       max rows
+     * @return tombstones in change order
+     */
+    @Query("""
+            SELECT t FROM EmailTombstone t
+            WHERE t.emailAccountId = :emailAccountId
+              AND t.changeXid < :watermark
+              AND (t.changeXid > :changeXid OR (t.changeXid = :changeXid AND t.changeSeq > :changeSeq))
+            ORDER BY t.changeXid ASC, t.changeSeq ASC
+            """)
+    List<EmailTombstone> findChangedAfter(@Param("emailAccountId") Long emailAccountId,
+                                          @Param("changeXid") long changeXid,
+                                          @Param("changeSeq") long changeSeq,
+                                          @Param("watermark") long watermark,
+                                          Pageable pageable);
+
+    /**
+     * Deletes tombstones older than the retention period.
+     *
+     * @param cutoff tombstones deleted before this are removed
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Deletes all tombstones of an inbox (when the inbox itself is gone).
+     *
+     * @param emailAccountId the ID of the email account
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailTombstone t WHERE t.emailAccountId = :emailAccountId")
+    int deleteByInbox(@Param("emailAccountId") Long emailAccountId);
+}
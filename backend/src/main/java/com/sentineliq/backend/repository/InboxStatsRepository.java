@@ -0,0 +1,137 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.InboxStatsBucket;
+import com.sentineliq.backend.model.InboxStatsBucket.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for inbox rollup buckets (hourly and daily mail counters).
+ */
+@Repository
+public interface InboxStatsRepository extends JpaRepository<InboxStatsBucket, Long> {
+
+    /**
+     * Locks a bucket row until the end of the current transaction, creating it empty if needed
+     * (PostgreSQL upsert), so concurrent recomputes of one bucket run one after the other and
+     * each reads the emails committed before it got the lock.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param granularity    HOUR or DAY
+     * @param bucketStart    start of the bucket
+     * @return number of rows written
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO inbox_stats (email_account_id, granularity, bucket_start, email_count, spam_count,
+                                     trust_score_sum, trust_score_count)
+            VALUES (:emailAccountId, :granularity, :bucketStart, 0, 0, 0, 0)
+            ON CONFLICT (email_account_id, granularity, bucket_start) DO UPDATE SET
+                email_count = inbox_stats.email_count
+            """, nativeQuery = true)
+    int lockBucket(@Param("emailAccountId") Long emailAccountId,
+                   @Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart);
+
+    /**
+     * Sets a bucket's counts, creating it if needed (after recomputing it from its emails).
+     *
+     * @param emailAccountId  the ID of the email account
+     * @param granularity     HOUR or DAY
+     * @param bucketStart     start of the bucket
+     * @param emails          emails in the bucket
+     * @param spam            spam emails in the bucket
+     * @param trustScoreSum   sum of their trust scores
+     * @param trustScoreCount how many of them have a trust score
+     * @return number of rows written
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO inbox_stats (email_account_id, granularity, bucket_start, email_count, spam_count,
+                                     trust_score_sum, trust_score_count)
+            VALUES (:emailAccountId, :granularity, :bucketStart, :emails, :spam, :trustScoreSum, :trustScoreCount)
+            ON CONFLICT (email_account_id, granularity, bucket_start) DO UPDATE SET
+                email_count = EXCLUDED.email_count,
+                spam_count = EXCLUDED.spam_count,
+                trust_score_sum = EXCLUDED.trust_score_sum,
+                trust_score_count = EXCLUDED.trust_score_count
+            """, nativeQuery = true)
+    int replace(@Param("emailAccountId") Long emailAccountId,
+                @Param("granularity") String granularity,
+                @Param("bucketStart") LocalDateTime bucketStart,
+                @Param("emails") long emails,
+                @Param("spam") long spam,
+                @Param("trustScoreSum") long trustScoreSum,
+                @Param("trustScoreCount") long trustScoreCount);
+
+    /**
+     * Buckets of an inbox in a time range, oldest first. Reads only those rows from the unique index.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param granularity    HOUR or DAY
+     * @param from           first bucket start (inclusive)
+     * @param to             end of the range (exclusive)
+     * @return the non-empty buckets in the range
+     */
+    @Query("""
+            SELECT b FROM InboxStatsBucket b
+            WHERE b.emailAccountId = :emailAccountId AND b.granularity = :granularity
+              AND b.bucketStart >= :from AND b.bucketStart < :to
+            ORDER BY b.bucketStart
+            """)
+    List<InboxStatsBucket> findRange(@Param("emailAccountId") Long emailAccountId,
+                                     @Param("granularity") Granularity granularity,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    /**
+     * Totals of an inbox's buckets in a time range (a day's total from its hourly buckets).
+     *
+     * @param emailAccountId the ID of the email account
+     * @param granularity    granularity of the buckets to add up
+     * @param from           first bucket start (inclusive)
+     * @param to             end of the range (exclusive)
+     * @return the sums (zero when there are no buckets)
+     */
+    @Query("""
+            SELECT COALESCE(SUM(b.emailCount), 0) AS emails, COALESCE(SUM(b.spamCount), 0) AS spam,
+                   COALESCE(SUM(b.trustScoreSum), 0) AS trustScoreSum,
+                   COALESCE(SUM(b.trustScoreCount), 0) AS trustScoreCount
+            FROM InboxStatsBucket b
+            WHERE b.emailAccountId = :emailAccountId AND b.granularity = :granularity
+              AND b.bucketStart >= :from AND b.bucketStart < :to
+            """)
+    BucketTotalsRow sumRange(@Param("emailAccountId") Long emailAccountId,
+                             @Param("granularity") Granularity granularity,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to);
+
+    /**
+     * Deletes all buckets of an inbox (when the inbox itself is gone).
+     *
+     * @param emailAccountId the ID of the email account
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM InboxStatsBucket b WHERE b.emailAccountId = :emailAccountId")
+    int deleteByInbox(@Param("emailAccountId") Long emailAccountId);
+
+    /**
+     * Counters returned by {@link #sumRange} and EmailRepository.sumReceivedBetween.
+     */
+    interface BucketTotalsRow {
+        Long getEmails();
+        Long getSpam();
+        Long getTrustScoreSum();
+        Long getTrustScoreCount();
+    }
+}
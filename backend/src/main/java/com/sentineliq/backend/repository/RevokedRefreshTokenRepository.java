@@ -0,0 +1,48 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.RevokedRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for revoked refresh tokens.
+ * The table is the source of truth shared by all replicas; each node mirrors it in memory.
+ */
+@Repository
+public interface RevokedRefreshTokenRepository extends JpaRepository<RevokedRefreshToken, Long> {
+
+    /**
+     * Finds revocations that are still relevant (token not yet expired).
+     * Used to seed the in-memory set on startup.
+     *
+     * @param now the current time
+     * @return revocations whose tokens have not expired yet
+     */
+    List<RevokedRefreshToken> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Finds revocations recorded after the given time, including ones made by other replicas.
+     *
+     * @param since lower bound (exclusive) on the revocation time
+     * @return recently revoked tokens
+     */
+    List<RevokedRefreshToken> findByRevokedAtAfter(LocalDateTime since);
+
+    /**
+     * Deletes revocations for tokens that have expired and can no longer be presented.
+     *
+     * @param now the current time
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedRefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
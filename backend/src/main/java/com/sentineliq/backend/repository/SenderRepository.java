@@ -0,0 +1,22 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.Sender;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for Sender entities (one row per distinct sender address).
+ */
+@Repository
+public interface SenderRepository extends JpaRepository<Sender, Long> {
+
+    /**
+     * Finds a sender by its normalized address.
+     *
+     * @param address lowercase address
+     * @return the sender if it exists
+     */
+    Optional<Sender> findByAddress(String address);
+}
@@ -0,0 +1,74 @@
+package com.sentineliq.backend.repository;
+
+import com.sentineliq.backend.model.SenderSketchDay;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for per-inbox, per-day sender sketches.
+ */
+@Repository
+public interface SenderSketchRepository extends JpaRepository<SenderSketchDay, Long> {
+
+    /**
+     * Finds a day's sketches and locks them until the end of the transaction, so nodes
+     * flushing the same inbox and day merge into them one after the other.
+     *
+     * @param emailAccountId the ID of the email account
+     * @param day            the day
+     * @return the sketches if anything was recorded that day
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SenderSketchDay s WHERE s.emailAccountId = :emailAccountId AND s.day = :day")
+    Optional<SenderSketchDay> findForUpdate(@Param("emailAccountId") Long emailAccountId,
+                                            @Param("day") LocalDate day);
+
+    /**
+     * Sketches of some inboxes over a range of days (one row per inbox per day with mail).
+     *
+     * @param emailAccountIds the IDs of the email accounts
+     * @param from            first day (inclusive)
+     * @param to              last day (inclusive)
+     * @return the matching rows
+     */
+    @Query("""
+            SELECT s FROM SenderSketchDay s
+            WHERE s.emailAccountId IN :emailAccountIds AND s.day >= :from AND s.day <= :to
+            """)
+    List<SenderSketchDay> findRange(@Param("emailAccountIds") Collection<Long> emailAccountIds,
+                                    @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to);
+
+    /**
+     * Deletes all sketches of an inbox (when the inbox itself is gone).
+     *
+     * @param emailAccountId the ID of the email account
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SenderSketchDay s WHERE s.emailAccountId = :emailAccountId")
+    int deleteByInbox(@Param("emailAccountId") Long emailAccountId);
+
+    /**
+     * Deletes sketches of days past retention.
+     *
+     * @param day first day to keep
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SenderSketchDay s WHERE s.day < :day")
+    int deleteBefore(@Param("day") LocalDate day);
+}
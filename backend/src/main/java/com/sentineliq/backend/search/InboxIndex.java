@@ -0,0 +1,434 @@
+package com.sentineliq.backend.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * In-memory inverted index over one inbox, for filter-as-you-type.
+ *
+ * - Documents get dense int ids (docIds) in insertion order, so a higher docId means newer mail.
+ * - The term dictionary is a sorted String[]; a prefix query is a binary search plus a scan.
+ * - Each term's posting list is a delta + varint encoded byte[] of docIds (usually 1-2 bytes per entry).
+ * - New documents go to a small sorted "tail" and are merged into the compressed dictionary
+ *   every SEAL_THRESHOLD documents. Since docIds only grow, merging appends to posting lists
+ *   without decoding them.
+ * - Queries AND all terms together and treat the last one as a prefix (unless the query ends
+ *   with a space), returning the newest matches first.
+ *
+ * Thread-safe: queries share a read lock, additions take the write lock.
+ */
+public final class InboxIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x53494958; // "SIIX"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SEAL_THRESHOLD = 512;
+    private static final int MIN_INDEXED_TERM_LENGTH = 2;
+    private static final int MAX_STORED_CHARS = 300;
+    private static final int MAX_PREFIX_EXPANSION = 50_000;
+
+    /**
+     * One matching email, with enough to render a result row without a database round trip.
+     */
+    public record Hit(long id, String subject, String sender) {
+    }
+
+    private final long inboxId;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Documents (indexed by docId)
+    private long[] emailIds = new long[64];
+    private String[] subjects = new String[64];
+    private String[] senders = new String[64];
+    private int docCount;
+    private long maxEmailId;
+
+    // Sealed dictionary: sorted terms, compressed postings, last docId of each posting list
+    private String[] terms = new String[0];
+    private byte[][] postings = new byte[0][];
+    private int[] lastDocs = new int[0];
+
+    // Terms of documents added since the last seal
+    private final TreeMap<String, IntList> tail = new TreeMap<>();
+    private int tailDocs;
+
+    private long estimatedBytes;
+
+    public InboxIndex(long inboxId) {
+        this.inboxId = inboxId;
+    }
+
+    public long getInboxId() {
+        return inboxId;
+    }
+
+    /**
+     * Highest email id seen so far; rows above it still need to be indexed.
+     */
+    public long getMaxEmailId() {
+        lock.readLock().lock();
+        try {
+            return maxEmailId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough heap footprint, used to keep all loaded indexes under the memory budget.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index one email. Emails that are already indexed are ignored.
+     */
+    public void add(long emailId, String subject, String sender, String body) {
+        lock.writeLock().lock();
+        try {
+            if (emailId <= maxEmailId && containsEmail(emailId)) {
+                return;
+            }
+
+            int docId = docCount++;
+            ensureDocCapacity(docCount);
+            emailIds[docId] = emailId;
+            subjects[docId] = truncate(subject);
+            senders[docId] = truncate(sender);
+            maxEmailId = Math.max(maxEmailId, emailId);
+            estimatedBytes += 8 + 2L * (48 + length(subjects[docId]) + length(senders[docId]));
+
+            for (String field : new String[] {subject, sender, body}) {
+                for (String term : SearchTokenizer.distinctTerms(field, MIN_INDEXED_TERM_LENGTH)) {
+                    IntList docs = tail.get(term);
+                    if (docs == null) {
+                        docs = new IntList();
+                        tail.put(term, docs);
+                        estimatedBytes += 64 + 2L * term.length();
+                    }
+                    if (docs.last() != docId) {
+                        docs.add(docId);
+                        estimatedBytes += 4;
+                    }
+                }
+            }
+
+            if (++tailDocs >= SEAL_THRESHOLD) {
+                sealLocked();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merge pending documents into the compressed dictionary.
+     */
+    public void seal() {
+        lock.writeLock().lock();
+        try {
+            sealLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the newest emails matching every term of the query (last term as a prefix).
+     */
+    public List<Hit> query(String query, int limit) {
+        List<String> queryTerms = SearchTokenizer.terms(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                String term = queryTerms.get(i);
+                BitSet docs = (i == queryTerms.size() - 1 && lastIsPrefix) ? prefixDocs(term) : exactDocs(term);
+                if (matches == null) {
+                    matches = docs;
+                } else {
+                    matches.and(docs);
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, matches.cardinality()));
+            for (int doc = matches.previousSetBit(docCount - 1); doc >= 0 && hits.size() < limit;
+                 doc = matches.previousSetBit(doc - 1)) {
+                hits.add(new Hit(emailIds[doc], subjects[doc], senders[doc]));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- Snapshots ----
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.writeLock().lock();
+        try {
+            sealLocked();
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(inboxId);
+            out.writeLong(maxEmailId);
+            out.writeInt(docCount);
+            for (int doc = 0; doc < docCount; doc++) {
+                out.writeLong(emailIds[doc]);
+                out.writeUTF(subjects[doc] != null ? subjects[doc] : "");
+                out.writeUTF(senders[doc] != null ? senders[doc] : "");
+            }
+            out.writeInt(terms.length);
+            for (int t = 0; t < terms.length; t++) {
+                out.writeUTF(terms[t]);
+                out.writeInt(lastDocs[t]);
+                out.writeInt(postings[t].length);
+                out.write(postings[t]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public static InboxIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported inbox index snapshot");
+        }
+        InboxIndex index = new InboxIndex(in.readLong());
+        index.maxEmailId = in.readLong();
+        index.docCount = in.readInt();
+        index.ensureDocCapacity(index.docCount);
+        for (int doc = 0; doc < index.docCount; doc++) {
+            index.emailIds[doc] = in.readLong();
+            index.subjects[doc] = in.readUTF();
+            index.senders[doc] = in.readUTF();
+            index.estimatedBytes += 8 + 2L * (48 + index.subjects[doc].length() + index.senders[doc].length());
+        }
+        int termCount = in.readInt();
+        index.terms = new String[termCount];
+        index.postings = new byte[termCount][];
+        index.lastDocs = new int[termCount];
+        for (int t = 0; t < termCount; t++) {
+            index.terms[t] = in.readUTF();
+            index.lastDocs[t] = in.readInt();
+            index.postings[t] = in.readNBytes(in.readInt());
+            index.estimatedBytes += 64 + 2L * index.terms[t].length() + index.postings[t].length;
+        }
+        return index;
+    }
+
+    // ---- Internals (callers hold the lock) ----
+
+    private void sealLocked() {
+        if (tail.isEmpty()) {
+            tailDocs = 0;
+            return;
+        }
+
+        int capacity = terms.length + tail.size();
+        String[] mergedTerms = new String[capacity];
+        byte[][] mergedPostings = new byte[capacity][];
+        int[] mergedLast = new int[capacity];
+
+        // Classic sorted merge of the sealed dictionary and the tail
+        int sealedPos = 0;
+        int out = 0;
+        for (Map.Entry<String, IntList> entry : tail.entrySet()) {
+            String term = entry.getKey();
+            while (sealedPos < terms.length && terms[sealedPos].compareTo(term) < 0) {
+                mergedTerms[out] = terms[sealedPos];
+                mergedPostings[out] = postings[sealedPos];
+                mergedLast[out++] = lastDocs[sealedPos++];
+            }
+            IntList newDocs = entry.getValue();
+            if (sealedPos < terms.length && terms[sealedPos].equals(term)) {
+                mergedTerms[out] = term;
+                mergedPostings[out] = appendPostings(postings[sealedPos], lastDocs[sealedPos], newDocs);
+                mergedLast[out++] = newDocs.last();
+                sealedPos++;
+            } else {
+                mergedTerms[out] = term;
+                mergedPostings[out] = appendPostings(new byte[0], -1, newDocs);
+                mergedLast[out++] = newDocs.last();
+            }
+        }
+        while (sealedPos < terms.length) {
+            mergedTerms[out] = terms[sealedPos];
+            mergedPostings[out] = postings[sealedPos];
+            mergedLast[out++] = lastDocs[sealedPos++];
+        }
+
+        terms = Arrays.copyOf(mergedTerms, out);
+        postings = Arrays.copyOf(mergedPostings, out);
+        lastDocs = Arrays.copyOf(mergedLast, out);
+        tail.clear();
+        tailDocs = 0;
+        estimatedBytes = recomputeEstimate();
+    }
+
+    private BitSet exactDocs(String term) {
+        BitSet docs = new BitSet(docCount);
+        int pos = Arrays.binarySearch(terms, term);
+        if (pos >= 0) {
+            decodeInto(postings[pos], docs);
+        }
+        IntList pending = tail.get(term);
+        if (pending != null) {
+            pending.forEach(docs::set);
+        }
+        return docs;
+    }
+
+    private BitSet prefixDocs(String prefix) {
+        BitSet docs = new BitSet(docCount);
+        int pos = Arrays.binarySearch(terms, prefix);
+        int start = pos >= 0 ? pos : -pos - 1;
+        for (int t = start; t < terms.length && t - start < MAX_PREFIX_EXPANSION && terms[t].startsWith(prefix); t++) {
+            decodeInto(postings[t], docs);
+        }
+        NavigableMap<String, IntList> pending = tail.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        for (IntList list : pending.values()) {
+            list.forEach(docs::set);
+        }
+        return docs;
+    }
+
+    private boolean containsEmail(long emailId) {
+        for (int doc = docCount - 1; doc >= 0; doc--) {
+            if (emailIds[doc] == emailId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ensureDocCapacity(int needed) {
+        if (needed > emailIds.length) {
+            int newLength = Math.max(needed, emailIds.length * 2);
+            emailIds = Arrays.copyOf(emailIds, newLength);
+            subjects = Arrays.copyOf(subjects, newLength);
+            senders = Arrays.copyOf(senders, newLength);
+        }
+    }
+
+    private long recomputeEstimate() {
+        long bytes = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            bytes += 8 + 2L * (48 + length(subjects[doc]) + length(senders[doc]));
+        }
+        for (int t = 0; t < terms.length; t++) {
+            bytes += 64 + 2L * terms[t].length() + postings[t].length;
+        }
+        return bytes;
+    }
+
+    private static byte[] appendPostings(byte[] existing, int lastDoc, IntList newDocs) {
+        byte[] buffer = Arrays.copyOf(existing, existing.length + newDocs.size() * 5);
+        int length = existing.length;
+        int previous = lastDoc;
+        for (int i = 0; i < newDocs.size(); i++) {
+            int doc = newDocs.get(i);
+            int delta = doc - previous;
+            while ((delta & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[length++] = (byte) delta;
+            previous = doc;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static void decodeInto(byte[] posting, BitSet out) {
+        int doc = -1;
+        int i = 0;
+        while (i < posting.length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = posting[i++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            doc += delta;
+            out.set(doc);
+        }
+    }
+
+    private static String truncate(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.length() <= MAX_STORED_CHARS ? value : value.substring(0, MAX_STORED_CHARS);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * Minimal growable int array (avoids boxing in the tail).
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int last() {
+            return size == 0 ? -1 : values[size - 1];
+        }
+
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(values[i]);
+            }
+        }
+    }
+}
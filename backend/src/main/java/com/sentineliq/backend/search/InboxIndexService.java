@@ -0,0 +1,267 @@
+package com.sentineliq.backend.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.sentineliq.backend.cluster.ClusterMessage;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.Sender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InboxIndexService keeps an in-memory InboxIndex per active inbox for filter-as-you-type.
+ *
+ * - Indexes are built lazily on the first query (or loaded from a snapshot on disk) and then
+ *   caught up from the database with a streamed, read-only query over rows newer than the snapshot.
+ * - Newly ingested emails are added as they arrive (EmailsIngestedEvent); deleted inboxes are dropped.
+ * - All loaded indexes share a memory budget; the least recently used ones are evicted first
+ *   and written to a snapshot so the next load is cheap.
+ * - Rows written by other nodes are picked up by a catch-up on the next query after their
+ *   cluster event arrives, or at the latest every catch-up-seconds.
+ */
+@Slf4j
+@Service
+public class InboxIndexService {
+
+    private static final String CATCH_UP_SQL = """
+            SELECT e.id, e.subject, e.sender_name, s.address, SUBSTRING(e.plain_text_body, 1, ?) AS body
+            FROM emails e
+            LEFT JOIN senders s ON s.id = e.sender_id
+            WHERE e.email_account_id = ? AND e.id > ?
+            ORDER BY e.id
+            """;
+
+    private final boolean enabled;
+    private final int bodyChars;
+    private final long catchUpMillis;
+    private final Path snapshotDir;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final Cache<Long, InboxIndex> indexes;
+    private final Map<Long, Long> lastCatchUp = new ConcurrentHashMap<>();
+
+    public InboxIndexService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${search.inbox-index.enabled:true}") boolean enabled,
+            @Value("${search.inbox-index.max-memory-mb:256}") long maxMemoryMb,
+            @Value("${search.inbox-index.body-chars:2000}") int bodyChars,
+            @Value("${search.inbox-index.catch-up-seconds:30}") long catchUpSeconds,
+            @Value("${search.inbox-index.fetch-size:500}") int fetchSize,
+            @Value("${search.inbox-index.snapshot-dir:}") String snapshotDir) {
+        this.enabled = enabled;
+        this.bodyChars = bodyChars;
+        this.catchUpMillis = catchUpSeconds * 1000;
+        this.snapshotDir = snapshotDir == null || snapshotDir.isBlank() ? null : Path.of(snapshotDir);
+
+        // Postgres only streams results (instead of buffering them all) inside a transaction with a fetch size
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        // Weight is in KB so large budgets fit in an int
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryMb * 1024)
+                .weigher((Long inboxId, InboxIndex index) -> (int) Math.min(Integer.MAX_VALUE, index.estimatedBytes() / 1024 + 1))
+                .removalListener((Long inboxId, InboxIndex index, RemovalCause cause) -> {
+                    if (inboxId != null && index != null && cause.wasEvicted()) {
+                        lastCatchUp.remove(inboxId);
+                        writeSnapshot(index);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "search.inbox-index");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Newest emails in the inbox matching every term of the query (the last term as a prefix).
+     * Returns empty when the index is disabled, so callers can fall back to database search.
+     */
+    public Optional<List<InboxIndex.Hit>> filter(long inboxId, String query, int limit) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        InboxIndex index = indexes.get(inboxId, this::load);
+        long now = System.currentTimeMillis();
+        Long last = lastCatchUp.get(inboxId);
+        if ((last == null || now - last >= catchUpMillis) && catchUp(index)) {
+            reweigh(inboxId);
+        }
+        return Optional.of(index.query(query, limit));
+    }
+
+    /**
+     * Add freshly stored emails to the inbox's index, if it is loaded.
+     * Unloaded inboxes pick the rows up from the database on their next load.
+     */
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        InboxIndex index = indexes.getIfPresent(event.getInboxId());
+        if (index == null) {
+            return;
+        }
+        for (Email email : event.getEmails()) {
+            if (email.getId() != null) {
+                index.add(email.getId(), email.getSubject(), email.getSender(), truncateBody(email.getPlainTextBody()));
+            }
+        }
+        reweigh(event.getInboxId());
+    }
+
+    /**
+     * Drop the index and its snapshot when the inbox goes away.
+     */
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        indexes.invalidate(event.getInboxId());
+        lastCatchUp.remove(event.getInboxId());
+        if (snapshotDir != null) {
+            try {
+                Files.deleteIfExists(snapshotPath(event.getInboxId()));
+            } catch (IOException e) {
+                log.warn("Could not delete index snapshot for inbox {}", event.getInboxId(), e);
+            }
+        }
+    }
+
+    /**
+     * Another node changed the inbox: catch up on the next query instead of waiting for the interval.
+     */
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        ClusterMessage message = event.getMessage();
+        if (message.type() == ClusterMessage.Type.INBOX_DELETED) {
+            onInboxDeleted(new InboxDeletedEvent(message.inboxId(), message.userId()));
+        } else if (message.type() == ClusterMessage.Type.EMAILS_INGESTED) {
+            lastCatchUp.remove(message.inboxId());
+        }
+    }
+
+    @EventListener
+    public void onClusterReconnected(ClusterReconnectedEvent event) {
+        lastCatchUp.clear();
+    }
+
+    /**
+     * Snapshot every loaded index on shutdown so a restart doesn't rebuild them from scratch.
+     */
+    @PreDestroy
+    public void snapshotAll() {
+        indexes.asMap().values().forEach(this::writeSnapshot);
+    }
+
+    // ---- Loading ----
+
+    private InboxIndex load(Long inboxId) {
+        InboxIndex index = readSnapshot(inboxId).orElseGet(() -> new InboxIndex(inboxId));
+        catchUp(index);
+        log.info("Loaded search index for inbox {} ({} emails, ~{} KB)",
+                inboxId, index.size(), index.estimatedBytes() / 1024);
+        return index;
+    }
+
+    // Returns whether rows were added; callers outside the cache loader then reweigh the entry
+    private boolean catchUp(InboxIndex index) {
+        long inboxId = index.getInboxId();
+        int before = index.size();
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(CATCH_UP_SQL,
+                rs -> {
+                    String address = rs.getString("address");
+                    index.add(rs.getLong("id"), rs.getString("subject"),
+                            address != null ? Sender.format(rs.getString("sender_name"), address) : null,
+                            rs.getString("body"));
+                },
+                bodyChars, inboxId, index.getMaxEmailId()));
+        lastCatchUp.put(inboxId, System.currentTimeMillis());
+        return index.size() != before;
+    }
+
+    // Caffeine only weighs entries on write, so re-put the index after it grows
+    private void reweigh(long inboxId) {
+        indexes.asMap().computeIfPresent(inboxId, (id, index) -> index);
+    }
+
+    private String truncateBody(String body) {
+        if (body == null || body.length() <= bodyChars) {
+            return body;
+        }
+        return body.substring(0, bodyChars);
+    }
+
+    // ---- Snapshots ----
+
+    private Path snapshotPath(long inboxId) {
+        return snapshotDir.resolve("inbox-" + inboxId + ".idx");
+    }
+
+    private Optional<InboxIndex> readSnapshot(long inboxId) {
+        if (snapshotDir == null) {
+            return Optional.empty();
+        }
+        Path path = snapshotPath(inboxId);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            return Optional.of(InboxIndex.readFrom(new DataInputStream(new BufferedInputStream(in))));
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable index snapshot {}", path, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeSnapshot(InboxIndex index) {
+        if (snapshotDir == null) {
+            return;
+        }
+        Path path = snapshotPath(index.getInboxId());
+        try {
+            Files.createDirectories(snapshotDir);
+            Path tmp = Files.createTempFile(snapshotDir, "inbox-" + index.getInboxId(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+                index.writeTo(data);
+                data.flush();
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write index snapshot {}", path, e);
+        }
+    }
+}
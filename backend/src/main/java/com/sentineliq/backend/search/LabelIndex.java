@@ -0,0 +1,185 @@
+package com.sentineliq.backend.search;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory label index of one inbox: for each Gmail label, the set of email row IDs carrying it,
+ * as a compressed (Roaring) bitmap.
+ *
+ * - "Labels A and B but not C" is an intersection and a difference of bitmaps, with no SQL joins;
+ *   the cost depends on the compressed size of the sets, not on the number of emails.
+ * - Row IDs of one inbox are mostly increasing runs, which Roaring stores compactly
+ *   (a few bytes per email per label).
+ * - A bitmap of every indexed email makes exclusion-only queries ("NOT SPAM") possible.
+ *
+ * Thread-safe: queries share a read lock, updates take the write lock.
+ */
+public final class LabelIndex {
+
+    /**
+     * Result of a query: how many emails match, and the IDs of one page of them (highest ID first).
+     */
+    public record Match(long total, List<Long> emailIds) {
+    }
+
+    private final long inboxId;
+    private final long loadedAt;
+    private final Map<String, Roaring64Bitmap> byLabel = new HashMap<>();
+    private final Roaring64Bitmap all = new Roaring64Bitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LabelIndex(long inboxId, long loadedAt) {
+        this.inboxId = inboxId;
+        this.loadedAt = loadedAt;
+    }
+
+    public long getInboxId() {
+        return inboxId;
+    }
+
+    /**
+     * When the index was built from the database (epoch millis).
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * Set an email's labels, replacing whatever it had.
+     */
+    public void set(long emailId, Collection<String> labels) {
+        lock.writeLock().lock();
+        try {
+            // An email has a handful of labels and an inbox a few dozen, so a full pass is cheap
+            byLabel.values().forEach(bitmap -> bitmap.removeLong(emailId));
+            for (String label : labels) {
+                byLabel.computeIfAbsent(label, l -> new Roaring64Bitmap()).addLong(emailId);
+            }
+            all.addLong(emailId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compress runs of consecutive IDs after a bulk load.
+     */
+    public void optimize() {
+        lock.writeLock().lock();
+        try {
+            byLabel.values().forEach(Roaring64Bitmap::runOptimize);
+            all.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Emails carrying every label of include and none of exclude, highest ID first.
+     *
+     * @param include  labels an email must have (empty: every email)
+     * @param exclude  labels an email must not have
+     * @param beforeId only IDs below this (Long.MAX_VALUE for the first page)
+     * @param limit    max IDs to return
+     */
+    public Match query(Collection<String> include, Collection<String> exclude, long beforeId, int limit) {
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap result = matching(include, exclude);
+            // Rank finds how many matches lie below beforeId without walking the ones above it,
+            // so a deep page costs the same as the first: limit selects, each a tree lookup
+            long below = beforeId <= 0 ? 0 : result.rankLong(beforeId - 1);
+            List<Long> ids = new ArrayList<>((int) Math.min(limit, below));
+            for (long rank = below - 1; rank >= 0 && ids.size() < limit; rank--) {
+                ids.add(result.select(rank));
+            }
+            return new Match(result.getLongCardinality(), ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of emails per label, by label ID.
+     */
+    public Map<String, Long> counts() {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new TreeMap<>();
+            byLabel.forEach((label, bitmap) -> {
+                if (!bitmap.isEmpty()) {
+                    counts.put(label, bitmap.getLongCardinality());
+                }
+            });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed emails.
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return all.getLongCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough heap footprint, used as the cache weight.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = all.getLongSizeInBytes();
+            for (Map.Entry<String, Roaring64Bitmap> entry : byLabel.entrySet()) {
+                bytes += entry.getValue().getLongSizeInBytes() + 2L * entry.getKey().length() + 64;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private Roaring64Bitmap matching(Collection<String> include, Collection<String> exclude) {
+        Roaring64Bitmap result;
+        if (include.isEmpty()) {
+            result = all.clone();
+        } else {
+            // Start from the smallest set so every intersection step is as cheap as possible
+            List<Roaring64Bitmap> required = new ArrayList<>(include.size());
+            for (String label : include) {
+                Roaring64Bitmap bitmap = byLabel.get(label);
+                if (bitmap == null) {
+                    return new Roaring64Bitmap();
+                }
+                required.add(bitmap);
+            }
+            required.sort((a, b) -> Long.compare(a.getLongCardinality(), b.getLongCardinality()));
+            result = required.get(0).clone();
+            for (int i = 1; i < required.size() && !result.isEmpty(); i++) {
+                result.and(required.get(i));
+            }
+        }
+        for (String label : exclude) {
+            Roaring64Bitmap bitmap = byLabel.get(label);
+            if (bitmap != null && !result.isEmpty()) {
+                result.andNot(bitmap);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,172 @@
+package com.sentineliq.backend.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.cluster.ClusterMessage;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.EmailLabelsChangedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.model.Email;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LabelIndexService keeps an in-memory LabelIndex (label -> bitmap of email IDs) per active inbox.
+ *
+ * - Indexes are built lazily on the first query with one streamed, read-only scan of the
+ *   inbox's (id, label_ids) columns.
+ * - Emails stored by a sync and label changes found in Gmail's history are applied as they
+ *   happen on this node (EmailsIngestedEvent, EmailLabelsChangedEvent).
+ * - Another node's new emails drop the index (it is rebuilt on the next query); label changes
+ *   made elsewhere are picked up when the index is rebuilt after ttl-seconds.
+ * - All loaded indexes share a memory budget; the least recently used ones are evicted first.
+ */
+@Slf4j
+@Service
+public class LabelIndexService {
+
+    private static final String LOAD_SQL = "SELECT id, label_ids FROM emails WHERE email_account_id = ?";
+
+    private final long ttlMillis;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final Cache<Long, LabelIndex> indexes;
+
+    public LabelIndexService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${search.label-index.max-memory-mb:64}") long maxMemoryMb,
+            @Value("${search.label-index.ttl-seconds:300}") long ttlSeconds,
+            @Value("${search.label-index.fetch-size:1000}") int fetchSize) {
+        this.ttlMillis = ttlSeconds * 1000;
+
+        // Postgres only streams results (instead of buffering them all) inside a transaction with a fetch size
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        // Weight is in KB so large budgets fit in an int
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryMb * 1024)
+                .weigher((Long inboxId, LabelIndex index) -> (int) Math.min(Integer.MAX_VALUE, index.estimatedBytes() / 1024 + 1))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "search.label-index");
+    }
+
+    /**
+     * Emails of the inbox carrying every label of include and none of exclude, highest ID first.
+     *
+     * @param inboxId  inbox owned by the caller
+     * @param include  label IDs an email must have (empty: every email)
+     * @param exclude  label IDs an email must not have
+     * @param beforeId only IDs below this (Long.MAX_VALUE for the first page)
+     * @param limit    max IDs to return
+     */
+    public LabelIndex.Match query(long inboxId, Collection<String> include, Collection<String> exclude, long beforeId, int limit) {
+        return index(inboxId).query(include, exclude, beforeId, limit);
+    }
+
+    /**
+     * Number of emails per label in the inbox.
+     */
+    public Map<String, Long> counts(long inboxId) {
+        return index(inboxId).counts();
+    }
+
+    /**
+     * Index newly stored emails, if the inbox's index is loaded.
+     * Unloaded inboxes pick the rows up from the database on their next load.
+     */
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        LabelIndex index = indexes.getIfPresent(event.getInboxId());
+        if (index == null) {
+            return;
+        }
+        for (Email email : event.getEmails()) {
+            if (email.getId() != null) {
+                index.set(email.getId(), split(email.getLabelIds()));
+            }
+        }
+        reweigh(event.getInboxId());
+    }
+
+    @EventListener
+    public void onEmailLabelsChanged(EmailLabelsChangedEvent event) {
+        LabelIndex index = indexes.getIfPresent(event.getInboxId());
+        if (index == null) {
+            return;
+        }
+        event.getLabels().forEach(index::set);
+        reweigh(event.getInboxId());
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        indexes.invalidate(event.getInboxId());
+    }
+
+    // Rows added by another node: rebuild on the next query
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        ClusterMessage message = event.getMessage();
+        if (message.type() != ClusterMessage.Type.EMAILS_UPDATED) {
+            indexes.invalidate(message.inboxId());
+        }
+    }
+
+    @EventListener
+    public void onClusterReconnected(ClusterReconnectedEvent event) {
+        indexes.invalidateAll();
+    }
+
+    private LabelIndex index(long inboxId) {
+        LabelIndex index = indexes.get(inboxId, this::load);
+        if (System.currentTimeMillis() - index.getLoadedAt() >= ttlMillis) {
+            // Only replace the entry we looked at; a concurrent rebuild may already have done it
+            indexes.asMap().remove(inboxId, index);
+            index = indexes.get(inboxId, this::load);
+        }
+        return index;
+    }
+
+    private LabelIndex load(Long inboxId) {
+        long started = System.currentTimeMillis();
+        LabelIndex index = new LabelIndex(inboxId, started);
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(LOAD_SQL,
+                (RowCallbackHandler) rs -> index.set(rs.getLong(1), split(rs.getString(2))),
+                inboxId));
+        index.optimize();
+        log.info("Loaded label index for inbox {} ({} emails, ~{} KB in {} ms)",
+                inboxId, index.size(), index.estimatedBytes() / 1024, System.currentTimeMillis() - started);
+        return index;
+    }
+
+    // Caffeine only weighs entries on write, so re-put the index after it grows
+    private void reweigh(long inboxId) {
+        indexes.asMap().computeIfPresent(inboxId, (id, index) -> index);
+    }
+
+    // label_ids is stored comma-separated
+    static List<String> split(String labelIds) {
+        return labelIds == null || labelIds.isEmpty() ? List.of() : List.of(labelIds.split(","));
+    }
+}
@@ -0,0 +1,58 @@
+package com.sentineliq.backend.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lowercase letter/digit terms for the in-memory search index.
+ * "Jane.Doe@Example.com" -> [jane, doe, example, com].
+ */
+public final class SearchTokenizer {
+
+    static final int MAX_TERM_LENGTH = 32;
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Distinct terms of the text, in order of first appearance (used when indexing).
+     */
+    public static Set<String> distinctTerms(String text, int minLength) {
+        Set<String> terms = new LinkedHashSet<>();
+        tokenize(text, minLength, terms);
+        return terms;
+    }
+
+    /**
+     * All terms of the text, in order (used for queries, where the last one may be a prefix).
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, 1, terms);
+        return terms;
+    }
+
+    private static void tokenize(String text, int minLength, Collection<String> out) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int length = i - start;
+                if (length >= minLength) {
+                    String term = text.substring(start, start + Math.min(length, MAX_TERM_LENGTH));
+                    out.add(term.toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+    }
+}
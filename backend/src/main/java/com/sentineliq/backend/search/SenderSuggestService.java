@@ -0,0 +1,118 @@
+package com.sentineliq.backend.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.cluster.ClusterMessage;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.util.SenderAddressParser.ParsedSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SenderSuggestService answers sender autocomplete from a per-user SenderTrie.
+ *
+ * - A user's trie is built on first use with one GROUP BY over their senders, then kept
+ *   current from EmailsIngestedEvent; deleting an inbox drops it so counts are rebuilt.
+ * - Tries are held in a bounded cache and expire when the user stops typing for a while.
+ */
+@Slf4j
+@Service
+public class SenderSuggestService {
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 50;
+
+    private static final String SENDER_COUNTS_SQL = """
+            SELECT COALESCE(MAX(e.sender_name), s.address) AS display_name, s.address, s.domain, COUNT(*) AS emails
+            FROM emails e
+            JOIN email_accounts a ON a.id = e.email_account_id
+            JOIN senders s ON s.id = e.sender_id
+            WHERE a.user_id = ?
+            GROUP BY s.id, s.address, s.domain
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, SenderTrie> tries;
+
+    public SenderSuggestService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${search.sender-suggest.max-users:10000}") long maxUsers,
+            @Value("${search.sender-suggest.idle-minutes:30}") long idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tries = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tries, "search.sender-suggest");
+    }
+
+    /**
+     * Top senders for the user whose name, address or domain starts with the prefix.
+     */
+    public List<SenderTrie.Suggestion> suggest(long userId, String prefix, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return tries.get(userId, this::build).suggest(prefix, size);
+    }
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        SenderTrie trie = event.getUserId() == null ? null : tries.getIfPresent(event.getUserId());
+        if (trie == null) {
+            return; // Built from the database on next use
+        }
+        Map<String, Long> perSender = new HashMap<>();
+        for (Email email : event.getEmails()) {
+            perSender.merge(email.getSender(), 1L, Long::sum);
+        }
+        perSender.forEach(trie::add);
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        if (event.getUserId() != null) {
+            tries.invalidate(event.getUserId());
+        }
+    }
+
+    // Counts changed on another node; rebuild on next use
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        ClusterMessage message = event.getMessage();
+        if (message.userId() != null && message.type() != ClusterMessage.Type.EMAILS_UPDATED) {
+            tries.invalidate(message.userId());
+        }
+    }
+
+    @EventListener
+    public void onClusterReconnected(ClusterReconnectedEvent event) {
+        tries.invalidateAll();
+    }
+
+    private SenderTrie build(Long userId) {
+        SenderTrie trie = new SenderTrie();
+        jdbcTemplate.query(SENDER_COUNTS_SQL,
+                rs -> {
+                    trie.add(new ParsedSender(rs.getString("display_name"), rs.getString("address"), rs.getString("domain")),
+                            rs.getLong("emails"));
+                },
+                userId);
+        log.info("Built sender index for user {} ({} senders)", userId, trie.size());
+        return trie;
+    }
+}
@@ -0,0 +1,242 @@
+package com.sentineliq.backend.search;
+
+import com.sentineliq.backend.util.SenderAddressParser;
+import com.sentineliq.backend.util.SenderAddressParser.ParsedSender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-user sender dictionary for autocomplete, ranked by how many emails each sender sent.
+ *
+ * - Each sender is reachable by its address, its domain, its full display name and each
+ *   later word of the display name ("doe" finds "Jane Doe"), all normalized.
+ * - Nodes keep their children in sorted parallel arrays (no per-node maps) and remember the
+ *   highest count anywhere below them, so top-k is a best-first walk that stops after k senders
+ *   instead of visiting every completion of the prefix.
+ * - Counts only grow between rebuilds, so updating the subtree maxima is a single pass per key.
+ *
+ * Thread-safe: lookups share a read lock, additions take the write lock.
+ */
+public final class SenderTrie {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * One autocomplete result.
+     */
+    public record Suggestion(String displayName, String address, long count) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+
+    // Senders (indexed by sender id)
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private String[] displayNames = new String[16];
+    private String[] addresses = new String[16];
+    private long[] counts = new long[16];
+    private int senderCount;
+
+    /**
+     * Record emails from a raw "From" value.
+     */
+    public void add(String rawSender, long emails) {
+        add(SenderAddressParser.parse(rawSender), emails);
+    }
+
+    /**
+     * Record emails from an already parsed sender (e.g. a row of the senders table).
+     */
+    public void add(ParsedSender sender, long emails) {
+        String identity = !sender.address().isEmpty() ? sender.address() : SenderAddressParser.normalize(sender.displayName());
+        if (identity.isEmpty() || emails <= 0) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer id = idsByKey.get(identity);
+            if (id == null) {
+                id = senderCount++;
+                ensureCapacity(senderCount);
+                idsByKey.put(identity, id);
+                displayNames[id] = sender.displayName();
+                addresses[id] = sender.address();
+                counts[id] = emails;
+                for (String key : keysOf(sender)) {
+                    insert(key, id, emails);
+                }
+            } else {
+                counts[id] += emails;
+                // A newer display name for the same address wins (people rename themselves)
+                if (!sender.displayName().equals(sender.address())) {
+                    displayNames[id] = sender.displayName();
+                }
+                for (String key : keysOf(sender)) {
+                    insert(key, id, counts[id]);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return senderCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Most frequent senders matching the prefix, best first.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = SenderAddressParser.normalize(prefix);
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            // Best-first: nodes are ranked by their subtree maximum, senders by their own count
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(node.maxCount, node, -1));
+            Set<Integer> seen = new LinkedHashSet<>();
+            while (!queue.isEmpty() && seen.size() < limit) {
+                Candidate next = queue.poll();
+                if (next.node == null) {
+                    seen.add(next.senderId);
+                    continue;
+                }
+                for (int id : next.node.senderIds) {
+                    if (!seen.contains(id)) {
+                        queue.add(new Candidate(counts[id], null, id));
+                    }
+                }
+                for (Node child : next.node.children) {
+                    queue.add(new Candidate(child.maxCount, child, -1));
+                }
+            }
+
+            List<Suggestion> suggestions = new ArrayList<>(seen.size());
+            for (int id : seen) {
+                suggestions.add(new Suggestion(displayNames[id], addresses[id], counts[id]));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---- Internals (callers hold the write lock) ----
+
+    private static Set<String> keysOf(ParsedSender sender) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(sender.address());
+        keys.add(sender.domain());
+        String name = SenderAddressParser.normalize(sender.displayName());
+        keys.add(name);
+        for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+            keys.add(name.substring(i + 1).trim());
+        }
+        keys.remove("");
+        return keys;
+    }
+
+    private void insert(String key, int senderId, long count) {
+        Node node = root;
+        node.maxCount = Math.max(node.maxCount, count);
+        int length = Math.min(key.length(), MAX_KEY_LENGTH);
+        for (int i = 0; i < length; i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.maxCount = Math.max(node.maxCount, count);
+        }
+        node.addSender(senderId);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > counts.length) {
+            int newLength = Math.max(needed, counts.length * 2);
+            displayNames = Arrays.copyOf(displayNames, newLength);
+            addresses = Arrays.copyOf(addresses, newLength);
+            counts = Arrays.copyOf(counts, newLength);
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_SENDERS = new int[0];
+
+        char[] labels = NO_LABELS;  // sorted
+        Node[] children = NO_CHILDREN;
+        int[] senderIds = NO_SENDERS;
+        long maxCount;
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(labels, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int pos = Arrays.binarySearch(labels, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            int insertAt = -pos - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            Node child = new Node();
+            newLabels[insertAt] = c;
+            newChildren[insertAt] = child;
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+        void addSender(int senderId) {
+            for (int id : senderIds) {
+                if (id == senderId) {
+                    return;
+                }
+            }
+            senderIds = Arrays.copyOf(senderIds, senderIds.length + 1);
+            senderIds[senderIds.length - 1] = senderId;
+        }
+    }
+
+    private record Candidate(long priority, Node node, int senderId) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            int byPriority = Long.compare(other.priority, priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            // Senders before nodes with the same priority, so ties finish early
+            return Boolean.compare(node != null, other.node != null);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sentineliq.backend.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects login/signup requests from clients over their per-IP limit before the
+ * request reaches the controller (no body parsing, no DB, no hashing).
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private final AuthRateLimiter authRateLimiter;
+
+    public AuthRateLimitFilter(AuthRateLimiter authRateLimiter) {
+        this.authRateLimiter = authRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@org.springframework.lang.NonNull HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod())
+                || !("/api/auth/login".equals(path) || "/api/auth/signup".equals(path));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        if (!authRateLimiter.tryAcquireForClient(request.getRemoteAddr())) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(authRateLimiter.getWindowSeconds()));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"message\": \"Too many attempts, please try again later\"}");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.sentineliq.backend.security;
+
+import com.sentineliq.backend.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Throttles login and signup attempts per client IP and per username.
+ *
+ * - The IP check runs in AuthRateLimitFilter, before the request body is even parsed.
+ * - The username check runs at the top of the login/signup handlers, before any
+ *   database lookup or password hashing.
+ *
+ * Metrics: auth.ratelimit.rejected{scope=ip|username} and auth.ratelimit.tracked.keys{scope=...}.
+ */
+@Slf4j
+@Component
+public class AuthRateLimiter {
+
+    private final SlidingWindowRateLimiter ipLimiter;
+    private final SlidingWindowRateLimiter usernameLimiter;
+    private final long windowSeconds;
+
+    private final Counter ipRejections;
+    private final Counter usernameRejections;
+
+    public AuthRateLimiter(
+            @Value("${security.ratelimit.auth.ip-limit:30}") int ipLimit,
+            @Value("${security.ratelimit.auth.username-limit:10}") int usernameLimit,
+            @Value("${security.ratelimit.auth.window-seconds:60}") long windowSeconds,
+            @Value("${security.ratelimit.auth.max-keys:100000}") int maxKeys,
+            MeterRegistry meterRegistry) {
+        this.windowSeconds = windowSeconds;
+        this.ipLimiter = new SlidingWindowRateLimiter(ipLimit, windowSeconds * 1000, maxKeys);
+        this.usernameLimiter = new SlidingWindowRateLimiter(usernameLimit, windowSeconds * 1000, maxKeys);
+
+        this.ipRejections = Counter.builder("auth.ratelimit.rejected")
+                .tag("scope", "ip")
+                .description("Login/signup attempts rejected by the per-IP limit")
+                .register(meterRegistry);
+        this.usernameRejections = Counter.builder("auth.ratelimit.rejected")
+                .tag("scope", "username")
+                .description("Login/signup attempts rejected by the per-username limit")
+                .register(meterRegistry);
+        Gauge.builder("auth.ratelimit.tracked.keys", ipLimiter, SlidingWindowRateLimiter::trackedKeys)
+                .tag("scope", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.ratelimit.tracked.keys", usernameLimiter, SlidingWindowRateLimiter::trackedKeys)
+                .tag("scope", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record an attempt from the given client address.
+     *
+     * @return false if the client is over its limit and the request should be rejected
+     */
+    public boolean tryAcquireForClient(String clientAddress) {
+        if (clientAddress == null || ipLimiter.tryAcquire(clientAddress)) {
+            return true;
+        }
+        ipRejections.increment();
+        log.warn("🚫 Auth rate limit hit for client {}", clientAddress);
+        return false;
+    }
+
+    /**
+     * Record an attempt for the given username, throwing if it is over its limit.
+     */
+    public void checkUsername(String username) {
+        if (username == null || username.isBlank()) {
+            return;
+        }
+        if (!usernameLimiter.tryAcquire(username.trim().toLowerCase(Locale.ROOT))) {
+            usernameRejections.increment();
+            log.warn("🚫 Auth rate limit hit for username {}", username);
+            throw new RateLimitExceededException("Too many attempts, please try again later", windowSeconds);
+        }
+    }
+
+    /**
+     * Drop idle keys from both limiters off the request path, freeing room for new clients.
+     */
+    @Scheduled(fixedDelayString = "${security.ratelimit.auth.sweep-interval-ms:60000}")
+    public void sweepIdleKeys() {
+        ipLimiter.sweep();
+        usernameLimiter.sweep();
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+}
@@ -1,6 +1,7 @@
 package com.sentineliq.backend.security;
 
 import com.sentineliq.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -44,9 +45,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.warn("⚠️ No access_token cookie found in request to {}", request.getRequestURI());
         } else {
             try {
-                if (jwtUtil.validateToken(token) != null) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    String role = jwtUtil.getRoleFromToken(token);
+                // Validate once and read everything from the same claims
+                Claims claims = jwtUtil.validateToken(token);
+                if (claims != null) {
+                    String username = claims.get("username", String.class);
+                    String role = claims.get("role", String.class);
 
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(username, null, jwtUtil.getAuthorities(role));
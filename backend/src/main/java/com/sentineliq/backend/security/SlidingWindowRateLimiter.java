@@ -0,0 +1,124 @@
+package com.sentineliq.backend.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free sliding-window rate limiter keyed by an arbitrary string (IP, username...).
+ *
+ * Each key owns a single AtomicLong packing [window index : 32][previous count : 16][current count : 16].
+ * The allowed rate is estimated with the usual sliding-window-counter approximation:
+ *
+ *     previous * (time left in current window / window) + current
+ *
+ * so an acquire is one CAS loop with no locks and no allocation once the key exists.
+ *
+ * Memory is bounded: the owner calls sweep() on a schedule to drop idle keys (nothing in the
+ * current or previous window), and once maxKeys is reached attempts from keys that are not yet
+ * tracked are rejected instead of growing the map. Keys already tracked keep their own counters,
+ * so a flood of distinct keys never locks out a client that is under its limit.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int MAX_COUNT = 0xFFFF;
+
+    private final int limit;
+    private final long windowMillis;
+    private final int maxKeys;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    public SlidingWindowRateLimiter(int limit, long windowMillis, int maxKeys) {
+        if (limit < 1 || limit >= MAX_COUNT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + (MAX_COUNT - 1));
+        }
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Record one attempt for the key.
+     *
+     * @return true if the attempt is within the limit, false if it should be rejected
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.currentTimeMillis());
+    }
+
+    boolean tryAcquire(String key, long nowMillis) {
+        long windowIndex = (nowMillis / windowMillis) & 0xFFFFFFFFL;
+        long elapsedInWindow = nowMillis % windowMillis;
+
+        AtomicLong state = counterFor(key);
+        if (state == null) {
+            return false;
+        }
+
+        for (;;) {
+            long packed = state.get();
+            long packedIndex = packed >>> 32;
+            int previous = (int) ((packed >>> 16) & MAX_COUNT);
+            int current = (int) (packed & MAX_COUNT);
+
+            // Roll the window forward: current becomes previous, or both reset after a gap
+            if (packedIndex != windowIndex) {
+                previous = packedIndex == windowIndex - 1 ? current : 0;
+                current = 0;
+            }
+
+            double weighted = previous * ((double) (windowMillis - elapsedInWindow) / windowMillis) + current;
+            if (weighted + 1 > limit) {
+                return false;
+            }
+
+            long next = (windowIndex << 32) | ((long) previous << 16) | Math.min(current + 1, MAX_COUNT);
+            if (state.compareAndSet(packed, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Number of keys currently tracked.
+     */
+    public int trackedKeys() {
+        return counters.size();
+    }
+
+    // Null when the map is full and the key is new: only that key is rejected until a sweep frees room
+    private AtomicLong counterFor(String key) {
+        AtomicLong existing = counters.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (counters.size() >= maxKeys) {
+            return null;
+        }
+        return counters.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    /**
+     * Drop keys with no attempts in the current or previous window: they no longer affect any decision.
+     * Meant to be called from a scheduled task, never from the request path.
+     */
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    void sweep(long nowMillis) {
+        long windowIndex = (nowMillis / windowMillis) & 0xFFFFFFFFL;
+        Iterator<AtomicLong> it = counters.values().iterator();
+        while (it.hasNext()) {
+            long packedIndex = it.next().get() >>> 32;
+            if (packedIndex < windowIndex - 1) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.BulkEmailRequest;
+import com.sentineliq.backend.dto.BulkEmailResult;
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailStateRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * BulkEmailService applies one triage action to many emails at once.
+ *
+ * - Ownership of every ID is checked with a single query (no bodies loaded); if any ID is not
+ *   in the caller's inboxes, nothing is changed.
+ * - The change is one set-based UPDATE that skips rows already in the target state.
+ * - Listeners (streams, caches, other nodes) get one EmailsUpdatedEvent per affected inbox.
+ */
+@Slf4j
+@Service
+public class BulkEmailService {
+
+    private final EmailRepository emailRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxIds;
+
+    public BulkEmailService(
+            EmailRepository emailRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.bulk.max-ids:500}") int maxIds) {
+        this.emailRepository = emailRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Apply the request's action to its emails.
+     *
+     * @param inboxIds inboxes owned by the caller
+     * @param request  IDs and action
+     * @return the outcome, or empty if some IDs don't belong to the caller (nothing was changed)
+     * @throws IllegalArgumentException if the request is empty, too large or has no action
+     */
+    public Optional<BulkEmailResult> apply(Collection<Long> inboxIds, BulkEmailRequest request) {
+        if (request == null || request.getAction() == null) {
+            throw new IllegalArgumentException("Missing action");
+        }
+        Set<Long> ids = request.getIds() == null
+                ? Set.of()
+                : request.getIds().stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Missing ids");
+        }
+        if (ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids per request");
+        }
+        if (inboxIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<EmailStateRow> rows = emailRepository.findStates(ids, inboxIds);
+        if (rows.size() != ids.size()) {
+            return Optional.empty();
+        }
+
+        boolean isSpam = request.getAction() == BulkEmailRequest.Action.MARK_SPAM;
+        List<EmailStateRow> changing = rows.stream()
+                .filter(row -> !Boolean.valueOf(isSpam).equals(row.getIsSpam()))
+                .toList();
+        if (changing.isEmpty()) {
+            return Optional.of(BulkEmailResult.builder().requested(ids.size()).updated(0).build());
+        }
+
+        int updated = emailRepository.updateSpamFlag(changing.stream().map(EmailStateRow::getId).toList(), inboxIds, isSpam);
+        log.info("🏷️ Bulk {} on {} emails ({} changed)", request.getAction(), ids.size(), updated);
+
+        // One event per inbox, carrying the new state
+        Map<Long, List<EmailSummaryDto>> byInbox = new LinkedHashMap<>();
+        for (EmailStateRow row : changing) {
+            byInbox.computeIfAbsent(row.getInboxId(), id -> new ArrayList<>()).add(toSummary(row, isSpam));
+        }
+        byInbox.forEach((inboxId, emails) -> eventPublisher.publishEvent(new EmailsUpdatedEvent(inboxId, emails)));
+
+        return Optional.of(BulkEmailResult.builder().requested(ids.size()).updated(updated).build());
+    }
+
+    private static EmailSummaryDto toSummary(EmailStateRow row, boolean isSpam) {
+        EmailSummaryDto summary = EmailSummaryDto.from(row);
+        summary.setIsSpam(isSpam);
+        return summary;
+    }
+}
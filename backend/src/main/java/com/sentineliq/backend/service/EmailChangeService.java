@@ -0,0 +1,194 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailChanges;
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailTombstone;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * EmailChangeService answers "what changed in this inbox since cursor X".
+ *
+ * - Every insert, spam/trust change and delete of an email records its transaction ID and the
+ *   next value of one shared sequence (change_xid, change_seq on emails and email_tombstones),
+ *   maintained by triggers.
+ * - Changes are read in (change_xid, change_seq) order, and only from transactions below the
+ *   snapshot xmin: those have all finished, and anything committing later has a higher
+ *   transaction ID, so it lands after the cursor instead of behind it. A long-running
+ *   transaction delays changes until it ends; it never loses them.
+ * - A cursor is that (transaction, sequence) position plus the time it was issued, signed with
+ *   an HMAC so clients can't edit it. Tombstones are kept for tombstone-retention-days, so an
+ *   older cursor may have missed deletions and the client is told to resync instead.
+ * - An empty poll is the xmin lookup plus two index range scans on (email_account_id, change_xid, change_seq).
+ */
+@Slf4j
+@Service
+public class EmailChangeService {
+
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 1000;
+
+    private final EmailRepository emailRepository;
+    private final EmailTombstoneRepository tombstoneRepository;
+    private final Duration tombstoneRetention;
+    private final SecretKeySpec cursorKey;
+
+    public EmailChangeService(
+            EmailRepository emailRepository,
+            EmailTombstoneRepository tombstoneRepository,
+            @Value("${app.changes.tombstone-retention-days:30}") long retentionDays,
+            @Value("${app.changes.cursor-secret:${jwt.secret}}") String cursorSecret) {
+        this.emailRepository = emailRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.tombstoneRetention = Duration.ofDays(retentionDays);
+        this.cursorKey = new SecretKeySpec(cursorSecret.trim().getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * Changes to the inbox after the cursor, oldest first.
+     * Without a cursor, returns no rows and just the current cursor (call before loading the inbox).
+     *
+     * @param inboxId inbox owned by the caller
+     * @param since   cursor from a previous response, or null
+     * @param limit   max changes to return (clamped to 1..MAX_LIMIT)
+     */
+    public EmailChanges changesSince(Long inboxId, String since, Integer limit) {
+        long now = System.currentTimeMillis();
+        long watermark = emailRepository.findChangeWatermark();
+        if (since == null || since.isBlank()) {
+            // Everything below the watermark is already visible to the caller's next read
+            return emptyChanges(new Cursor(watermark, 0, now), false);
+        }
+
+        Cursor cursor = decode(since);
+        if (now - cursor.issuedAt() > tombstoneRetention.toMillis()) {
+            return emptyChanges(cursor, true);
+        }
+
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        List<Email> emails = emailRepository.findChangedAfter(
+                inboxId, cursor.xid(), cursor.seq(), watermark, firstRows);
+        List<EmailTombstone> tombstones = tombstoneRepository.findChangedAfter(
+                inboxId, cursor.xid(), cursor.seq(), watermark, firstRows);
+
+        // Merge both streams by (transaction, sequence) and stop at the page size
+        List<EmailSummaryDto> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long xid = cursor.xid();
+        long seq = cursor.seq();
+        int e = 0;
+        int t = 0;
+        while (changed.size() + deleted.size() < pageSize && (e < emails.size() || t < tombstones.size())) {
+            boolean takeEmail = t >= tombstones.size()
+                    || (e < emails.size() && comparePositions(emails.get(e), tombstones.get(t)) < 0);
+            if (takeEmail) {
+                Email email = emails.get(e++);
+                changed.add(EmailSummaryDto.from(email));
+                xid = email.getChangeXid();
+                seq = email.getChangeSeq();
+            } else {
+                EmailTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getEmailId());
+                xid = tombstone.getChangeXid();
+                seq = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = e < emails.size() || t < tombstones.size();
+
+        // Unreturned changes of a cut-off page are older than now, so the cursor keeps its original age
+        long issuedAt = hasMore ? cursor.issuedAt() : now;
+        return EmailChanges.builder()
+                .changed(changed)
+                .deleted(deleted)
+                .cursor(encode(new Cursor(xid, seq, issuedAt)))
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Tombstones of a deleted inbox are of no use to anyone.
+     */
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        tombstoneRepository.deleteByInbox(event.getInboxId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.purge-interval-ms:3600000}")
+    public void purgeOldTombstones() {
+        int purged = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        if (purged > 0) {
+            log.info("Purged {} email tombstones", purged);
+        }
+    }
+
+    private EmailChanges emptyChanges(Cursor cursor, boolean resyncRequired) {
+        return EmailChanges.builder()
+                .changed(List.of())
+                .deleted(List.of())
+                .cursor(encode(cursor))
+                .resyncRequired(resyncRequired)
+                .build();
+    }
+
+    private static int comparePositions(Email email, EmailTombstone tombstone) {
+        int byXid = Long.compare(email.getChangeXid(), tombstone.getChangeXid());
+        return byXid != 0 ? byXid : Long.compare(email.getChangeSeq(), tombstone.getChangeSeq());
+    }
+
+    String encode(Cursor cursor) {
+        String raw = cursor.xid() + ":" + cursor.seq() + ":" + cursor.issuedAt();
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        return base64.encodeToString(raw.getBytes(StandardCharsets.UTF_8)) + "." + base64.encodeToString(sign(raw));
+    }
+
+    Cursor decode(String cursor) {
+        try {
+            int dot = cursor.indexOf('.');
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.substring(0, dot)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(cursor.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(raw), signature)) {
+                throw new IllegalArgumentException("Invalid changes cursor");
+            }
+            String[] parts = raw.split(":");
+            return new Cursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid changes cursor");
+        }
+    }
+
+    private byte[] sign(String raw) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(cursorKey);
+            return mac.doFinal(raw.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    /**
+     * Position in the change stream (writing transaction, then sequence) and when it was handed out.
+     */
+    record Cursor(long xid, long seq, long issuedAt) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.sentineliq.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * EmailJsonRenderer writes email rows straight from JDBC into a Jackson JsonGenerator.
+ *
+ * - No entities, persistence-context snapshots, DTO copies or reflective serialization:
+ *   each column is read once and written once.
+ * - Field names are pre-encoded (SerializedString), so they are copied as bytes per row.
+ * - Output is the same JSON as serializing EmailDto with the application ObjectMapper
+ *   (same field names and order, ISO dates, nulls included), so clients see no difference.
+ * - Callers can ask for a subset of fields (sparse fieldsets); only the columns those fields
+ *   need are selected, so views without bodies never read the body columns.
+ */
+@Service
+public class EmailJsonRenderer {
+
+    /**
+     * JSON fields of an email, in EmailDto order, with their names pre-encoded and the
+     * columns they are read from.
+     */
+    public enum Field {
+        ID("id", "e.id"),
+        SUBJECT("subject", "e.subject"),
+        SENDER("sender", "e.sender_name, s.address"),
+        PLAIN_TEXT_BODY("plainTextBody", "e.plain_text_body"),
+        HTML_BODY("htmlBody", "e.html_body"),
+        RECEIVED_AT("receivedAt", "e.received_at"),
+        IS_SPAM("isSpam", "e.is_spam"),
+        TRUST_SCORE("trustScore", "e.trust_score");
+
+        public static final Set<Field> ALL = Collections.unmodifiableSet(EnumSet.allOf(Field.class));
+
+        final SerializedString jsonName;
+        final String columns;
+
+        Field(String name, String columns) {
+            this.jsonName = new SerializedString(name);
+            this.columns = columns;
+        }
+
+        /**
+         * Parse a fields parameter ("id,subject,receivedAt"). The ID is always included.
+         *
+         * @param fields comma-separated JSON field names; null or blank means every field
+         * @return the requested fields
+         * @throws IllegalArgumentException on an unknown field name
+         */
+        public static Set<Field> parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                return ALL;
+            }
+            EnumSet<Field> parsed = EnumSet.of(ID);
+            for (String name : fields.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                parsed.add(Arrays.stream(values())
+                        .filter(field -> field.jsonName.getValue().equals(trimmed))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown field: " + trimmed)));
+            }
+            return parsed;
+        }
+    }
+
+    private static final String INBOX_WHERE = """
+            WHERE e.email_account_id = ?
+            ORDER BY e.received_at DESC, e.id DESC
+            """;
+
+    private static final String INBOX_DOMAIN_WHERE = """
+            WHERE e.email_account_id = ? AND s.domain = ?
+            ORDER BY e.received_at DESC, e.id DESC
+            """;
+
+    private static final String EXPORT_WHERE = """
+            WHERE e.email_account_id = ?
+            ORDER BY e.id
+            """;
+
+    private static final String SINGLE_WHERE = "WHERE e.id = ?\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+
+    public EmailJsonRenderer(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.export.fetch-size:500}") int fetchSize) {
+        // Postgres only streams results (instead of buffering them all) inside a transaction with a fetch size
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Write an inbox's emails, newest first, as a JSON array.
+     *
+     * @param json     target generator
+     * @param inboxId  inbox owned by the caller
+     * @param domain   optional registrable sender domain
+     * @param pageable page to write (Pageable.unpaged() for everything)
+     * @param fields   fields to write (Field.ALL for the full EmailDto)
+     * @return number of emails written
+     */
+    public long writeArray(JsonGenerator json, Long inboxId, String domain, Pageable pageable, Set<Field> fields) throws IOException {
+        List<Object> args = new ArrayList<>(4);
+        args.add(inboxId);
+        String sql = select(fields, domain != null) + (domain == null ? INBOX_WHERE : INBOX_DOMAIN_WHERE);
+        if (domain != null) {
+            args.add(domain);
+        }
+        if (pageable.isPaged()) {
+            sql += "LIMIT ? OFFSET ?";
+            args.add(pageable.getPageSize());
+            args.add(pageable.getOffset());
+        }
+
+        json.writeStartArray();
+        long written;
+        try {
+            written = query(sql, json, fields, args.toArray());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        json.writeEndArray();
+        return written;
+    }
+
+    /**
+     * Write one email as a JSON object.
+     *
+     * @param json    target generator
+     * @param emailId email whose inbox the caller owns
+     * @param fields  fields to write (Field.ALL for the full EmailDto)
+     * @return false if the email does not exist (nothing was written)
+     */
+    public boolean writeOne(JsonGenerator json, Long emailId, Set<Field> fields) throws IOException {
+        try {
+            return query(select(fields, false) + SINGLE_WHERE, json, fields, emailId) > 0;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write every email of an inbox, oldest first, one JSON object per line (NDJSON).
+     * Rows are streamed from a server-side cursor, so memory does not grow with the inbox.
+     *
+     * @param json    target generator (its root value separator is replaced by a newline)
+     * @param inboxId inbox owned by the caller
+     * @return number of emails written
+     */
+    public long writeLines(JsonGenerator json, Long inboxId) throws IOException {
+        json.setRootValueSeparator(new SerializedString("\n"));
+        Long written;
+        try {
+            written = readOnlyTx.execute(status -> query(select(Field.ALL, false) + EXPORT_WHERE, json, Field.ALL, inboxId));
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Usually the client went away
+        }
+        if (written > 0) {
+            json.writeRaw('\n');
+        }
+        return written;
+    }
+
+    // SELECT list for the fields, in Field order; senders are only joined when needed
+    private static String select(Set<Field> fields, boolean joinSenders) {
+        StringJoiner columns = new StringJoiner(", ", "SELECT ", "\nFROM emails e\n");
+        for (Field field : fields) {
+            columns.add(field.columns);
+        }
+        String sql = columns.toString();
+        if (joinSenders || fields.contains(Field.SENDER)) {
+            sql += "LEFT JOIN senders s ON s.id = e.sender_id\n";
+        }
+        return sql;
+    }
+
+    // Write errors surface as UncheckedIOException from inside the row callback
+    private long query(String sql, JsonGenerator json, Set<Field> fields, Object... args) {
+        long[] count = {0};
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            writeRow(json, rs, fields);
+            count[0]++;
+        }, args);
+        return count[0];
+    }
+
+    private static void writeRow(JsonGenerator json, ResultSet rs, Set<Field> fields) throws SQLException {
+        try {
+            json.writeStartObject();
+            // Columns come in Field order, SENDER taking two
+            int column = 1;
+            for (Field field : fields) {
+                json.writeFieldName(field.jsonName);
+                switch (field) {
+                    case ID -> json.writeNumber(rs.getLong(column++));
+                    case SUBJECT, PLAIN_TEXT_BODY, HTML_BODY -> json.writeString(rs.getString(column++));
+                    case SENDER -> {
+                        // Same rule as Sender.format()
+                        String displayName = rs.getString(column++);
+                        String address = rs.getString(column++);
+                        if (displayName == null || displayName.isEmpty() || displayName.equals(address)) {
+                            json.writeString(address);
+                        } else {
+                            json.writeString(displayName + " <" + address + ">");
+                        }
+                    }
+                    case RECEIVED_AT -> {
+                        LocalDateTime receivedAt = rs.getObject(column++, LocalDateTime.class);
+                        if (receivedAt == null) {
+                            json.writeNull();
+                        } else {
+                            json.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(receivedAt));
+                        }
+                    }
+                    case IS_SPAM -> {
+                        boolean isSpam = rs.getBoolean(column++);
+                        if (rs.wasNull()) {
+                            json.writeNull();
+                        } else {
+                            json.writeBoolean(isSpam);
+                        }
+                    }
+                    case TRUST_SCORE -> {
+                        int trustScore = rs.getInt(column++);
+                        if (rs.wasNull()) {
+                            json.writeNull();
+                        } else {
+                            json.writeNumber(trustScore);
+                        }
+                    }
+                }
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
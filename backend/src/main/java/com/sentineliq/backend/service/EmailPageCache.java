@@ -0,0 +1,59 @@
+package com.sentineliq.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.util.WireFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * EmailPageCache holds serialized email listing responses (JSON, Smile or CBOR).
+ *
+ * - Keys include the inbox's sync version, so a sync makes old entries unreachable
+ *   instead of requiring invalidation; they age out under the byte budget.
+ * - Only first pages are cached, since that's what the dashboard polls.
+ */
+@Component
+public class EmailPageCache {
+
+    /**
+     * One cacheable listing: inbox, its version, the request parameters (including the requested
+     * fields) and the response format.
+     */
+    public record PageKey(long inboxId, long version, String domain, Integer size,
+                          Set<EmailJsonRenderer.Field> fields, WireFormat format) {
+
+        /**
+         * Quoted ETag for this listing. Changes whenever the version or parameters do.
+         */
+        public String etag() {
+            return "\"" + inboxId + "-" + version + "-" + Integer.toHexString(Objects.hash(domain, size, fields.toString(), format.name())) + "\"";
+        }
+    }
+
+    private final Cache<PageKey, byte[]> pages;
+
+    public EmailPageCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.email-pages.max-mb:64}") long maxMegabytes) {
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((PageKey key, byte[] body) -> body.length + 64)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "email-pages");
+    }
+
+    /**
+     * Cached body for the key, computing and storing it on a miss.
+     */
+    public byte[] get(PageKey key, Supplier<byte[]> render) {
+        return pages.get(key, k -> render.get());
+    }
+}
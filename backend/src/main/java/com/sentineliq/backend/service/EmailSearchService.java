@@ -0,0 +1,109 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSearchHit;
+import com.sentineliq.backend.dto.EmailSearchPage;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailSearchRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * EmailSearchService runs ranked full-text searches over a user's inboxes.
+ *
+ * - Matching and ranking happen in PostgreSQL (tsvector + GIN index, see db/postgres-schema.sql).
+ * - Pagination is keyset-based on (rank, id); the cursor is an opaque base64 string.
+ */
+@Slf4j
+@Service
+public class EmailSearchService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final EmailRepository emailRepository;
+
+    public EmailSearchService(EmailRepository emailRepository) {
+        this.emailRepository = emailRepository;
+    }
+
+    /**
+     * Search the given inboxes.
+     *
+     * @param inboxIds inboxes owned by the caller
+     * @param query    search text
+     * @param cursor   nextCursor from the previous page, or null for the first page
+     * @param limit    requested page size (clamped to 1..MAX_LIMIT)
+     * @return one page of results, best match first
+     */
+    public EmailSearchPage search(Collection<Long> inboxIds, String query, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (inboxIds.isEmpty() || query == null || query.isBlank()) {
+            return EmailSearchPage.builder().results(List.of()).build();
+        }
+
+        Cursor after = cursor == null || cursor.isBlank() ? Cursor.FIRST : Cursor.decode(cursor);
+
+        // Fetch one extra row to know whether there is a next page
+        List<EmailSearchRow> rows = emailRepository.search(
+                inboxIds, query.trim(), after.rank(), after.id(), pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<EmailSearchHit> hits = rows.stream()
+                .limit(pageSize)
+                .map(EmailSearchService::toHit)
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            EmailSearchHit last = hits.get(hits.size() - 1);
+            nextCursor = new Cursor(last.getRank(), last.getId()).encode();
+        }
+
+        return EmailSearchPage.builder()
+                .results(hits)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static EmailSearchHit toHit(EmailSearchRow row) {
+        return EmailSearchHit.builder()
+                .id(row.getId())
+                .inboxId(row.getInboxId())
+                .subject(row.getSubject())
+                .sender(row.getSender())
+                .receivedAt(row.getReceivedAt())
+                .isSpam(row.getIsSpam())
+                .trustScore(row.getTrustScore())
+                .rank(row.getRank())
+                .snippet(row.getSnippet())
+                .build();
+    }
+
+    /**
+     * Keyset position: rank and id of the last row already returned.
+     */
+    record Cursor(float rank, long id) {
+
+        static final Cursor FIRST = new Cursor(Float.POSITIVE_INFINITY, Long.MAX_VALUE);
+
+        String encode() {
+            String raw = Float.toString(rank) + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf(':');
+                return new Cursor(Float.parseFloat(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+        }
+    }
+}
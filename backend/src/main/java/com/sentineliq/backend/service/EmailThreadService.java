@@ -0,0 +1,203 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.EmailThreadPage;
+import com.sentineliq.backend.dto.EmailThreadSummary;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailThread;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.ThreadVerdictRow;
+import com.sentineliq.backend.repository.EmailThreadRepository;
+import com.sentineliq.backend.util.SenderAddressParser;
+import com.sentineliq.backend.util.SenderAddressParser.ParsedSender;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EmailThreadService keeps one summary row per Gmail conversation (email_threads) and lists them.
+ *
+ * - Summaries are updated incrementally as a sync stores messages: the thread's row is locked,
+ *   the new messages are folded in (count, latest message, participants, worst verdict) and
+ *   it is written back. Ingest cost depends on the messages stored, not on thread size.
+ * - When messages are re-scored, only the affected threads' verdicts are recomputed.
+ * - Listing is a keyset scan of the (email_account_id, latest_at, id) index of the summary
+ *   table, so it never aggregates over emails.
+ */
+@Slf4j
+@Service
+public class EmailThreadService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    // Enough to show "Jane, Bob and 8 others"; keeps the row small for mailing-list threads
+    static final int MAX_PARTICIPANTS = 10;
+
+    private final EmailThreadRepository threadRepository;
+    private final EmailRepository emailRepository;
+    private final TransactionTemplate tx;
+
+    public EmailThreadService(
+            EmailThreadRepository threadRepository,
+            EmailRepository emailRepository,
+            PlatformTransactionManager transactionManager) {
+        this.threadRepository = threadRepository;
+        this.emailRepository = emailRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * One page of an inbox's threads, most recently active first.
+     *
+     * @param inboxId inbox owned by the caller
+     * @param cursor  nextCursor from the previous page, or null for the first page
+     * @param limit   requested page size (clamped to 1..MAX_LIMIT)
+     */
+    public EmailThreadPage page(Long inboxId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        // Same (timestamp, id) keyset cursor as the unified inbox
+        UnifiedInboxService.Cursor after = cursor == null || cursor.isBlank()
+                ? UnifiedInboxService.Cursor.FIRST
+                : UnifiedInboxService.Cursor.decode(cursor);
+
+        List<EmailThread> rows = threadRepository.findPageBefore(
+                inboxId, after.receivedAt(), after.id(), PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<EmailThreadSummary> threads = rows.stream()
+                .limit(pageSize)
+                .map(EmailThreadSummary::from)
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            EmailThreadSummary last = threads.get(threads.size() - 1);
+            nextCursor = new UnifiedInboxService.Cursor(last.getLatestAt(), last.getId()).encode();
+        }
+
+        return EmailThreadPage.builder()
+                .threads(threads)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        // Group by thread so each thread row is locked and written once per sync
+        Map<String, List<Email>> byThread = new LinkedHashMap<>();
+        for (Email email : event.getEmails()) {
+            if (email.getThreadId() != null && email.getReceivedAt() != null) {
+                byThread.computeIfAbsent(email.getThreadId(), id -> new ArrayList<>()).add(email);
+            }
+        }
+        byThread.forEach((threadId, emails) -> record(event.getInboxId(), threadId, emails));
+    }
+
+    // Re-scored messages may change their thread's worst verdict
+    @EventListener
+    public void onEmailsUpdated(EmailsUpdatedEvent event) {
+        List<Long> ids = event.getEmails().stream().map(EmailSummaryDto::getId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (String threadId : emailRepository.findThreadIds(event.getInboxId(), ids)) {
+            ThreadVerdictRow verdict = emailRepository.findThreadVerdict(event.getInboxId(), threadId);
+            threadRepository.updateVerdict(event.getInboxId(), threadId,
+                    verdict.getSpamCount().intValue(), verdict.getMinTrustScore());
+        }
+    }
+
+    /**
+     * Summaries of a deleted inbox are of no use to anyone.
+     */
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        threadRepository.deleteByInbox(event.getInboxId());
+    }
+
+    // Package-private for tests
+    void record(Long inboxId, String threadId, List<Email> emails) {
+        try {
+            tx.executeWithoutResult(status -> fold(inboxId, threadId, emails));
+        } catch (DataIntegrityViolationException e) {
+            // Another sync created the thread first; its row exists now, so fold into that
+            log.debug("Thread {} of inbox ID {} created concurrently, retrying", threadId, inboxId);
+            tx.executeWithoutResult(status -> fold(inboxId, threadId, emails));
+        }
+    }
+
+    private void fold(Long inboxId, String threadId, List<Email> emails) {
+        EmailThread thread = threadRepository.findForUpdate(inboxId, threadId)
+                .orElseGet(() -> EmailThread.builder()
+                        .emailAccountId(inboxId)
+                        .gmailThreadId(threadId)
+                        .build());
+        for (Email email : emails) {
+            apply(thread, email);
+        }
+        threadRepository.saveAndFlush(thread);
+    }
+
+    /**
+     * Fold one newly stored message into its thread's summary.
+     */
+    static void apply(EmailThread thread, Email email) {
+        thread.setMessageCount(thread.getMessageCount() + 1);
+
+        if (Boolean.TRUE.equals(email.getIsSpam())) {
+            thread.setSpamCount(thread.getSpamCount() + 1);
+        }
+        if (email.getTrustScore() != null
+                && (thread.getMinTrustScore() == null || email.getTrustScore() < thread.getMinTrustScore())) {
+            thread.setMinTrustScore(email.getTrustScore());
+        }
+
+        ParsedSender sender = SenderAddressParser.parse(email.getSender());
+
+        // Newest message wins; same-second ties go to the higher ID, as in listings
+        boolean newer = thread.getLatestAt() == null
+                || email.getReceivedAt().isAfter(thread.getLatestAt())
+                || (email.getReceivedAt().isEqual(thread.getLatestAt()) && email.getId() > thread.getLatestEmailId());
+        if (newer) {
+            thread.setLatestEmailId(email.getId());
+            thread.setLatestSubject(email.getSubject());
+            thread.setLatestSender(format(sender, email.getSender()));
+            thread.setLatestAt(email.getReceivedAt());
+        }
+
+        String address = sender.address();
+        if (!address.isEmpty()) {
+            String participants = thread.getParticipants();
+            if (participants == null || participants.isEmpty()) {
+                thread.setParticipants(address);
+            } else {
+                List<String> known = List.of(participants.split(", "));
+                if (known.size() < MAX_PARTICIPANTS && !known.contains(address)) {
+                    thread.setParticipants(participants + ", " + address);
+                }
+            }
+        }
+    }
+
+    // Same form as Sender.format(), so threads and emails show senders alike
+    private static String format(ParsedSender sender, String raw) {
+        if (sender.address().isEmpty()) {
+            return raw;
+        }
+        return Sender.format(sender.displayName(), sender.address());
+    }
+}
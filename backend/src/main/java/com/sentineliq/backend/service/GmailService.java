@@ -1,11 +1,20 @@
 package com.sentineliq.backend.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import com.sentineliq.backend.analytics.BurstDetectionService;
+import com.sentineliq.backend.event.EmailLabelsChangedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.SyncProgressEvent;
 import com.sentineliq.backend.model.Email;
 import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.repository.EmailAccountRepository;
 import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.GmailIdRow;
 
+import java.io.IOException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -15,11 +24,19 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryLabelAdded;
+import com.google.api.services.gmail.model.HistoryLabelRemoved;
+import com.google.api.services.gmail.model.ListHistoryResponse;
 import com.google.api.services.gmail.model.ListMessagesResponse;
 import com.google.api.services.gmail.model.Message;
 import com.google.api.services.gmail.model.MessagePart;
@@ -32,19 +49,37 @@ import com.google.auth.oauth2.GoogleCredentials;
  * GmailService handles talking to the Gmail API and turning Gmail messages into Email objects for our app.
  * 
  * - Fetches emails from Gmail using OAuth2 tokens.
- * - Converts Gmail messages into our Email model.
- * - Saves emails to the database.
+ * - Converts Gmail messages into our Email model (the sender is stored once in the senders table).
+ * - Saves emails to the database (skipping messages that are already stored), after passing
+ *   each one through burst detection (see BurstDetectionService).
+ * - Keeps Gmail labels of stored emails current from Gmail's history (label changes since the
+ *   inbox's last history position), so nothing is re-fetched to notice a label change.
+ * - Publishes an EmailsIngestedEvent for newly stored emails so in-memory views can update,
+ *   and SyncProgressEvents while the sync runs.
  * - Has helper methods to pull out the text and HTML content from Gmail messages.
  */
 @Slf4j
 @Service
 public class GmailService {
 
-    private final EmailRepository emailRepository;
+    // Gmail message IDs per IN (...) lookup when applying label changes
+    private static final int LABEL_LOOKUP_BATCH = 500;
 
-    // Set up the service with the email repository
-    public GmailService(EmailRepository emailRepository) {
+    private final EmailRepository emailRepository;
+    private final EmailAccountRepository emailAccountRepository;
+    private final SenderService senderService;
+    private final BurstDetectionService burstDetectionService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Set up the service with the repositories, sender lookup, burst detection and event publisher
+    public GmailService(EmailRepository emailRepository, EmailAccountRepository emailAccountRepository,
+                        SenderService senderService, BurstDetectionService burstDetectionService,
+                        ApplicationEventPublisher eventPublisher) {
         this.emailRepository = emailRepository;
+        this.emailAccountRepository = emailAccountRepository;
+        this.senderService = senderService;
+        this.burstDetectionService = burstDetectionService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -73,18 +108,45 @@ public class GmailService {
             }
 
             List<Email> savedEmails = new ArrayList<>();
+            int processed = 0;
+            eventPublisher.publishEvent(new SyncProgressEvent(account.getId(), 0, messageRefs.size()));
 
             // For each message, fetch the full message, convert it, and save it
             for (Message ref : messageRefs) {
-                Message fullMessage = gmail.users().messages().get("me", ref.getId()).execute();
-                Email email = parseMessageToEmail(fullMessage, account);
-                emailRepository.save(email);
-                savedEmails.add(email);
-
-                log.info("Saved email: '{}' from {}", email.getSubject(), email.getSender());
+                processed++;
+
+                // Already stored on an earlier sync; saving it again would violate the unique constraint
+                if (!emailRepository.existsByGmailMessageIdAndEmailAccountId(ref.getId(), account.getId())) {
+                    Message fullMessage = gmail.users().messages().get("me", ref.getId()).execute();
+                    Email email = parseMessageToEmail(fullMessage, account);
+                    // Lowers the trust score of messages arriving during a burst, counted by when Gmail
+                    // received them: the Date header is whatever the sender wrote
+                    Long internalDate = fullMessage.getInternalDate();
+                    burstDetectionService.inspect(account.getId(), email,
+                            internalDate != null ? Instant.ofEpochMilli(internalDate) : null);
+                    emailRepository.save(email);
+                    savedEmails.add(email);
+
+                    log.info("Saved email: '{}' from {}", email.getSubject(), email.getSender());
+                }
+
+                if (processed < messageRefs.size()) {
+                    eventPublisher.publishEvent(new SyncProgressEvent(account.getId(), processed, messageRefs.size()));
+                }
             }
 
             log.info("Finished fetching {} emails for account: {}", savedEmails.size(), account.getEmailAddress());
+            if (!savedEmails.isEmpty()) {
+                eventPublisher.publishEvent(new EmailsIngestedEvent(account.getId(), account.getUser().getId(), savedEmails));
+            }
+
+            // Labels of already stored emails; a failure here doesn't undo the new emails
+            try {
+                syncLabelChanges(gmail, account);
+            } catch (Exception e) {
+                log.warn("Label sync failed for account: {}", account.getEmailAddress(), e);
+            }
+            eventPublisher.publishEvent(new SyncProgressEvent(account.getId(), messageRefs.size(), messageRefs.size()));
             return savedEmails;
 
         } catch (Exception e) {
@@ -93,6 +155,98 @@ public class GmailService {
         }
     }
 
+    /**
+     * Apply label changes recorded in Gmail's history since the inbox's last position, then
+     * move the position forward. The first sync only records the current position
+     * (labels of newly stored messages come with the messages themselves).
+     */
+    void syncLabelChanges(Gmail gmail, EmailAccount account) throws IOException {
+        Long start = account.getGmailHistoryId();
+        if (start == null) {
+            BigInteger current = gmail.users().getProfile("me").execute().getHistoryId();
+            emailAccountRepository.updateGmailHistoryId(account.getId(), current.longValue());
+            account.setGmailHistoryId(current.longValue());
+            return;
+        }
+
+        // Gmail message ID -> its labels after the latest change
+        Map<String, List<String>> latestLabels = new LinkedHashMap<>();
+        BigInteger position = BigInteger.valueOf(start);
+        try {
+            // One request for the whole range; only the page token changes between pages
+            Gmail.Users.History.List request = gmail.users().history().list("me")
+                    .setStartHistoryId(BigInteger.valueOf(start))
+                    .setHistoryTypes(List.of("labelAdded", "labelRemoved"));
+            String pageToken = null;
+            do {
+                ListHistoryResponse page = request.setPageToken(pageToken).execute();
+                if (page.getHistory() != null) {
+                    for (History history : page.getHistory()) {
+                        if (history.getLabelsAdded() != null) {
+                            for (HistoryLabelAdded added : history.getLabelsAdded()) {
+                                trackLabels(latestLabels, added.getMessage());
+                            }
+                        }
+                        if (history.getLabelsRemoved() != null) {
+                            for (HistoryLabelRemoved removed : history.getLabelsRemoved()) {
+                                trackLabels(latestLabels, removed.getMessage());
+                            }
+                        }
+                    }
+                }
+                if (page.getHistoryId() != null) {
+                    position = page.getHistoryId();
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() != 404) {
+                throw e;
+            }
+            // Gmail only keeps about a week of history; start over from now
+            log.warn("History position {} expired for account: {}; label changes before now are skipped",
+                    start, account.getEmailAddress());
+            latestLabels.clear();
+            position = gmail.users().getProfile("me").execute().getHistoryId();
+        }
+
+        applyLabelChanges(account, latestLabels);
+        emailAccountRepository.updateGmailHistoryId(account.getId(), position.longValue());
+        account.setGmailHistoryId(position.longValue());
+    }
+
+    // History messages carry the message's full label list at the time of the change
+    private static void trackLabels(Map<String, List<String>> latestLabels, Message message) {
+        if (message != null && message.getId() != null && message.getLabelIds() != null) {
+            latestLabels.put(message.getId(), message.getLabelIds());
+        }
+    }
+
+    // Store the new labels of the messages we have and tell listeners (label indexes)
+    private void applyLabelChanges(EmailAccount account, Map<String, List<String>> latestLabels) {
+        if (latestLabels.isEmpty()) {
+            return;
+        }
+        List<String> gmailIds = new ArrayList<>(latestLabels.keySet());
+        Map<Long, List<String>> changed = new HashMap<>();
+        for (int from = 0; from < gmailIds.size(); from += LABEL_LOOKUP_BATCH) {
+            List<String> batch = gmailIds.subList(from, Math.min(from + LABEL_LOOKUP_BATCH, gmailIds.size()));
+            for (GmailIdRow row : emailRepository.findIdsByGmailMessageIds(account.getId(), batch)) {
+                List<String> labels = latestLabels.get(row.getGmailMessageId());
+                emailRepository.updateLabelIds(row.getId(), joinLabels(labels));
+                changed.put(row.getId(), labels);
+            }
+        }
+        log.info("Applied label changes to {} emails for account: {}", changed.size(), account.getEmailAddress());
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new EmailLabelsChangedEvent(account.getId(), changed));
+        }
+    }
+
+    private static String joinLabels(List<String> labelIds) {
+        return labelIds == null || labelIds.isEmpty() ? null : String.join(",", labelIds);
+    }
+
     /**
      * Get the value of a specific header (like "Subject" or "From") from a list of headers.
      */
@@ -173,7 +327,7 @@ public class GmailService {
 
     /**
      * Turn a Gmail Message into our Email object.
-     * Pulls out subject, sender, date, plain text, and HTML body.
+     * Pulls out thread ID, labels, subject, sender, date, plain text, and HTML body.
      */
     private Email parseMessageToEmail(Message message, EmailAccount account) {
         List<MessagePartHeader> headers = message.getPayload().getHeaders();
@@ -197,8 +351,12 @@ public class GmailService {
 
         Email email = new Email();
         email.setGmailMessageId(message.getId());
+        email.setThreadId(message.getThreadId());
+        email.setLabelIds(joinLabels(message.getLabelIds()));
         email.setSubject(subject != null ? subject : "(No Subject)");
         email.setSender(sender != null ? sender : "(Unknown Sender)");
+        email.setSenderRef(senderService.resolve(email.getSender()));
+        email.setSenderName(senderService.displayName(email.getSender()));
         email.setPlainTextBody(plainTextBody != null ? plainTextBody : "(Empty Body)");
         email.setHtmlBody(htmlBody != null && !htmlBody.isBlank() ? htmlBody : null);
         email.setReceivedAt(LocalDateTime.ofInstant(timestamp, ZoneId.systemDefault()));
@@ -0,0 +1,193 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.InboxDeletionProgress;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailThreadRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InboxDeletionService deletes inboxes without loading their emails.
+ *
+ * - A delete request only marks the inbox as deleting (one UPDATE) and returns. From then on
+ *   the inbox is hidden from inbox lists, so every other endpoint treats it as gone.
+ * - A background job purges its emails in chunks of chunk-size rows
+ *   (DELETE ... WHERE email_account_id = ? AND id < ?), each in its own short transaction,
+ *   pausing between chunks so a huge inbox doesn't monopolize the database. The inbox row
+ *   is deleted last, right after thread summaries and stats buckets are cleared again (a sync
+ *   that was running when the deletion started may have written some after the event).
+ * - Inboxes still marked as deleting at startup (server stopped mid-purge) are resumed.
+ *   Purging is idempotent, so two nodes resuming the same inbox is harmless.
+ */
+@Slf4j
+@Service
+public class InboxDeletionService {
+
+    private static final int MAX_ROW_DELETE_ATTEMPTS = 3;
+
+    private final EmailAccountRepository emailAccountRepository;
+    private final EmailRepository emailRepository;
+    private final EmailThreadRepository threadRepository;
+    private final InboxStatsRepository statsRepository;
+    private final UserLookupService userLookupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final ExecutorService executor;
+
+    // Purges running on this node, inbox ID -> emails deleted so far
+    private final Map<Long, AtomicLong> running = new ConcurrentHashMap<>();
+
+    public InboxDeletionService(
+            EmailAccountRepository emailAccountRepository,
+            EmailRepository emailRepository,
+            EmailThreadRepository threadRepository,
+            InboxStatsRepository statsRepository,
+            UserLookupService userLookupService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.inbox-deletion.chunk-size:5000}") int chunkSize,
+            @Value("${app.inbox-deletion.pause-ms:50}") long pauseMillis) {
+        this.emailAccountRepository = emailAccountRepository;
+        this.emailRepository = emailRepository;
+        this.threadRepository = threadRepository;
+        this.statsRepository = statsRepository;
+        this.userLookupService = userLookupService;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        // One purge at a time; deletions are rare and each one is I/O heavy
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inbox-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start deleting an inbox the caller owns. Returns immediately; the inbox disappears from
+     * lists right away and its emails are purged in the background.
+     *
+     * @param inbox inbox to delete
+     * @return true if this call started the deletion, false if it was already under way
+     */
+    public boolean requestDeletion(EmailAccount inbox) {
+        Long inboxId = inbox.getId();
+        Long userId = inbox.getUser().getId();
+        if (emailAccountRepository.markDeleting(inboxId) == 0) {
+            return false;
+        }
+        userLookupService.evictInboxes(userId);
+        // Caches, indexes and streams drop the inbox now rather than when the purge ends
+        eventPublisher.publishEvent(new InboxDeletedEvent(inboxId, userId));
+        submit(inboxId);
+        return true;
+    }
+
+    /**
+     * Progress of an inbox that is being deleted.
+     *
+     * @param inbox inbox the caller owns
+     * @return the progress, empty if the inbox is not being deleted
+     */
+    public Optional<InboxDeletionProgress> progress(EmailAccount inbox) {
+        if (!inbox.isDeleting()) {
+            return Optional.empty();
+        }
+        AtomicLong deleted = running.get(inbox.getId());
+        return Optional.of(InboxDeletionProgress.builder()
+                .inboxId(inbox.getId())
+                .deletedEmails(deleted == null ? 0 : deleted.get())
+                .remainingEmails(emailRepository.countByEmailAccountId(inbox.getId()))
+                .build());
+    }
+
+    /**
+     * Resume purges interrupted by a shutdown.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingDeletions() {
+        for (Long inboxId : emailAccountRepository.findDeletingIds()) {
+            log.info("🗑️ Resuming deletion of inbox ID {}", inboxId);
+            submit(inboxId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Long inboxId) {
+        if (running.putIfAbsent(inboxId, new AtomicLong()) != null) {
+            return; // Already queued here
+        }
+        executor.execute(() -> {
+            try {
+                purge(inboxId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("🗑️ Deletion of inbox ID {} interrupted; it resumes on next startup", inboxId);
+            } catch (RuntimeException e) {
+                log.error("❌ Deletion of inbox ID {} failed; it resumes on next startup", inboxId, e);
+            } finally {
+                running.remove(inboxId);
+            }
+        });
+    }
+
+    // Package-private for tests
+    void purge(Long inboxId) throws InterruptedException {
+        AtomicLong deleted = running.computeIfAbsent(inboxId, id -> new AtomicLong());
+        long started = System.currentTimeMillis();
+
+        for (int attempt = 1; ; attempt++) {
+            deleteEmails(inboxId, deleted);
+            // InboxDeletedEvent cleared these when the deletion started; late sync writes may have re-added some
+            threadRepository.deleteByInbox(inboxId);
+            statsRepository.deleteByInbox(inboxId);
+            try {
+                emailAccountRepository.deleteByIdWithoutCascade(inboxId);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // A sync that was already running stored more emails; purge those too
+                if (attempt == MAX_ROW_DELETE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+
+        log.info("🗑️ Inbox ID {} deleted ({} emails in {} ms)", inboxId, deleted.get(), System.currentTimeMillis() - started);
+    }
+
+    private void deleteEmails(Long inboxId, AtomicLong deleted) throws InterruptedException {
+        while (true) {
+            // First ID past this chunk; none means the rest fits in one chunk
+            Optional<Long> bound = emailRepository.findIdAtOffset(inboxId, chunkSize);
+            deleted.addAndGet(emailRepository.deleteChunk(inboxId, bound.orElse(Long.MAX_VALUE)));
+            if (bound.isEmpty()) {
+                return;
+            }
+            if (pauseMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(pauseMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.sentineliq.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * InboxExportService writes a whole inbox as gzip-compressed NDJSON (one email per line, oldest first).
+ *
+ * - Rows come from a server-side cursor (JDBC fetch size inside a read-only transaction), so only
+ *   one fetch batch is in memory at a time.
+ * - Each row is written straight from the result set into the gzip stream by EmailJsonRenderer;
+ *   no entities are loaded and nothing is collected.
+ */
+@Slf4j
+@Service
+public class InboxExportService {
+
+    private final EmailJsonRenderer emailJsonRenderer;
+    private final ObjectMapper objectMapper;
+
+    public InboxExportService(EmailJsonRenderer emailJsonRenderer, ObjectMapper objectMapper) {
+        this.emailJsonRenderer = emailJsonRenderer;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write every email of the inbox to out as gzip NDJSON. Does not close out.
+     *
+     * @param inboxId inbox owned by the caller
+     * @param out     response body
+     * @return number of emails written
+     */
+    public long export(Long inboxId, OutputStream out) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+        long written;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(gzip)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            written = emailJsonRenderer.writeLines(json, inboxId);
+        }
+        gzip.finish();
+        log.info("📦 Exported {} emails from inbox ID {}", written, inboxId);
+        return written;
+    }
+}
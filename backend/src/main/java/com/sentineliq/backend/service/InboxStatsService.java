@@ -0,0 +1,193 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.InboxStats;
+import com.sentineliq.backend.dto.InboxStatsPoint;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.InboxStatsBucket.Granularity;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository.BucketTotalsRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * InboxStatsService keeps hourly and daily rollups of each inbox's mail (inbox_stats) and reads them.
+ *
+ * - Ingest and re-scoring both recompute the buckets they touch: hours from their emails, days
+ *   from their hours, so a sync costs one index range scan per distinct hour whatever the volume.
+ * - Each recompute locks its bucket row first, in the same transaction as the sum and the write,
+ *   so two writers of one bucket never interleave and the rollups never drift from the emails table.
+ * - Reads are a range scan of the rollup index: the cost depends on the number of buckets
+ *   asked for, not on how many emails they hold.
+ */
+@Slf4j
+@Service
+public class InboxStatsService {
+
+    // About three months of hours, or about six years of days
+    static final int MAX_BUCKETS = 24 * 93;
+
+    private static final int DEFAULT_HOURS = 24 * 7;
+    private static final int DEFAULT_DAYS = 30;
+
+    private final InboxStatsRepository statsRepository;
+    private final EmailRepository emailRepository;
+    private final TransactionTemplate tx;
+
+    public InboxStatsService(
+            InboxStatsRepository statsRepository,
+            EmailRepository emailRepository,
+            PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.emailRepository = emailRepository;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * An inbox's buckets in a time range, oldest first.
+     *
+     * @param inboxId     inbox owned by the caller
+     * @param from        ISO date or date-time; defaults to 7 days (hour) or 30 days (day) before to
+     * @param to          ISO date or date-time (exclusive); defaults to the end of the current bucket
+     * @param granularity "hour" or "day" (default)
+     * @throws IllegalArgumentException on unparsable values or a range over MAX_BUCKETS buckets
+     */
+    public InboxStats stats(Long inboxId, String from, String to, String granularity) {
+        Granularity unit = parseGranularity(granularity);
+
+        LocalDateTime end = isBlank(to)
+                ? unit.next(unit.bucketOf(LocalDateTime.now()))
+                : parseTime(to, "to");
+        LocalDateTime start = isBlank(from)
+                ? (unit == Granularity.HOUR ? end.minusHours(DEFAULT_HOURS) : end.minusDays(DEFAULT_DAYS))
+                : parseTime(from, "from");
+        // A bucket is in the range if it starts in it
+        start = unit.bucketOf(start);
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        long buckets = unit == Granularity.HOUR
+                ? ChronoUnit.HOURS.between(start, end)
+                : ChronoUnit.DAYS.between(start, end);
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range too large: at most " + MAX_BUCKETS + " buckets");
+        }
+
+        return InboxStats.builder()
+                .granularity(unit)
+                .from(start)
+                .to(end)
+                .buckets(statsRepository.findRange(inboxId, unit, start, end).stream()
+                        .map(InboxStatsPoint::from)
+                        .toList())
+                .build();
+    }
+
+    // Emails are committed before the event, so the recompute always sees them
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        Set<LocalDateTime> hours = new TreeSet<>();
+        for (Email email : event.getEmails()) {
+            if (email.getReceivedAt() != null) {
+                hours.add(Granularity.HOUR.bucketOf(email.getReceivedAt()));
+            }
+        }
+        recompute(event.getInboxId(), hours);
+    }
+
+    // Events only carry new verdicts, so recompute the touched buckets instead of applying deltas
+    @EventListener
+    public void onEmailsUpdated(EmailsUpdatedEvent event) {
+        Set<LocalDateTime> hours = new TreeSet<>();
+        for (EmailSummaryDto email : event.getEmails()) {
+            if (email.getReceivedAt() != null) {
+                hours.add(Granularity.HOUR.bucketOf(email.getReceivedAt()));
+            }
+        }
+        recompute(event.getInboxId(), hours);
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        statsRepository.deleteByInbox(event.getInboxId());
+    }
+
+    // Hours first: a day is summed from its hourly rows once they are committed
+    private void recompute(Long inboxId, Set<LocalDateTime> hours) {
+        if (hours.isEmpty()) {
+            return;
+        }
+        Set<LocalDateTime> days = new TreeSet<>();
+        for (LocalDateTime hour : hours) {
+            recompute(inboxId, Granularity.HOUR, hour,
+                    () -> emailRepository.sumReceivedBetween(inboxId, hour, Granularity.HOUR.next(hour)));
+            days.add(Granularity.DAY.bucketOf(hour));
+        }
+        // At most 24 hourly rows per day
+        for (LocalDateTime day : days) {
+            recompute(inboxId, Granularity.DAY, day,
+                    () -> statsRepository.sumRange(inboxId, Granularity.HOUR, day, Granularity.DAY.next(day)));
+        }
+        log.debug("Recomputed {} hourly and {} daily stats buckets of inbox ID {}", hours.size(), days.size(), inboxId);
+    }
+
+    // One short transaction per bucket: the row lock is held only while its own sum runs
+    private void recompute(Long inboxId, Granularity unit, LocalDateTime bucketStart, Supplier<BucketTotalsRow> sum) {
+        tx.executeWithoutResult(status -> {
+            statsRepository.lockBucket(inboxId, unit.name(), bucketStart);
+            BucketTotalsRow totals = sum.get();
+            statsRepository.replace(inboxId, unit.name(), bucketStart,
+                    value(totals.getEmails()), value(totals.getSpam()),
+                    value(totals.getTrustScoreSum()), value(totals.getTrustScoreCount()));
+        });
+    }
+
+    private static long value(Long count) {
+        return Objects.requireNonNullElse(count, 0L);
+    }
+
+    private static Granularity parseGranularity(String value) {
+        if (isBlank(value)) {
+            return Granularity.DAY;
+        }
+        try {
+            return Granularity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown granularity '" + value + "' (expected hour or day)");
+        }
+    }
+
+    // Accepts "2024-05-01" (start of that day) or "2024-05-01T13:00[:00]"
+    private static LocalDateTime parseTime(String value, String name) {
+        String trimmed = value.trim();
+        try {
+            return trimmed.length() == 10
+                    ? LocalDate.parse(trimmed).atStartOfDay()
+                    : LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid '" + name + "': expected an ISO date or date-time");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,89 @@
+package com.sentineliq.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * InboxVersionService tracks each inbox's sync version (email_accounts.sync_version).
+ *
+ * - The version is bumped in the database whenever a sync stores emails, so every node sees it.
+ * - Reads are served from memory; a bump on this node is visible immediately, a bump on
+ *   another node as soon as its cluster event arrives (at most ttl-ms without one).
+ * - Listings and ETags derived from a version can be reused until the version changes.
+ */
+@Service
+public class InboxVersionService {
+
+    private final EmailAccountRepository emailAccountRepository;
+    private final Cache<Long, Long> versions;
+
+    public InboxVersionService(
+            EmailAccountRepository emailAccountRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.inbox-versions.max-size:50000}") long maxSize,
+            @Value("${app.cache.inbox-versions.ttl-ms:2000}") long ttlMillis) {
+        this.emailAccountRepository = emailAccountRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "inbox-versions");
+    }
+
+    /**
+     * Current version of the inbox, empty if it doesn't exist.
+     */
+    public OptionalLong currentVersion(Long inboxId) {
+        Long version = versions.get(inboxId, id -> emailAccountRepository.findSyncVersionById(id).orElse(null));
+        return version == null ? OptionalLong.empty() : OptionalLong.of(version);
+    }
+
+    /**
+     * Mark the inbox's emails as changed.
+     */
+    public void bump(Long inboxId) {
+        emailAccountRepository.incrementSyncVersion(inboxId);
+        versions.invalidate(inboxId);
+    }
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        bump(event.getInboxId());
+    }
+
+    // Verdict changes alter listed emails too
+    @EventListener
+    public void onEmailsUpdated(EmailsUpdatedEvent event) {
+        bump(event.getInboxId());
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        versions.invalidate(event.getInboxId());
+    }
+
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        versions.invalidate(event.getMessage().inboxId());
+    }
+
+    @EventListener
+    public void onClusterReconnected(ClusterReconnectedEvent event) {
+        versions.invalidateAll();
+    }
+}
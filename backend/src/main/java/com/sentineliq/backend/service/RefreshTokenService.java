@@ -0,0 +1,153 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.model.RevokedRefreshToken;
+import com.sentineliq.backend.repository.RevokedRefreshTokenRepository;
+import com.sentineliq.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RefreshTokenService tracks which refresh tokens (by jti) may no longer be used.
+ *
+ * - Every refresh token carries a random jti; using it at /api/auth/refresh consumes it.
+ * - Revocations are written to the revoked_refresh_tokens table and mirrored in an
+ *   in-memory jti -> expiry map, so "is this revoked?" never needs a DB round trip.
+ * - Other replicas pick up new rows with a periodic incremental poll. The unique jti
+ *   column makes consumption atomic across replicas: if two nodes race on the same
+ *   token, only one insert succeeds.
+ * - Entries disappear (memory and table) once the token would have expired anyway.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    // How far back each poll re-reads, to cover rows committed out of order or with clock skew
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final RevokedRefreshTokenRepository revokedRepository;
+    private final JwtUtil jwtUtil;
+
+    // jti -> token expiry (epoch millis)
+    private final Map<UUID, Long> revoked = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastSync;
+
+    public RefreshTokenService(RevokedRefreshTokenRepository revokedRepository, JwtUtil jwtUtil) {
+        this.revokedRepository = revokedRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Consume a refresh token so it can't be used again (rotation).
+     *
+     * @param claims verified claims of the presented refresh token
+     * @return true if the token was unused and is now consumed, false if it was already used/revoked
+     */
+    public boolean consume(Claims claims) {
+        UUID jti = parseJti(claims.getId());
+        if (jti == null) {
+            // Issued before rotation existed; make the client log in again
+            return false;
+        }
+        if (isRevoked(jti)) {
+            log.warn("🚫 Reuse of revoked refresh token {} for user {}", jti, claims.get("username", String.class));
+            return false;
+        }
+        return recordRevocation(jti, claims);
+    }
+
+    /**
+     * Revoke a refresh token (e.g. on logout). Invalid or expired tokens are ignored.
+     */
+    public void revokeQuietly(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        try {
+            Claims claims = jwtUtil.validateToken(refreshToken);
+            UUID jti = parseJti(claims.getId());
+            if (jti != null && !isRevoked(jti)) {
+                recordRevocation(jti, claims);
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Ignoring invalid refresh token on revoke: {}", e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(UUID jti) {
+        return revoked.containsKey(jti);
+    }
+
+    /**
+     * Pull revocations made by any replica since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${security.refresh-token.sync-interval-ms:5000}")
+    public void syncFromDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        var rows = lastSync == null
+                ? revokedRepository.findByExpiresAtAfter(now)
+                : revokedRepository.findByRevokedAtAfter(lastSync.minusSeconds(SYNC_OVERLAP_SECONDS));
+        for (RevokedRefreshToken row : rows) {
+            UUID jti = parseJti(row.getJti());
+            if (jti != null) {
+                revoked.put(jti, toEpochMillis(row.getExpiresAt()));
+            }
+        }
+        lastSync = now;
+    }
+
+    /**
+     * Forget revocations for tokens that have expired, in memory and in the table.
+     */
+    @Scheduled(fixedDelayString = "${security.refresh-token.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long nowMillis = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < nowMillis);
+        int deleted = revokedRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("🧹 Purged {} expired refresh token revocations", deleted);
+        }
+    }
+
+    private boolean recordRevocation(UUID jti, Claims claims) {
+        long expiresAtMillis = claims.getExpiration().getTime();
+        try {
+            revokedRepository.save(RevokedRefreshToken.builder()
+                    .jti(jti.toString())
+                    .expiresAt(LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()))
+                    .revokedAt(LocalDateTime.now())
+                    .build());
+            revoked.put(jti, expiresAtMillis);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another request (possibly on another replica) got there first
+            revoked.put(jti, expiresAtMillis);
+            log.warn("🚫 Refresh token {} was already consumed elsewhere", jti);
+            return false;
+        }
+    }
+
+    private static UUID parseJti(String jti) {
+        if (jti == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(jti);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
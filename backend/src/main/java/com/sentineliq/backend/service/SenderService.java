@@ -0,0 +1,97 @@
+package com.sentineliq.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.repository.SenderRepository;
+import com.sentineliq.backend.util.SenderAddressParser;
+import com.sentineliq.backend.util.SenderAddressParser.ParsedSender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * SenderService maps raw "From" headers to rows of the senders table (address and domain) and
+ * to the display name each email keeps for itself.
+ *
+ * - Find-or-create by normalized address; the loaded rows are cached by address, so steady-state
+ *   ingest doesn't query the senders table at all. Callers always get a fully loaded Sender (never
+ *   a lazy proxy), so it can be read after the ingest transaction, e.g. by event listeners.
+ *   Sender rows never change once created, so the cached copies can't go stale.
+ * - Two nodes creating the same sender at once is resolved by the unique address constraint:
+ *   the loser reads the winner's row.
+ */
+@Service
+public class SenderService {
+
+    private static final int MAX_ADDRESS_LENGTH = 320;
+    private static final int MAX_DISPLAY_NAME_LENGTH = 255;
+
+    private final SenderRepository senderRepository;
+    private final Cache<String, Sender> sendersByAddress;
+
+    public SenderService(
+            SenderRepository senderRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.senders.max-size:50000}") long maxSize) {
+        this.senderRepository = senderRepository;
+        this.sendersByAddress = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sendersByAddress, "senders.by-address");
+    }
+
+    /**
+     * Get (or create) the sender for a raw "From" value, ready to set on a new Email.
+     */
+    public Sender resolve(String rawFrom) {
+        ParsedSender parsed = SenderAddressParser.parse(rawFrom);
+        String key = keyOf(parsed);
+
+        Sender cached = sendersByAddress.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Sender sender = senderRepository.findByAddress(key).orElseGet(() -> create(key, parsed));
+        sendersByAddress.put(key, sender);
+        return sender;
+    }
+
+    /**
+     * The display name of a raw "From" value, as stored on the email (null when there is none).
+     */
+    public String displayName(String rawFrom) {
+        ParsedSender parsed = SenderAddressParser.parse(rawFrom);
+        String name = parsed.displayName();
+        // The parser falls back to the address for a bare "From"; that is not a name
+        if (name.isEmpty() || name.equalsIgnoreCase(parsed.address())) {
+            return null;
+        }
+        return name.length() <= MAX_DISPLAY_NAME_LENGTH ? name : name.substring(0, MAX_DISPLAY_NAME_LENGTH);
+    }
+
+    private Sender create(String key, ParsedSender parsed) {
+        try {
+            return senderRepository.save(Sender.builder()
+                    .address(key)
+                    .domain(parsed.domain())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Created concurrently elsewhere
+            return senderRepository.findByAddress(key).orElseThrow(() -> e);
+        }
+    }
+
+    // Headers without an address are keyed by their normalized name ("(unknown sender)")
+    private static String keyOf(ParsedSender parsed) {
+        String key = !parsed.address().isEmpty() ? parsed.address() : SenderAddressParser.normalize(parsed.displayName());
+        if (key.isEmpty()) {
+            return "(unknown sender)";
+        }
+        return key.length() <= MAX_ADDRESS_LENGTH ? key : key.substring(0, MAX_ADDRESS_LENGTH);
+    }
+}
@@ -0,0 +1,145 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.UnifiedInboxPage;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailStateRow;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * UnifiedInboxService lists all of a user's inboxes as one newest-first feed.
+ *
+ * - Each inbox is read with a keyset query on its (email_account_id, received_at, id) index,
+ *   limited to one page past the cursor, so the cost depends on page size and inbox count,
+ *   not on how much mail the user has. Rows are summary projections: bodies are never read.
+ * - The per-inbox pages are combined with a k-way merge (a heap holding the head of each).
+ * - The cursor is the (receivedAt, id) of the last email returned, as an opaque base64 string.
+ *   Every ingested email has a receivedAt; rows without one are not part of the feed.
+ */
+@Service
+public class UnifiedInboxService {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    // Newest first; ties (same second) broken by id so the order is total and the cursor is exact
+    private static final Comparator<EmailStateRow> NEWEST_FIRST = Comparator
+            .comparing(EmailStateRow::getReceivedAt, Comparator.reverseOrder())
+            .thenComparing(EmailStateRow::getId, Comparator.reverseOrder());
+
+    private final EmailRepository emailRepository;
+
+    public UnifiedInboxService(EmailRepository emailRepository) {
+        this.emailRepository = emailRepository;
+    }
+
+    /**
+     * One page of the merged feed.
+     *
+     * @param inboxIds inboxes owned by the caller
+     * @param cursor   nextCursor from the previous page, or null for the first page
+     * @param limit    requested page size (clamped to 1..MAX_LIMIT)
+     */
+    public UnifiedInboxPage page(Collection<Long> inboxIds, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (inboxIds.isEmpty()) {
+            return UnifiedInboxPage.builder().emails(List.of()).build();
+        }
+        Cursor after = cursor == null || cursor.isBlank() ? Cursor.FIRST : Cursor.decode(cursor);
+
+        // No inbox can contribute more than a page (plus one row to detect a next page)
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        PriorityQueue<Source> heads = new PriorityQueue<>(inboxIds.size(),
+                Comparator.comparing(Source::head, NEWEST_FIRST));
+        for (Long inboxId : inboxIds) {
+            List<EmailStateRow> rows = emailRepository.findPageBefore(inboxId, after.receivedAt(), after.id(), firstRows);
+            if (!rows.isEmpty()) {
+                heads.add(new Source(rows.iterator()));
+            }
+        }
+
+        List<EmailStateRow> merged = new ArrayList<>(pageSize + 1);
+        while (merged.size() <= pageSize && !heads.isEmpty()) {
+            Source source = heads.poll();
+            merged.add(source.head());
+            if (source.advance()) {
+                heads.add(source);
+            }
+        }
+
+        boolean hasMore = merged.size() > pageSize;
+        List<EmailSummaryDto> emails = merged.stream()
+                .limit(pageSize)
+                .map(EmailSummaryDto::from)
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            EmailSummaryDto last = emails.get(emails.size() - 1);
+            nextCursor = new Cursor(last.getReceivedAt(), last.getId()).encode();
+        }
+
+        return UnifiedInboxPage.builder()
+                .emails(emails)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Remaining rows of one inbox's page; head is the next one to merge
+    private static final class Source {
+        private final Iterator<EmailStateRow> rows;
+        private EmailStateRow head;
+
+        Source(Iterator<EmailStateRow> rows) {
+            this.rows = rows;
+            this.head = rows.next();
+        }
+
+        EmailStateRow head() {
+            return head;
+        }
+
+        boolean advance() {
+            if (!rows.hasNext()) {
+                return false;
+            }
+            head = rows.next();
+            return true;
+        }
+    }
+
+    /**
+     * Keyset position: receivedAt and id of the last email already returned.
+     */
+    record Cursor(LocalDateTime receivedAt, long id) {
+
+        // Later than any stored email; still within the range of a SQL timestamp
+        static final Cursor FIRST = new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+        String encode() {
+            String raw = receivedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sentineliq.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sentineliq.backend.cluster.ClusterMessage;
+import com.sentineliq.backend.dto.InboxSummary;
+import com.sentineliq.backend.dto.UserSummary;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import com.sentineliq.backend.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UserLookupService serves user identity and inbox lists from memory.
+ *
+ * - user-by-username and user-to-inboxes are bounded, TTL-based caches of immutable summaries.
+ * - Writers (linking or deleting an inbox) call evictInboxes() so changes show up immediately;
+ *   the TTL only bounds staleness for changes made elsewhere.
+ * - Hit/miss/eviction metrics are exported as cache.* meters (cache=users.by-username, inboxes.by-user).
+ * - Unknown usernames are not cached, so a user who signs up is visible right away.
+ */
+@Service
+public class UserLookupService {
+
+    private final UserRepository userRepository;
+    private final EmailAccountRepository emailAccountRepository;
+
+    private final Cache<String, UserSummary> usersByUsername;
+    private final Cache<Long, List<InboxSummary>> inboxesByUser;
+
+    public UserLookupService(
+            UserRepository userRepository,
+            EmailAccountRepository emailAccountRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.users.max-size:10000}") long usersMaxSize,
+            @Value("${app.cache.users.ttl-seconds:300}") long usersTtlSeconds,
+            @Value("${app.cache.inboxes.max-size:10000}") long inboxesMaxSize,
+            @Value("${app.cache.inboxes.ttl-seconds:300}") long inboxesTtlSeconds) {
+        this.userRepository = userRepository;
+        this.emailAccountRepository = emailAccountRepository;
+
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(usersMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(usersTtlSeconds))
+                .recordStats()
+                .build();
+        this.inboxesByUser = Caffeine.newBuilder()
+                .maximumSize(inboxesMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(inboxesTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, inboxesByUser, "inboxes.by-user");
+    }
+
+    /**
+     * Find a user by username, from memory when possible.
+     */
+    public Optional<UserSummary> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(usersByUsername.get(username, key ->
+                userRepository.findByUsername(key).map(UserSummary::from).orElse(null)));
+    }
+
+    /**
+     * List the inboxes linked to a user, from memory when possible.
+     * Inboxes being deleted are left out, so they also fail ownsInbox().
+     */
+    public List<InboxSummary> findInboxes(Long userId) {
+        if (userId == null) {
+            return List.of();
+        }
+        return inboxesByUser.get(userId, key ->
+                emailAccountRepository.findAllByUserId(key).stream()
+                        .filter(account -> !account.isDeleting())
+                        .map(InboxSummary::from)
+                        .toList());
+    }
+
+    /**
+     * Check inbox ownership without a database round trip (after the first lookup).
+     */
+    public boolean ownsInbox(String username, Long inboxId) {
+        return findByUsername(username)
+                .map(user -> findInboxes(user.getId()).stream().anyMatch(inbox -> inbox.getId().equals(inboxId)))
+                .orElse(false);
+    }
+
+    // An inbox was deleted on another node
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        ClusterMessage message = event.getMessage();
+        if (message.type() == ClusterMessage.Type.INBOX_DELETED) {
+            evictInboxes(message.userId());
+        }
+    }
+
+    // Call after linking, deleting or otherwise changing a user's inboxes
+    public void evictInboxes(Long userId) {
+        if (userId != null) {
+            inboxesByUser.invalidate(userId);
+        }
+    }
+
+    // Call after changing the user's profile or role
+    public void evictUser(String username) {
+        if (username != null) {
+            usersByUsername.invalidate(username);
+        }
+    }
+
+    public void clear() {
+        usersByUsername.invalidateAll();
+        inboxesByUser.invalidateAll();
+    }
+}
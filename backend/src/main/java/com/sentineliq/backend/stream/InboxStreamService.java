@@ -0,0 +1,225 @@
+package com.sentineliq.backend.stream;
+
+import com.sentineliq.backend.cluster.ClusterMessage;
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.event.BurstDetectedEvent;
+import com.sentineliq.backend.event.ClusterReconnectedEvent;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.event.RemoteInboxChangedEvent;
+import com.sentineliq.backend.event.SyncProgressEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.repository.EmailRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InboxStreamService pushes live inbox events to connected dashboards over server-sent events.
+ *
+ * Events (name: data):
+ * - email:   EmailSummaryDto of a newly stored email
+ * - verdict: EmailSummaryDto of an email whose spam verdict / trust score changed
+ * - sync:    {"processed": n, "total": m} while a sync runs
+ * - alert:   {"domain": d, "hourStart": t, "count": n, "expected": x} when a mail burst is detected
+ *            (domain "" when the whole inbox is bursting)
+ * - dropped: number of events this client missed because it fell behind
+ * - resync:  too much changed at once (or on another node while we were disconnected from it);
+ *            the client should reload via the changes API
+ *
+ * Changes made on other nodes arrive as RemoteInboxChangedEvent with email ids only; the
+ * summaries are loaded here, and only for inboxes that have a stream open on this node.
+ *
+ * Idle connections cost no thread (async servlet). Sends go through a small shared pool and
+ * a bounded per-connection buffer, and a periodic heartbeat comment keeps proxies from
+ * closing quiet connections and detects dead clients.
+ */
+@Slf4j
+@Service
+public class InboxStreamService {
+
+    private final EmailRepository emailRepository;
+    private final Map<Long, Set<StreamConnection>> connectionsByInbox = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final ExecutorService sendExecutor;
+    private final int maxConnections;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    public InboxStreamService(
+            EmailRepository emailRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.stream.max-connections:10000}") int maxConnections,
+            @Value("${app.stream.buffer-size:64}") int bufferSize,
+            @Value("${app.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.stream.send-threads:4}") int sendThreads) {
+        this.emailRepository = emailRepository;
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sendExecutor = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-send-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("stream.connections", connectionCount, AtomicInteger::get)
+                .description("Open server-sent event connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream for an inbox the caller owns. Empty when the server is at its connection limit.
+     */
+    public Optional<SseEmitter> open(long inboxId) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        StreamConnection connection = new StreamConnection(inboxId, emitter, sendExecutor, bufferSize);
+        connectionsByInbox.compute(inboxId, (id, connections) -> {
+            Set<StreamConnection> set = connections != null ? connections : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+
+        Runnable unregister = () -> unregister(connection);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(error -> unregister.run());
+
+        // Tell the client how long to wait before reconnecting, and flush headers right away
+        connection.offer(SseEmitter.event().reconnectTime(3000).comment("connected"));
+        return Optional.of(emitter);
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    @EventListener
+    public void onEmailsIngested(EmailsIngestedEvent event) {
+        for (Email email : event.getEmails()) {
+            publish(event.getInboxId(), "email", EmailSummaryDto.from(email));
+        }
+    }
+
+    @EventListener
+    public void onEmailsUpdated(EmailsUpdatedEvent event) {
+        for (EmailSummaryDto email : event.getEmails()) {
+            publish(event.getInboxId(), "verdict", email);
+        }
+    }
+
+    @EventListener
+    public void onSyncProgress(SyncProgressEvent event) {
+        publish(event.getInboxId(), "sync", Map.of("processed", event.getProcessed(), "total", event.getTotal()));
+    }
+
+    @EventListener
+    public void onBurstDetected(BurstDetectedEvent event) {
+        publish(event.getInboxId(), "alert", Map.of(
+                "domain", event.getDomain() == null ? "" : event.getDomain(),
+                "hourStart", event.getHourStart().toString(),
+                "count", event.getCount(),
+                "expected", event.getExpected()));
+    }
+
+    @EventListener
+    public void onInboxDeleted(InboxDeletedEvent event) {
+        Set<StreamConnection> connections = connectionsByInbox.get(event.getInboxId());
+        if (connections != null) {
+            connections.forEach(connection -> {
+                unregister(connection);
+                connection.getEmitter().complete();
+            });
+        }
+    }
+
+    @EventListener
+    public void onRemoteInboxChanged(RemoteInboxChangedEvent event) {
+        ClusterMessage message = event.getMessage();
+        if (message.type() == ClusterMessage.Type.INBOX_DELETED) {
+            onInboxDeleted(new InboxDeletedEvent(message.inboxId(), message.userId()));
+            return;
+        }
+        if (!connectionsByInbox.containsKey(message.inboxId())) {
+            return; // Nobody here is watching this inbox
+        }
+        if (message.truncated()) {
+            publish(message.inboxId(), "resync", Map.of("inboxId", message.inboxId()));
+            return;
+        }
+        // Load off the bus listener thread so it can keep reading notifications
+        String name = message.type() == ClusterMessage.Type.EMAILS_INGESTED ? "email" : "verdict";
+        sendExecutor.execute(() -> {
+            try {
+                for (Email email : emailRepository.findByIdIn(message.emailIds())) {
+                    publish(message.inboxId(), name, EmailSummaryDto.from(email));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not load remote changes for inbox {}", message.inboxId(), e);
+            }
+        });
+    }
+
+    @EventListener
+    public void onClusterReconnected(ClusterReconnectedEvent event) {
+        connectionsByInbox.keySet().forEach(inboxId -> publish(inboxId, "resync", Map.of("inboxId", inboxId)));
+    }
+
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        connectionsByInbox.values().forEach(connections ->
+                connections.forEach(connection -> connection.offer(SseEmitter.event().comment("hb"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionsByInbox.values().forEach(connections -> connections.forEach(connection -> {
+            connection.close();
+            connection.getEmitter().complete();
+        }));
+        sendExecutor.shutdownNow();
+    }
+
+    private void publish(long inboxId, String name, Object data) {
+        Set<StreamConnection> connections = connectionsByInbox.get(inboxId);
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+        for (StreamConnection connection : connections) {
+            // Builders hold their data, so each connection gets its own
+            connection.offer(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void unregister(StreamConnection connection) {
+        connection.close();
+        // Runs once per connection even though several emitter callbacks may fire
+        connectionsByInbox.computeIfPresent(connection.getInboxId(), (id, connections) -> {
+            if (connections.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.sentineliq.backend.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One connected dashboard: an SseEmitter plus a small outgoing buffer.
+ *
+ * Publishers never write to the socket themselves; they enqueue and a shared executor drains
+ * the buffer. A slow client therefore can't stall ingestion: when its buffer is full the
+ * oldest event is dropped (clients re-read state via the changes API on "dropped" anyway).
+ */
+@Slf4j
+final class StreamConnection {
+
+    private final long inboxId;
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int capacity;
+
+    private final ArrayDeque<SseEmitter.SseEventBuilder> buffer = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    private int dropped;
+
+    StreamConnection(long inboxId, SseEmitter emitter, Executor executor, int capacity) {
+        this.inboxId = inboxId;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    long getInboxId() {
+        return inboxId;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queue an event for this client, dropping the oldest one if the buffer is full.
+     */
+    void offer(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.size() >= capacity) {
+                buffer.pollFirst();
+                dropped++;
+            }
+            buffer.addLast(event);
+        }
+        scheduleDrain();
+    }
+
+    void close() {
+        closed = true;
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                SseEmitter.SseEventBuilder next;
+                int droppedSinceLastSend;
+                synchronized (buffer) {
+                    next = buffer.pollFirst();
+                    droppedSinceLastSend = dropped;
+                    dropped = 0;
+                }
+                if (next == null) {
+                    break;
+                }
+                if (droppedSinceLastSend > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(droppedSinceLastSend));
+                }
+                emitter.send(next);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the emitter callbacks unregister the connection
+            log.debug("SSE send failed for inbox {}: {}", inboxId, e.getMessage());
+            close();
+            emitter.completeWithError(e);
+        } finally {
+            draining.set(false);
+        }
+
+        // An event may have arrived between the last poll and releasing the flag
+        boolean pending;
+        synchronized (buffer) {
+            pending = !buffer.isEmpty();
+        }
+        if (pending && !closed) {
+            scheduleDrain();
+        }
+    }
+}
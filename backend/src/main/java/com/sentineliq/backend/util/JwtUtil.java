@@ -1,21 +1,31 @@
 package com.sentineliq.backend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 //import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 //import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 
@@ -24,6 +34,10 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secretKey;
 
+    // Max number of recently verified tokens kept in memory (0 disables the cache)
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
 
 
     private static final long ACCESS_TOKEN_EXPIRY = 15*60*1000;
@@ -31,11 +45,32 @@ public class JwtUtil {
 
     private static final long REFRESH_TOKEN_EXPIRY = 7 * 24 * 60 * 60 * 1000; // 7 days
 
+    // Built once from the secret; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // SHA-256(token) -> claims, each entry expires together with its token
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        this.verifiedTokens = verifiedCacheMaxSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedCacheMaxSize)
+                        .expireAfter(new ExpireWithToken())
+                        .build()
+                : null;
+    }
+
     
-     // Generate the signing key using the secret from application.properties
+     // Signing key derived from the secret in application.properties
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     
@@ -53,13 +88,14 @@ public class JwtUtil {
                 .compact();
     }
 
-    // Generate a refresh token (7 days expiry)
+    // Generate a refresh token (7 days expiry) with a unique jti so it can be consumed/revoked
     public String generateRefreshToken(String username) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("username", username);
 
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRY))
                 .signWith(getSigningKey(), io.jsonwebtoken.Jwts.SIG.HS256)
@@ -67,16 +103,67 @@ public class JwtUtil {
     }
 
 
+    /**
+     * Verify the token signature and expiry and return its claims.
+     * Tokens that verified recently are answered from an in-memory cache keyed by the
+     * token's SHA-256, so the usual "same access token on every request" case skips
+     * both the HMAC check and the JSON parsing. Entries never outlive the token itself.
+     */
     public Claims validateToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (verifiedTokens == null) {
+            return parseAndVerify(token);
+        }
+
+        ByteBuffer cacheKey = hashToken(token);
+        Claims cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parseAndVerify(token);
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    // Full signature check + payload parse, without touching the cache
+    Claims parseAndVerify(String token) {
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    private static ByteBuffer hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to ship SHA-256
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Expire each cached entry at the moment the token itself expires
+    private static final class ExpireWithToken implements Expiry<ByteBuffer, Claims> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 
    
-     // Rotate the refresh token (invalidate the old one)
+     // Issue a fresh refresh token for the same user.
+     // This does not revoke the old one: use RefreshTokenService.consume() for that.
     public String rotateRefreshToken(String oldToken) {
         try {
             Claims claims = validateToken(oldToken);
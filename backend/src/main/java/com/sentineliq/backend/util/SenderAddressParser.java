@@ -0,0 +1,106 @@
+package com.sentineliq.backend.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parses raw "From" header values into display name, address and registrable domain.
+ *
+ *   "Jane Doe" <Jane.Doe@Example.com>  ->  (Jane Doe, jane.doe@example.com, example.com)
+ *   alerts@mail.bank.co.uk             ->  (alerts@mail.bank.co.uk, alerts@mail.bank.co.uk, bank.co.uk)
+ *   (Unknown Sender)                   ->  ((Unknown Sender), "", "")
+ *
+ * The registrable domain is approximated with a short list of common multi-part suffixes
+ * instead of the full public suffix list. This is the only copy of that list: the one-time
+ * migration of old emails also goes through registrableDomain (see PostgresSchemaInitializer).
+ */
+public final class SenderAddressParser {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Second-level suffixes under which registrations happen one label deeper
+    private static final Set<String> MULTI_PART_SUFFIXES = Set.of(
+            "co.uk", "org.uk", "ac.uk", "gov.uk", "com.au", "net.au", "org.au", "co.nz",
+            "co.jp", "co.in", "co.za", "com.br", "com.cn", "com.mx", "com.sg", "com.tr");
+
+    private SenderAddressParser() {
+    }
+
+    /**
+     * A parsed sender. address and domain are lowercase ("" when the header has no address);
+     * displayName falls back to the address (or the raw value) when the header has no name.
+     * domain is the registrable domain, so mail.google.com and google.com group together.
+     */
+    public record ParsedSender(String displayName, String address, String domain) {
+    }
+
+    public static ParsedSender parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return new ParsedSender("", "", "");
+        }
+        String value = raw.trim();
+
+        String name;
+        String address;
+        int open = value.lastIndexOf('<');
+        int close = value.lastIndexOf('>');
+        if (open >= 0 && close > open) {
+            address = value.substring(open + 1, close).trim();
+            name = value.substring(0, open).trim();
+        } else if (value.indexOf('@') > 0 && value.indexOf(' ') < 0) {
+            address = value;
+            name = "";
+        } else {
+            address = "";
+            name = value;
+        }
+
+        name = stripQuotes(name);
+        address = address.toLowerCase(Locale.ROOT);
+        int at = address.lastIndexOf('@');
+        String domain = at >= 0 ? registrableDomain(address.substring(at + 1)) : "";
+        if (name.isEmpty()) {
+            name = address;
+        }
+        return new ParsedSender(name, address, domain);
+    }
+
+    /**
+     * Lowercase, accent-free form used for matching ("Zoë" -> "zoe").
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Registrable part of a host name ("mail.bank.co.uk" -> "bank.co.uk").
+     */
+    public static String registrableDomain(String host) {
+        if (host == null) {
+            return "";
+        }
+        String[] labels = host.toLowerCase(Locale.ROOT).split("\\.");
+        int n = labels.length;
+        if (n <= 2) {
+            return String.join(".", labels);
+        }
+        String lastTwo = labels[n - 2] + "." + labels[n - 1];
+        if (MULTI_PART_SUFFIXES.contains(lastTwo)) {
+            return labels[n - 3] + "." + lastTwo;
+        }
+        return lastTwo;
+    }
+
+    private static String stripQuotes(String name) {
+        if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1).trim();
+        }
+        return name;
+    }
+}
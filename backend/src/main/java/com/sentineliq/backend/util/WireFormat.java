@@ -0,0 +1,72 @@
+package com.sentineliq.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Response encodings for endpoints that write JSON themselves (pre-rendered or streamed bodies)
+ * instead of going through Spring's message converters.
+ *
+ * All three share Jackson's streaming API, so the same JsonGenerator code writes any of them.
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, new JsonFactory()),
+    SMILE(new MediaType("application", "x-jackson-smile"), new SmileFactory()),
+    CBOR(MediaType.APPLICATION_CBOR, new CBORFactory());
+
+    private final MediaType mediaType;
+    private final JsonFactory factory;
+
+    WireFormat(MediaType mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    // Factories are thread-safe and meant to be shared
+    public JsonFactory factory() {
+        return factory;
+    }
+
+    /**
+     * The format the client prefers, by Accept quality; JSON when the header is missing,
+     * unparseable or only lists types we don't produce.
+     */
+    public static WireFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // Stable sort: among equal qualities the client's order wins
+        List<MediaType> byQuality = accepted.stream()
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .toList();
+        for (MediaType type : byQuality) {
+            if (type.getQualityValue() == 0) {
+                break;
+            }
+            for (WireFormat format : values()) {
+                // Wildcards match JSON first, since values() starts with it
+                if (type.includes(format.mediaType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,259 @@
+-- PostgreSQL-only schema additions, applied on startup by PostgresSchemaInitializer.
+-- Tables and plain columns come from the JPA entities (ddl-auto); this file adds what JPA can't express.
+-- Every statement must be idempotent. Statements are separated by "^;".
+
+-- ============================================================
+-- Senders table (emails.sender_id -> senders)
+-- ============================================================
+
+-- Replaced by SenderAddressParser.registrableDomain (see PostgresSchemaInitializer)
+DROP FUNCTION IF EXISTS sender_registrable_domain(text)
+^;
+
+-- One-time migration from the old raw emails.sender column: create sender rows,
+-- point emails at them with their own display name, then drop the column. Skipped once the column is gone.
+-- domain is left as the full host here; PostgresSchemaInitializer then reduces it to the
+-- registrable domain with SenderAddressParser, the same code ingest uses.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'emails' AND column_name = 'sender') THEN
+
+        -- The search trigger listed the old column; it is recreated below
+        DROP TRIGGER IF EXISTS emails_search_vector_trg ON emails;
+
+        CREATE TEMP TABLE parsed_senders ON COMMIT DROP AS
+        SELECT raw,
+               left(lower(trim(coalesce(substring(raw FROM '<([^<>]*)>\s*$'), raw))), 320) AS address,
+               nullif(trim(both ' "' FROM substring(raw FROM '^(.*)<')), '') AS display_name
+        FROM (SELECT DISTINCT sender AS raw FROM emails WHERE sender IS NOT NULL) raw_senders;
+
+        INSERT INTO senders (address, domain)
+        SELECT DISTINCT ON (address)
+               address,
+               CASE WHEN position('@' IN address) > 0
+                    THEN substring(address FROM '@([^@]*)$') ELSE '' END
+        FROM parsed_senders
+        ORDER BY address
+        ON CONFLICT (address) DO NOTHING;
+
+        UPDATE emails e
+        SET sender_id = s.id, sender_name = left(p.display_name, 255)
+        FROM parsed_senders p
+        JOIN senders s ON s.address = p.address
+        WHERE e.sender = p.raw AND e.sender_id IS NULL;
+
+        ALTER TABLE emails DROP COLUMN sender;
+    END IF;
+END
+$$
+^;
+
+-- One-time move of display names from senders to emails (each email keeps the name it was
+-- sent with). Rows migrated before only have the sender's first name seen; it is the best
+-- there is. Skipped once senders.display_name is gone.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'senders' AND column_name = 'display_name') THEN
+        UPDATE emails e
+        SET sender_name = s.display_name
+        FROM senders s
+        WHERE s.id = e.sender_id AND e.sender_name IS NULL AND s.display_name <> s.address;
+
+        ALTER TABLE senders DROP COLUMN display_name;
+    END IF;
+END
+$$
+^;
+
+-- ============================================================
+-- Full-text search over emails (subject > sender > body)
+-- ============================================================
+
+ALTER TABLE emails ADD COLUMN IF NOT EXISTS search_vector tsvector
+^;
+
+-- Maintained at ingest: recomputed whenever the searchable columns are written.
+-- Sender (the email's display name and the address from senders) uses the 'simple' config so they are not stemmed.
+-- Bodies are capped to keep very large messages from dominating ingest time.
+CREATE OR REPLACE FUNCTION emails_search_vector_update() RETURNS trigger AS $$
+DECLARE
+    sender_text text;
+BEGIN
+    SELECT coalesce(NEW.sender_name, '') || ' ' || s.address INTO sender_text FROM senders s WHERE s.id = NEW.sender_id;
+    NEW.search_vector :=
+        setweight(to_tsvector('english', coalesce(NEW.subject, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(sender_text, '')), 'B') ||
+        setweight(to_tsvector('english', left(coalesce(NEW.plain_text_body, ''), 100000)), 'C');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql
+^;
+
+-- Rows ingested before the trigger existed are backfilled when it is created, so this
+-- runs once rather than scanning emails on every startup
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'emails_search_vector_trg') THEN
+        CREATE TRIGGER emails_search_vector_trg
+            BEFORE INSERT OR UPDATE OF subject, sender_id, plain_text_body ON emails
+            FOR EACH ROW EXECUTE FUNCTION emails_search_vector_update();
+
+        UPDATE emails SET subject = subject WHERE search_vector IS NULL;
+    END IF;
+END
+$$
+^;
+
+CREATE INDEX IF NOT EXISTS idx_emails_search_vector ON emails USING GIN (search_vector)
+^;
+
+-- ============================================================
+-- Change sequence for the delta "changes since" API
+-- ============================================================
+
+-- Shared by emails.change_seq and email_tombstones.change_seq, so one cursor covers both
+CREATE SEQUENCE IF NOT EXISTS email_change_seq
+^;
+
+-- Sequence values are taken at write time, not commit time, so a cursor can't be a bare
+-- sequence position: a transaction committing late with a lower value would be skipped.
+-- Each change also records its transaction ID, and readers only return changes from
+-- transactions below the snapshot xmin, in (change_xid, change_seq) order.
+CREATE OR REPLACE FUNCTION emails_change_seq_update() RETURNS trigger AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    NEW.change_seq := nextval('email_change_seq');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql
+^;
+
+-- Inserts always count; updates only when spam/trust actually changed
+-- (JPA rewrites every column on update, so UPDATE OF alone isn't enough)
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'emails_change_seq_ins_trg') THEN
+        CREATE TRIGGER emails_change_seq_ins_trg
+            BEFORE INSERT ON emails
+            FOR EACH ROW EXECUTE FUNCTION emails_change_seq_update();
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'emails_change_seq_upd_trg') THEN
+        CREATE TRIGGER emails_change_seq_upd_trg
+            BEFORE UPDATE OF is_spam, trust_score ON emails
+            FOR EACH ROW
+            WHEN (OLD.is_spam IS DISTINCT FROM NEW.is_spam OR OLD.trust_score IS DISTINCT FROM NEW.trust_score)
+            EXECUTE FUNCTION emails_change_seq_update();
+    END IF;
+END
+$$
+^;
+
+-- No tombstones for emails of an inbox being deleted: nobody will ask for its changes again
+CREATE OR REPLACE FUNCTION emails_write_tombstone() RETURNS trigger AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM email_accounts WHERE id = OLD.email_account_id AND deleting) THEN
+        RETURN OLD;
+    END IF;
+    INSERT INTO email_tombstones (email_id, email_account_id, change_xid, change_seq, deleted_at)
+    VALUES (OLD.id, OLD.email_account_id, pg_current_xact_id()::text::bigint, nextval('email_change_seq'), now())
+    ON CONFLICT (email_id) DO NOTHING;
+    RETURN OLD;
+END
+$$ LANGUAGE plpgsql
+^;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'emails_tombstone_trg') THEN
+        CREATE TRIGGER emails_tombstone_trg
+            AFTER DELETE ON emails
+            FOR EACH ROW EXECUTE FUNCTION emails_write_tombstone();
+    END IF;
+END
+$$
+^;
+
+DROP INDEX IF EXISTS idx_emails_account_change_seq
+^;
+
+DROP INDEX IF EXISTS idx_email_tombstones_account_seq
+^;
+
+-- Backfilled once, when the index is first created (JPA adds the columns themselves), so startup
+-- doesn't scan emails every time. Rows stored before the sequence existed get a position, and
+-- changes recorded before transaction IDs were kept are long committed, so they sort first.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'idx_emails_account_change') THEN
+        UPDATE emails SET change_seq = nextval('email_change_seq') WHERE change_seq IS NULL;
+        UPDATE emails SET change_xid = 0 WHERE change_xid IS NULL;
+        UPDATE email_tombstones SET change_xid = 0 WHERE change_xid IS NULL;
+        CREATE INDEX idx_emails_account_change ON emails (email_account_id, change_xid, change_seq);
+    END IF;
+END
+$$
+^;
+
+-- ============================================================
+-- Conversation summaries (email_threads)
+-- ============================================================
+
+-- Emails stored before thread IDs were kept: each becomes a one-message thread, keyed by its
+-- Gmail message ID. New emails always carry Gmail's thread ID, so this runs once, while
+-- email_threads is still empty, instead of scanning emails for a NULL thread_id on every startup.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM email_threads) THEN
+        INSERT INTO email_threads (email_account_id, gmail_thread_id, latest_email_id, latest_subject,
+                                   latest_sender, latest_at, message_count, participants,
+                                   spam_count, min_trust_score)
+        SELECT e.email_account_id,
+               e.gmail_message_id,
+               e.id,
+               e.subject,
+               CASE WHEN e.sender_name IS NULL OR e.sender_name = '' OR e.sender_name = s.address
+                    THEN s.address ELSE e.sender_name || ' <' || s.address || '>' END,
+               e.received_at,
+               1,
+               CASE WHEN position('@' IN s.address) > 0 THEN s.address END,
+               CASE WHEN e.is_spam THEN 1 ELSE 0 END,
+               e.trust_score
+        FROM emails e
+        LEFT JOIN senders s ON s.id = e.sender_id
+        WHERE e.thread_id IS NULL
+        ON CONFLICT (email_account_id, gmail_thread_id) DO NOTHING;
+
+        UPDATE emails SET thread_id = gmail_message_id WHERE thread_id IS NULL;
+    END IF;
+END
+$$
+^;
+
+-- Stats rollups start empty: build them once from the emails already stored.
+-- Later syncs and re-scores keep them up to date (see InboxStatsService).
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM inbox_stats) THEN
+        INSERT INTO inbox_stats (email_account_id, granularity, bucket_start, email_count, spam_count,
+                                 trust_score_sum, trust_score_count)
+        SELECT email_account_id, 'HOUR', date_trunc('hour', received_at), COUNT(*),
+               COUNT(*) FILTER (WHERE is_spam), COALESCE(SUM(trust_score), 0), COUNT(trust_score)
+        FROM emails
+        WHERE received_at IS NOT NULL
+        GROUP BY email_account_id, date_trunc('hour', received_at)
+        ON CONFLICT (email_account_id, granularity, bucket_start) DO NOTHING;
+
+        INSERT INTO inbox_stats (email_account_id, granularity, bucket_start, email_count, spam_count,
+                                 trust_score_sum, trust_score_count)
+        SELECT email_account_id, 'DAY', date_trunc('day', bucket_start), SUM(email_count),
+               SUM(spam_count), SUM(trust_score_sum), SUM(trust_score_count)
+        FROM inbox_stats
+        WHERE granularity = 'HOUR'
+        GROUP BY email_account_id, date_trunc('day', bucket_start)
+        ON CONFLICT (email_account_id, granularity, bucket_start) DO NOTHING;
+    END IF;
+END
+$$
+^;
@@ -0,0 +1,157 @@
+package com.sentineliq.backend.analytics;
+
+import com.sentineliq.backend.event.BurstDetectedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.DomainCountRow;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BurstDetectionServiceTest {
+
+    @Mock
+    private InboxStatsRepository statsRepository; // Mocked repository
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher; // Mocked event publisher
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private BurstDetectionService service(boolean enabled) {
+        return new BurstDetectionService(statsRepository, emailRepository, eventPublisher, meterRegistry,
+                enabled, 100, 168, 4, 20, 10, 256, 30);
+    }
+
+    private static Email email(String domain, LocalDateTime receivedAt) {
+        return Email.builder()
+                .senderRef(Sender.builder().address("x@" + domain).domain(domain).build())
+                .receivedAt(receivedAt)
+                .trustScore(100)
+                .build();
+    }
+
+    // Arrivals a millisecond apart from now on; the Date header says the same
+    private static List<Email> wave(BurstDetectionService service, String domain, int messages) {
+        Instant now = Instant.now();
+        List<Email> emails = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            Email email = email(domain, LocalDateTime.now());
+            service.inspect(1L, email, now.plusMillis(i));
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    @Test
+    void testBurstLowersTrustScoreAndRaisesOneAlert() {
+        List<Email> emails = wave(service(true), "phish.example", 12);
+
+        assertEquals(100, emails.get(8).getTrustScore());
+        assertEquals(70, emails.get(9).getTrustScore());
+        assertEquals(70, emails.get(11).getTrustScore());
+
+        ArgumentCaptor<BurstDetectedEvent> event = ArgumentCaptor.forClass(BurstDetectedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getInboxId());
+        assertEquals("phish.example", event.getValue().getDomain());
+        assertEquals(1.0, meterRegistry.get("ingest.bursts").counter().count());
+    }
+
+    @Test
+    void testFutureArrivalDoesNotDisableDetection() {
+        BurstDetectionService service = service(true);
+        Email spoofed = email("spoof.example", LocalDateTime.now().plusYears(10));
+        service.inspect(1L, spoofed, Instant.now().plus(Duration.ofDays(3650)));
+
+        List<Email> emails = wave(service, "phish.example", 12);
+
+        // Taken as arriving now, so the wave after it is still counted in the current hour
+        assertEquals(100, spoofed.getTrustScore());
+        assertEquals(70, emails.get(11).getTrustScore());
+        verify(eventPublisher, times(1)).publishEvent(any(BurstDetectedEvent.class));
+    }
+
+    @Test
+    void testDateHeaderIsIgnored() {
+        BurstDetectionService service = service(true);
+        List<Email> emails = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            // Each message claims a different, far-apart time; all arrived now
+            Email email = email("phish.example", LocalDateTime.now().minusDays(i * 30L));
+            service.inspect(1L, email, null);
+            emails.add(email);
+        }
+
+        assertEquals(70, emails.get(11).getTrustScore());
+    }
+
+    @Test
+    void testKnownBusyDomainIsNotABurst() {
+        DomainCountRow row = mock(DomainCountRow.class);
+        when(row.getDomain()).thenReturn("news.example");
+        when(row.getEmails()).thenReturn(7L * 24 * 12); // 12 an hour over the last week
+        when(emailRepository.countByDomainSince(eq(1L), any(), any())).thenReturn(List.of(row));
+
+        List<Email> emails = wave(service(true), "news.example", 15);
+
+        assertTrue(emails.stream().allMatch(email -> email.getTrustScore() == 100));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testWarmStartFailureDoesNotBlockIngest() {
+        when(statsRepository.findRange(anyLong(), any(), any(), any())).thenThrow(new RuntimeException("db down"));
+
+        List<Email> emails = wave(service(true), "phish.example", 12);
+
+        assertEquals(70, emails.get(11).getTrustScore());
+    }
+
+    @Test
+    void testDisabledLeavesMessagesAlone() {
+        List<Email> emails = wave(service(false), "phish.example", 12);
+
+        assertTrue(emails.stream().allMatch(email -> email.getTrustScore() == 100));
+        verifyNoInteractions(statsRepository, emailRepository, eventPublisher);
+    }
+
+    @Test
+    void testDeletedInboxStartsOver() {
+        BurstDetectionService service = service(true);
+        wave(service, "phish.example", 5);
+
+        service.onInboxDeleted(new InboxDeletedEvent(1L, 7L));
+        wave(service, "phish.example", 5);
+
+        // Two detectors were built, and neither saw ten messages
+        verify(statsRepository, times(2)).findRange(eq(1L), any(), any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,129 @@
+package com.sentineliq.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BurstDetectorTest {
+
+    private static final BurstDetector.Settings SETTINGS = new BurstDetector.Settings(4, 20, 10, 64);
+    private static final LocalDateTime START = LocalDateTime.of(2024, 4, 1, 0, 0);
+    private static final int HISTORY_HOURS = 21 * 24;
+
+    // Three weeks of five messages an hour, one from each of five regular domains
+    private static BurstDetector steady() {
+        BurstDetector detector = new BurstDetector(SETTINGS);
+        for (int hour = 0; hour < HISTORY_HOURS; hour++) {
+            for (int i = 0; i < 5; i++) {
+                assertFalse(detector.observe(START.plusHours(hour).plusMinutes(i), "regular" + i + ".com").burst());
+            }
+        }
+        return detector;
+    }
+
+    private static List<BurstDetector.Observation> hour(BurstDetector detector, int hour, int messages, String domain) {
+        List<BurstDetector.Observation> observations = new ArrayList<>();
+        for (int i = 0; i < messages; i++) {
+            String from = domain != null ? domain : "regular" + (i % 5) + ".com";
+            observations.add(detector.observe(START.plusHours(hour).plusSeconds(i), from));
+        }
+        return observations;
+    }
+
+    @Test
+    void testNormalVariationIsNotABurst() {
+        BurstDetector detector = steady();
+
+        assertTrue(hour(detector, HISTORY_HOURS, 12, null).stream().noneMatch(BurstDetector.Observation::burst));
+    }
+
+    @Test
+    void testInboxVolumeBurstIsFlaggedOncePerHour() {
+        BurstDetector detector = steady();
+
+        List<BurstDetector.Observation> observations = hour(detector, HISTORY_HOURS, 60, null);
+
+        // Flagged from the 20th message (the minimum) on
+        assertFalse(observations.get(18).burst());
+        assertTrue(observations.get(19).burst());
+        assertTrue(observations.get(59).burst());
+        // Each regular domain also sends 12x its usual rate, so those are raised too, once each
+        List<BurstDetector.Alert> alerts = observations.stream().flatMap(o -> o.alerts().stream()).toList();
+        List<BurstDetector.Alert> inboxAlerts = alerts.stream().filter(alert -> alert.domain() == null).toList();
+        assertEquals(1, inboxAlerts.size());
+        assertEquals(START.plusHours(HISTORY_HOURS), inboxAlerts.get(0).hourStart());
+        assertEquals(5.0, inboxAlerts.get(0).expected(), 0.01);
+        assertEquals(5, alerts.stream().filter(alert -> alert.domain() != null).map(BurstDetector.Alert::domain).distinct().count());
+        assertEquals(6, alerts.size());
+    }
+
+    @Test
+    void testWaveFromNewDomainIsFlagged() {
+        BurstDetector detector = steady();
+        hour(detector, HISTORY_HOURS, 5, null);
+
+        List<BurstDetector.Observation> wave = hour(detector, HISTORY_HOURS, 12, "phish.example");
+
+        assertFalse(wave.get(8).burst());
+        assertTrue(wave.get(9).burst());
+        List<BurstDetector.Alert> alerts = wave.stream().flatMap(o -> o.alerts().stream()).toList();
+        assertEquals(1, alerts.size());
+        assertEquals("phish.example", alerts.get(0).domain());
+        assertEquals(10, alerts.get(0).count());
+    }
+
+    @Test
+    void testNextHourStartsOver() {
+        BurstDetector detector = steady();
+        hour(detector, HISTORY_HOURS, 12, "phish.example");
+
+        // A few more the next hour: flagged again only once the count is high again
+        assertFalse(detector.observe(START.plusHours(HISTORY_HOURS + 1), "phish.example").burst());
+    }
+
+    @Test
+    void testFreshDetectorOnlyFlagsDomainWaves() {
+        BurstDetector detector = new BurstDetector(SETTINGS);
+
+        // No baseline yet: a busy first hour from many domains is not a burst
+        for (int i = 0; i < 50; i++) {
+            assertFalse(detector.observe(START.plusSeconds(i), "domain" + i + ".com").burst());
+        }
+        assertTrue(hour(detector, 0, 10, "phish.example").get(9).burst());
+    }
+
+    @Test
+    void testWarmStartRaisesBaseline() {
+        BurstDetector detector = new BurstDetector(SETTINGS);
+        for (int hour = 0; hour < HISTORY_HOURS; hour++) {
+            detector.seedHour(START.plusHours(hour), 50);
+        }
+        for (int i = 0; i < 5; i++) {
+            detector.seedDomain("regular" + i + ".com", 10, START.plusHours(HISTORY_HOURS));
+        }
+
+        assertTrue(hour(detector, HISTORY_HOURS, 60, null).stream().noneMatch(BurstDetector.Observation::burst));
+    }
+
+    @Test
+    void testLateMessagesAreNotScored() {
+        BurstDetector detector = steady();
+        hour(detector, HISTORY_HOURS, 60, null);
+
+        assertFalse(detector.observe(START.plusHours(HISTORY_HOURS - 1), "regular0.com").burst());
+    }
+
+    @Test
+    void testTrackedDomainsAreBounded() {
+        BurstDetector detector = new BurstDetector(SETTINGS);
+        for (int i = 0; i < 1_000; i++) {
+            detector.observe(START.plusSeconds(i), "domain" + i + ".com");
+        }
+
+        assertEquals(SETTINGS.maxDomains(), detector.trackedDomains());
+    }
+}
@@ -0,0 +1,61 @@
+package com.sentineliq.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog sketch(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add("user" + i + "@example.com");
+        }
+        return sketch;
+    }
+
+    @Test
+    void testEmptySketchCountsZero() {
+        assertEquals(0, new HyperLogLog().estimate());
+        assertTrue(new HyperLogLog().isEmpty());
+    }
+
+    @Test
+    void testSmallCountsAreNearlyExact() {
+        HyperLogLog sketch = sketch(0, 500);
+        sketch.merge(sketch(0, 500)); // Duplicates do not count
+
+        assertEquals(500, sketch.estimate(), 10);
+    }
+
+    @Test
+    void testLargeCountsStayWithinThreeStandardErrors() {
+        long estimate = sketch(0, 200_000).estimate();
+
+        // Standard error 2.3%
+        assertEquals(200_000, estimate, 200_000 * 0.07, "estimated " + estimate);
+    }
+
+    @Test
+    void testMergeEqualsSketchOfUnion() {
+        HyperLogLog left = sketch(0, 30_000);
+        left.merge(sketch(20_000, 50_000));
+
+        assertEquals(sketch(0, 50_000), left);
+    }
+
+    @Test
+    void testBytesRoundTrip() {
+        HyperLogLog sketch = sketch(0, 10_000);
+        byte[] bytes = sketch.toBytes();
+
+        assertEquals(1 + HyperLogLog.REGISTERS * 6 / 8, bytes.length);
+        assertEquals(sketch, HyperLogLog.fromBytes(bytes));
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(bytes).estimate());
+    }
+
+    @Test
+    void testCorruptBytesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[10]));
+    }
+}
@@ -0,0 +1,220 @@
+package com.sentineliq.backend.analytics;
+
+import com.sentineliq.backend.dto.SenderCount;
+import com.sentineliq.backend.dto.SenderStats;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.model.User;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.SenderRepository;
+import com.sentineliq.backend.repository.SenderSketchRepository;
+import com.sentineliq.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares sketch answers with exact SQL over the same synthetic emails.
+ */
+@SpringBootTest(properties = "analytics.sender-sketch.flush-interval-ms=3600000") // Flush only when the test says so
+@Transactional // Roll back DB changes after each test
+class SenderStatsServiceTest {
+
+    @Autowired
+    private SenderStatsService senderStatsService;
+
+    @Autowired
+    private SenderSketchRepository sketchRepository;
+
+    @Autowired
+    private EmailRepository emailRepository;
+
+    @Autowired
+    private EmailAccountRepository emailAccountRepository;
+
+    @Autowired
+    private SenderRepository senderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EmailAccount inboxA;
+    private EmailAccount inboxB;
+
+    private static final String EXACT_TOP = """
+            SELECT s.address, COUNT(*) FROM emails e JOIN senders s ON s.id = e.sender_id
+            WHERE e.email_account_id IN (%s) AND e.received_at >= ?
+            GROUP BY s.address ORDER BY COUNT(*) DESC, s.address
+            """;
+
+    private static final String EXACT_DISTINCT = """
+            SELECT COUNT(DISTINCT e.sender_id) FROM emails e
+            WHERE e.email_account_id IN (%s) AND e.received_at >= ?
+            """;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .email("sketches@example.com")
+                .name("Sketch User")
+                .password("securepassword")
+                .username("sketchuser")
+                .role("USER")
+                .createdAt(LocalDateTime.now())
+                .build());
+        inboxA = emailAccountRepository.save(account(user, "a@example.com"));
+        inboxB = emailAccountRepository.save(account(user, "b@example.com"));
+
+        List<Sender> senders = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            senders.add(Sender.builder()
+                    .address("sender" + i + "@domain" + (i % 20) + ".com")
+                    .domain("domain" + (i % 20) + ".com")
+                    .build());
+        }
+        senderRepository.saveAll(senders);
+
+        Random random = new Random(42);
+        // Zipf-like volumes over the last four days; B shares senders 100..299 with A
+        ingest(inboxA, senders.subList(0, 300), 400, random);
+        ingest(inboxB, senders.subList(100, 400), 200, random);
+
+        // Older mail, outside a 7-day window
+        List<Email> old = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            old.add(email(inboxA, senders.get(399 - i), LocalDateTime.now().minusDays(20), "old" + i));
+        }
+        emailRepository.saveAll(old);
+        senderStatsService.onEmailsIngested(new EmailsIngestedEvent(inboxA.getId(), user.getId(), old));
+
+        emailRepository.flush();
+        senderStatsService.flush();
+    }
+
+    private static EmailAccount account(User user, String address) {
+        EmailAccount account = new EmailAccount();
+        account.setEmailAddress(address);
+        account.setProvider("Gmail");
+        account.setUser(user);
+        return account;
+    }
+
+    private static Email email(EmailAccount inbox, Sender sender, LocalDateTime receivedAt, String gmailId) {
+        return Email.builder()
+                .emailAccount(inbox)
+                .senderRef(sender)
+                .sender(sender.getAddress())
+                .subject("Hello")
+                .gmailMessageId(gmailId)
+                .receivedAt(receivedAt)
+                .isSpam(false)
+                .trustScore(100)
+                .build();
+    }
+
+    private void ingest(EmailAccount inbox, List<Sender> senders, int scale, Random random) {
+        List<Email> emails = new ArrayList<>();
+        for (int i = 0; i < senders.size(); i++) {
+            for (int n = 0; n <= scale / (i + 1); n++) {
+                emails.add(email(inbox, senders.get(i), LocalDateTime.now().minusHours(random.nextInt(96)),
+                        inbox.getId() + "-" + i + "-" + n));
+            }
+        }
+        Collections.shuffle(emails, random);
+        emailRepository.saveAll(emails);
+        senderStatsService.onEmailsIngested(new EmailsIngestedEvent(inbox.getId(), inbox.getUser().getId(), emails));
+    }
+
+    private void assertMatchesSql(List<Long> inboxIds, SenderStats stats) {
+        String ids = inboxIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        Timestamp from = Timestamp.valueOf(LocalDate.now().minusDays(6).atStartOfDay());
+
+        List<Object[]> exact = jdbcTemplate.query(EXACT_TOP.formatted(ids),
+                (rs, n) -> new Object[]{rs.getString(1), rs.getLong(2)}, from);
+        long total = exact.stream().mapToLong(row -> (Long) row[1]).sum();
+        long distinct = jdbcTemplate.queryForObject(EXACT_DISTINCT.formatted(ids), Long.class, from);
+
+        assertEquals(total, stats.getEmails()); // Email counts are exact
+        assertEquals(distinct, stats.getDistinctSenders(), distinct * 0.05, "distinct senders");
+
+        // The heaviest senders come out in the exact order
+        List<String> exactTop = exact.stream().limit(5).map(row -> (String) row[0]).toList();
+        assertEquals(exactTop, stats.getTopSenders().stream().limit(5).map(SenderCount::getAddress).toList());
+
+        // Each count brackets the exact one, within N / capacity
+        for (SenderCount sender : stats.getTopSenders()) {
+            long actual = exact.stream()
+                    .filter(row -> row[0].equals(sender.getAddress()))
+                    .mapToLong(row -> (Long) row[1])
+                    .findFirst()
+                    .orElse(0);
+            assertTrue(sender.getCount() >= actual, sender + " vs " + actual);
+            assertTrue(sender.getCount() - sender.getMaxError() <= actual, sender + " vs " + actual);
+            assertTrue(sender.getMaxError() <= total / 64, sender + " error above N/m");
+        }
+    }
+
+    @Test
+    void testSingleInboxMatchesExactSql() {
+        SenderStats stats = senderStatsService.stats(List.of(inboxA.getId()), 7, 10);
+
+        assertEquals(10, stats.getTopSenders().size());
+        assertMatchesSql(List.of(inboxA.getId()), stats);
+    }
+
+    @Test
+    void testUnifiedViewMergesInboxes() {
+        List<Long> both = List.of(inboxA.getId(), inboxB.getId());
+
+        assertMatchesSql(both, senderStatsService.stats(both, 7, 10));
+    }
+
+    @Test
+    void testWindowIncludesOlderDays() {
+        SenderStats month = senderStatsService.stats(List.of(inboxA.getId()), 30, 10);
+        SenderStats week = senderStatsService.stats(List.of(inboxA.getId()), 7, 10);
+
+        assertEquals(week.getEmails() + 50, month.getEmails());
+    }
+
+    @Test
+    void testPendingCountsAreMergedIntoStoredDays() {
+        long before = senderStatsService.stats(List.of(inboxA.getId()), 7, 10).getEmails();
+        Sender sender = senderRepository.save(Sender.builder()
+                .address("late@example.com").domain("example.com").build());
+        Email late = email(inboxA, sender, LocalDateTime.now(), "late");
+
+        senderStatsService.onEmailsIngested(new EmailsIngestedEvent(inboxA.getId(), inboxA.getUser().getId(), List.of(late)));
+        assertEquals(before + 1, senderStatsService.stats(List.of(inboxA.getId()), 7, 10).getEmails()); // Not stored yet
+
+        senderStatsService.flush();
+        assertEquals(before + 1, senderStatsService.stats(List.of(inboxA.getId()), 7, 10).getEmails()); // Counted once
+        assertEquals(1, sketchRepository.findRange(List.of(inboxA.getId()), LocalDate.now(), LocalDate.now()).size());
+    }
+
+    @Test
+    void testInvalidWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> senderStatsService.stats(List.of(inboxA.getId()), 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> senderStatsService.stats(List.of(inboxA.getId()), 365, 10));
+    }
+}
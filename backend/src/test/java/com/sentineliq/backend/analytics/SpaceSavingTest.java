@@ -0,0 +1,97 @@
+package com.sentineliq.backend.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    // Zipf-like stream: value i occurs about 1000 / (i + 1) times, in random order
+    private static Map<String, Long> stream(SpaceSaving sketch, int values, long seed) {
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(seed);
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < values; i++) {
+            for (int n = 0; n <= 1000 / (i + 1); n++) {
+                order.add("v" + i);
+            }
+        }
+        Collections.shuffle(order, random);
+        for (String value : order) {
+            sketch.add(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+        return exact;
+    }
+
+    private static void assertBounds(SpaceSaving sketch, Map<String, Long> exact) {
+        long maxError = sketch.getTotal() / sketch.getCapacity();
+        for (SpaceSaving.Entry entry : sketch.top(sketch.getCapacity())) {
+            long actual = exact.getOrDefault(entry.value(), 0L);
+            assertTrue(entry.count() >= actual, entry + " underestimates " + actual);
+            assertTrue(entry.count() - entry.error() <= actual, entry + " lower bound above " + actual);
+            assertTrue(entry.error() <= maxError, entry + " error above N/m = " + maxError);
+        }
+        // Every value occurring more than N/m times is kept
+        List<String> kept = sketch.top(sketch.getCapacity()).stream().map(SpaceSaving.Entry::value).toList();
+        exact.forEach((value, count) -> {
+            if (count > maxError) {
+                assertTrue(kept.contains(value), value + " (" + count + ") was dropped");
+            }
+        });
+    }
+
+    @Test
+    void testCountsAreExactWhileCountersAreFree() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        sketch.add("a");
+        sketch.add("b");
+        sketch.add("a");
+
+        assertEquals(List.of(new SpaceSaving.Entry("a", 2, 0), new SpaceSaving.Entry("b", 1, 0)), sketch.top(5));
+        assertEquals(3, sketch.getTotal());
+    }
+
+    @Test
+    void testEvictionKeepsErrorBounds() {
+        SpaceSaving sketch = new SpaceSaving(32);
+        Map<String, Long> exact = stream(sketch, 2_000, 1);
+
+        assertBounds(sketch, exact);
+        assertEquals("v0", sketch.top(1).get(0).value());
+    }
+
+    @Test
+    void testMergeKeepsErrorBounds() {
+        SpaceSaving left = new SpaceSaving(32);
+        SpaceSaving right = new SpaceSaving(32);
+        Map<String, Long> exact = stream(left, 2_000, 1);
+        stream(right, 1_500, 2).forEach((value, count) -> exact.merge(value, count, Long::sum));
+
+        left.merge(right);
+
+        assertBounds(left, exact);
+        assertEquals(exact.values().stream().mapToLong(Long::longValue).sum(), left.getTotal());
+        assertEquals(List.of("v0", "v1", "v2"), left.top(3).stream().map(SpaceSaving.Entry::value).toList());
+    }
+
+    @Test
+    void testBytesRoundTrip() {
+        SpaceSaving sketch = new SpaceSaving(16);
+        stream(sketch, 300, 3);
+
+        SpaceSaving copy = SpaceSaving.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getCapacity(), copy.getCapacity());
+        assertEquals(sketch.getTotal(), copy.getTotal());
+        assertEquals(sketch.top(16), copy.top(16));
+        assertTrue(sketch.toBytes().length < 16 * 16, "serialized " + sketch.toBytes().length + " bytes");
+    }
+}
@@ -0,0 +1,57 @@
+package com.sentineliq.backend.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageCoalescerTest {
+
+    @Test
+    void testBurstForOneInboxBecomesOneMessage() {
+        MessageCoalescer coalescer = new MessageCoalescer("node-a", 100);
+        coalescer.add(ClusterMessage.Type.EMAILS_INGESTED, 1L, 7L, List.of(10L, 11L));
+        coalescer.add(ClusterMessage.Type.EMAILS_INGESTED, 1L, 7L, List.of(11L, 12L));
+
+        List<ClusterMessage> messages = coalescer.drain();
+
+        assertEquals(1, messages.size());
+        ClusterMessage message = messages.get(0);
+        assertEquals("node-a", message.origin());
+        assertEquals(1L, message.inboxId());
+        assertEquals(7L, message.userId());
+        assertEquals(List.of(10L, 11L, 12L), message.emailIds());
+        assertFalse(message.truncated());
+    }
+
+    @Test
+    void testDifferentTypesAndInboxesStaySeparate() {
+        MessageCoalescer coalescer = new MessageCoalescer("node-a", 100);
+        coalescer.add(ClusterMessage.Type.EMAILS_INGESTED, 1L, 7L, List.of(10L));
+        coalescer.add(ClusterMessage.Type.EMAILS_UPDATED, 1L, 7L, List.of(10L));
+        coalescer.add(ClusterMessage.Type.EMAILS_INGESTED, 2L, 7L, List.of(20L));
+
+        assertEquals(3, coalescer.drain().size());
+    }
+
+    @Test
+    void testIdsAreCappedAndMarkedTruncated() {
+        MessageCoalescer coalescer = new MessageCoalescer("node-a", 2);
+        coalescer.add(ClusterMessage.Type.EMAILS_INGESTED, 1L, 7L, List.of(1L, 2L, 3L));
+
+        ClusterMessage message = coalescer.drain().get(0);
+
+        assertEquals(List.of(1L, 2L), message.emailIds());
+        assertTrue(message.truncated());
+    }
+
+    @Test
+    void testDrainEmptiesTheQueue() {
+        MessageCoalescer coalescer = new MessageCoalescer("node-a", 100);
+        coalescer.add(ClusterMessage.Type.INBOX_DELETED, 1L, 7L, null);
+
+        assertEquals(1, coalescer.drain().size());
+        assertTrue(coalescer.drain().isEmpty());
+    }
+}
@@ -4,8 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper; // Import for JSON serializa
 import com.sentineliq.backend.dto.LoginRequest; // Import LoginRequest DTO
 import com.sentineliq.backend.dto.SignupRequest; // Import SignupRequest DTO
 import com.sentineliq.backend.dto.TokenRefreshRequest; // Import TokenRefreshRequest DTO
+import com.sentineliq.backend.dto.UserSummary; // Import cached user snapshot
+import com.sentineliq.backend.exception.GlobalExceptionHandler; // Import exception handler for 429 mapping
+import com.sentineliq.backend.exception.RateLimitExceededException; // Import rate limit exception
 import com.sentineliq.backend.model.User; // Import User entity
 import com.sentineliq.backend.repository.UserRepository; // Import UserRepository
+import com.sentineliq.backend.security.AuthRateLimiter; // Import AuthRateLimiter
+import com.sentineliq.backend.service.RefreshTokenService; // Import RefreshTokenService
+import com.sentineliq.backend.service.UserLookupService; // Import cached user lookups
 import com.sentineliq.backend.util.JwtUtil; // Import JwtUtil for token operations
 
 import io.jsonwebtoken.Claims;
@@ -48,6 +54,15 @@ class AuthenticationControllerTest { // Define the test class
     @Mock
     private JwtUtil jwtUtil; // Mocked JwtUtil
 
+    @Mock
+    private AuthRateLimiter authRateLimiter; // Mocked rate limiter (allows everything by default)
+
+    @Mock
+    private RefreshTokenService refreshTokenService; // Mocked refresh token revocation store
+
+    @Mock
+    private UserLookupService userLookupService; // Mocked cached user lookups
+
     @InjectMocks
     private AuthenticationController authenticationController; // Inject mocks into AuthenticationController
 
@@ -59,7 +74,9 @@ class AuthenticationControllerTest { // Define the test class
         MockitoAnnotations.openMocks(this);
 
         // Set up MockMvc for the controller under test
-        this.mockMvc = MockMvcBuilders.standaloneSetup(authenticationController).build();
+        this.mockMvc = MockMvcBuilders.standaloneSetup(authenticationController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
 
         // Initialize the ObjectMapper for JSON serialization
         this.objectMapper = new ObjectMapper();
@@ -217,6 +234,49 @@ class AuthenticationControllerTest { // Define the test class
             .andExpect(cookie().value("refresh_token", "refresh_token"));
     }
 
+    @Test
+    void testLoginUser_UpgradesOutdatedHash() throws Exception {
+        LoginRequest loginRequest = new LoginRequest("testuser", "validPassword123");
+        User user = new User();
+        user.setUsername("testuser");
+        user.setEmail("test@example.com");
+        user.setPassword("oldCostHash");
+        user.setName("Test User");
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("validPassword123", "oldCostHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldCostHash")).thenReturn(true); // Stored with an older cost
+        when(passwordEncoder.encode("validPassword123")).thenReturn("newCostHash");
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk());
+
+        // The password is re-hashed with the configured cost and saved
+        assertThat(user.getPassword()).isEqualTo("newCostHash");
+        verify(userRepository, times(1)).save(user);
+    }
+
+    @Test
+    void testLoginUser_RateLimited() throws Exception {
+        LoginRequest loginRequest = new LoginRequest("testuser", "guess");
+
+        // Simulate the username being over its limit
+        doThrow(new RateLimitExceededException("Too many attempts, please try again later", 60))
+                .when(authRateLimiter).checkUsername("testuser");
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.message").value("Too many attempts, please try again later"));
+
+        // Rejected before any database lookup or password check
+        verify(userRepository, never()).findByUsername(anyString());
+        verify(passwordEncoder, never()).matches(any(), anyString());
+    }
+
     @Test
     void testLoginUser_InvalidCredentials() throws Exception {
         LoginRequest loginRequest = new LoginRequest("testuser", "wrongpassword");
@@ -253,16 +313,38 @@ class AuthenticationControllerTest { // Define the test class
 
         // Stub the methods
         when(jwtUtil.validateToken("valid_refresh_token")).thenReturn(mockClaims);
+        when(refreshTokenService.consume(mockClaims)).thenReturn(true); // First use of this token
         when(jwtUtil.getUsernameFromToken("valid_refresh_token")).thenReturn("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userLookupService.findByUsername("testuser")).thenReturn(Optional.of(UserSummary.from(user)));
         when(jwtUtil.generateAccessToken("testuser", "USER")).thenReturn("new_access_token");
+        when(jwtUtil.generateRefreshToken("testuser")).thenReturn("new_refresh_token");
 
         mockMvc.perform(post("/api/auth/refresh")
                 .contentType("application/json")
                 .content(objectMapper.writeValueAsString(refreshRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("Token refreshed successfully"))
-                .andExpect(cookie().value("access_token", "new_access_token"));
+                .andExpect(cookie().value("access_token", "new_access_token"))
+                .andExpect(cookie().value("refresh_token", "new_refresh_token")); // Rotated
+    }
+
+    @Test
+    void testRefreshToken_ReusedTokenIsRejected() throws Exception {
+        TokenRefreshRequest refreshRequest = new TokenRefreshRequest("used_refresh_token");
+        Claims mockClaims = mock(Claims.class);
+
+        when(jwtUtil.validateToken("used_refresh_token")).thenReturn(mockClaims);
+        when(refreshTokenService.consume(mockClaims)).thenReturn(false); // Already rotated
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(refreshRequest)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Refresh token has been revoked"));
+
+        // No new tokens are issued for a replayed refresh token
+        verify(jwtUtil, never()).generateAccessToken(anyString(), anyString());
+        verify(jwtUtil, never()).generateRefreshToken(anyString());
     }
 
 
@@ -271,13 +353,16 @@ class AuthenticationControllerTest { // Define the test class
     
    @Test
     void testLogoutUser_Success() throws Exception {
-        mockMvc.perform(post("/api/auth/logout"))
+        mockMvc.perform(post("/api/auth/logout").cookie(new Cookie("refresh_token", "old_refresh_token")))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.message").value("Logged out successfully"))
             .andExpect(cookie().value("access_token", ""))
             .andExpect(cookie().maxAge("access_token", 0))
             .andExpect(cookie().value("refresh_token", ""))
             .andExpect(cookie().maxAge("refresh_token", 0));
+
+        // The refresh token is revoked, not just cleared
+        verify(refreshTokenService, times(1)).revokeQuietly("old_refresh_token");
     }
 
 
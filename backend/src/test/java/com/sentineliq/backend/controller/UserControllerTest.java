@@ -1,16 +1,28 @@
 package com.sentineliq.backend.controller;
 
+import com.sentineliq.backend.model.EmailAccount;
 import com.sentineliq.backend.model.User;
+import com.sentineliq.backend.repository.EmailAccountRepository;
 import com.sentineliq.backend.repository.UserRepository;
+import com.sentineliq.backend.security.AuthRateLimiter;
+import com.sentineliq.backend.service.UserLookupService;
 import com.sentineliq.backend.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -19,23 +31,48 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(UserController.class)
 @AutoConfigureMockMvc(addFilters = false) // 💥 this disables the 401
+@Import({UserLookupService.class, UserControllerTest.MetricsConfig.class}) // Real cache over mocked repositories
 class UserControllerTest {
 
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        @Primary
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private UserLookupService userLookupService;
+
     @MockitoBean
     private JwtUtil jwtUtil;
 
     @MockitoBean
     private UserRepository userRepository;
 
+    @MockitoBean
+    private EmailAccountRepository emailAccountRepository;
+
+    @MockitoBean
+    private AuthRateLimiter authRateLimiter; // AuthRateLimitFilter is part of the web slice
+
+    @BeforeEach
+    void clearCaches() {
+        userLookupService.clear(); // Caches outlive a single test in the shared context
+    }
+
     @Test
     void testGetCurrentUser_Success() throws Exception {
         String token = "valid.jwt.token";
         String username = "jerome";
 
         User mockUser = User.builder()
+                .id(1L)
                 .username(username)
                 .name("Jerome Uwaneme")
                 .build();
@@ -91,7 +128,72 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.error").value("User not found")); // Specific error message
     }
 
-    
+    @Test
+    void testGetCurrentUser_ServedFromCache() throws Exception {
+        String token = "valid.jwt.token";
+        String username = "jerome";
+
+        User mockUser = User.builder()
+                .id(1L)
+                .username(username)
+                .name("Jerome Uwaneme")
+                .build();
+        EmailAccount inbox = EmailAccount.builder()
+                .id(7L)
+                .displayName("jerome@gmail.com")
+                .emailAddress("jerome@gmail.com")
+                .provider("GMAIL")
+                .build();
+
+        when(jwtUtil.validateToken(token)).thenReturn(mock(io.jsonwebtoken.Claims.class));
+        when(jwtUtil.getUsernameFromToken(token)).thenReturn(username);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(mockUser));
+        when(emailAccountRepository.findAllByUserId(1L)).thenReturn(List.of(inbox));
+
+        // Two dashboard loads in a row
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/me").cookie(new Cookie("access_token", token)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.inboxes[0].id").value(7))
+                    .andExpect(jsonPath("$.inboxes[0].isPrimary").value(false));
+        }
+
+        // Only the first one reached the database
+        verify(userRepository, times(1)).findByUsername(username);
+        verify(emailAccountRepository, times(1)).findAllByUserId(1L);
+    }
+
+    @Test
+    void testGetCurrentUser_InboxListRefreshedAfterEviction() throws Exception {
+        String token = "valid.jwt.token";
+        String username = "jerome";
+
+        User mockUser = User.builder()
+                .id(1L)
+                .username(username)
+                .name("Jerome Uwaneme")
+                .build();
+
+        when(jwtUtil.validateToken(token)).thenReturn(mock(io.jsonwebtoken.Claims.class));
+        when(jwtUtil.getUsernameFromToken(token)).thenReturn(username);
+        when(userRepository.findByUsername(username)).thenReturn(Optional.of(mockUser));
+        when(emailAccountRepository.findAllByUserId(1L)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/me").cookie(new Cookie("access_token", token)))
+                .andExpect(jsonPath("$.inboxes").isEmpty());
+
+        // A new inbox gets linked, which evicts the cached list
+        when(emailAccountRepository.findAllByUserId(1L)).thenReturn(List.of(EmailAccount.builder()
+                .id(8L)
+                .displayName("new@gmail.com")
+                .emailAddress("new@gmail.com")
+                .provider("GMAIL")
+                .build()));
+        userLookupService.evictInboxes(1L);
+
+        mockMvc.perform(get("/api/me").cookie(new Cookie("access_token", token)))
+                .andExpect(jsonPath("$.inboxes[0].id").value(8));
+    }
 
 
 
@@ -86,4 +86,16 @@ class EmailTest { // Define the test class
                 .build(); // Build the Email object
         assertEquals(150, email.getTrustScore()); // Assert trust score is 150
     }
+
+    @Test // Mark this method as a test
+    void testStoredEmailKeepsItsOwnDisplayName() { // Same address, different names per message
+        Sender sender = Sender.builder().address("x@evil.example").domain("evil.example").build(); // Shared sender row
+        Email first = Email.builder().senderRef(sender).senderName("PayPal Support").build(); // Loaded email, no raw header
+        Email second = Email.builder().senderRef(sender).senderName("Your Bank").build(); // Same sender, new name
+        Email bare = Email.builder().senderRef(sender).build(); // Header without a display name
+
+        assertEquals("PayPal Support <x@evil.example>", first.getSender()); // Assert first name is kept
+        assertEquals("Your Bank <x@evil.example>", second.getSender()); // Assert second name is kept
+        assertEquals("x@evil.example", bare.getSender()); // Assert bare address
+    }
 }
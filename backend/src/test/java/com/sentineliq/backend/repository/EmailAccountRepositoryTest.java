@@ -10,6 +10,7 @@ import org.springframework.transaction.annotation.Transactional; // Import Trans
 
 import java.time.LocalDateTime; // Import LocalDateTime for date/time fields
 
+import static org.junit.jupiter.api.Assertions.assertFalse; // Import assertion for false
 import static org.junit.jupiter.api.Assertions.assertTrue; // Import assertion for true
 
 @SpringBootTest // Enable Spring Boot test context
@@ -59,4 +60,27 @@ public class EmailAccountRepositoryTest { // Define the test class
         // Verify the email account exists
         assertTrue(emailAccountRepository.existsByEmailAddress("test@example.com")); // Assert existence by email address
     }
+
+    /**
+     * Test that an inbox being deleted no longer counts as existing.
+     */
+    @Test
+    void testExistsByIdAndDeletingFalse() {
+        EmailAccount emailAccount = emailAccountRepository.save(EmailAccount.builder()
+                .user(testUser) // Associate the user
+                .emailAddress("test@example.com") // Set email address
+                .provider("Gmail") // Set provider
+                .accessToken("access_token") // Set access token
+                .refreshToken("refresh_token") // Set refresh token
+                .lastSynced(LocalDateTime.now()) // Set last synced time
+                .build());
+
+        assertTrue(emailAccountRepository.existsByIdAndDeletingFalse(emailAccount.getId())); // Live inbox exists
+
+        emailAccount.setDeleting(true); // Deletion has started
+        emailAccountRepository.saveAndFlush(emailAccount);
+
+        assertFalse(emailAccountRepository.existsByIdAndDeletingFalse(emailAccount.getId())); // Now treated as gone
+        assertFalse(emailAccountRepository.existsByIdAndDeletingFalse(-1L)); // Unknown inbox
+    }
 }
@@ -0,0 +1,129 @@
+package com.sentineliq.backend.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of filter-as-you-type paths.
+ *
+ * - inMemoryPrefix / inMemoryTwoTerms: InboxIndex over a synthetic inbox
+ * - postgresPrefix: the equivalent tsquery prefix search, only when -Dbench.jdbcUrl points
+ *   at a database with the schema from db/postgres-schema.sql (plus -Dbench.user, -Dbench.password,
+ *   -Dbench.inboxId)
+ *
+ * Run from /backend after `./mvnw test-compile`:
+ *   java -cp "target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.sentineliq.backend.search.InboxIndexBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InboxIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "invoice", "meeting", "report", "project", "update", "payment", "travel", "account",
+            "security", "alert", "weekly", "summary", "order", "shipping", "receipt", "password",
+            "review", "schedule", "contract", "budget", "team", "launch", "offer", "reminder"
+    };
+
+    @Param({"10000", "100000"})
+    public int emails;
+
+    private InboxIndex index;
+    private Connection connection;
+    private PreparedStatement postgresQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        index = new InboxIndex(1L);
+        for (int id = 1; id <= emails; id++) {
+            index.add(id, sentence(random, 6), "user" + random.nextInt(500) + "@example.com", sentence(random, 80));
+        }
+        index.seal();
+
+        String jdbcUrl = System.getProperty("bench.jdbcUrl");
+        if (jdbcUrl != null) {
+            connection = DriverManager.getConnection(jdbcUrl,
+                    System.getProperty("bench.user"), System.getProperty("bench.password"));
+            postgresQuery = connection.prepareStatement("""
+                    SELECT id, subject, sender FROM emails
+                    WHERE email_account_id = ? AND search_vector @@ to_tsquery('simple', ?)
+                    ORDER BY id DESC LIMIT 20
+                    """);
+            postgresQuery.setLong(1, Long.getLong("bench.inboxId", 1L));
+            postgresQuery.setString(2, "inv:*");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    @Benchmark
+    public List<InboxIndex.Hit> inMemoryPrefix() {
+        return index.query("inv", 20);
+    }
+
+    @Benchmark
+    public List<InboxIndex.Hit> inMemoryTwoTerms() {
+        return index.query("budget rev", 20);
+    }
+
+    @Benchmark
+    public int postgresPrefix() throws SQLException {
+        if (postgresQuery == null) {
+            return 0;
+        }
+        int rows = 0;
+        try (ResultSet rs = postgresQuery.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InboxIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package com.sentineliq.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InboxIndexTest {
+
+    private static List<Long> ids(List<InboxIndex.Hit> hits) {
+        return hits.stream().map(InboxIndex.Hit::id).toList();
+    }
+
+    @Test
+    void testLastTermMatchesAsPrefixNewestFirst() {
+        InboxIndex index = new InboxIndex(1L);
+        index.add(10L, "Your invoice for March", "billing@shop.com", "Amount due");
+        index.add(11L, "Lunch?", "jane@example.com", "Are you free");
+        index.add(12L, "Invoice reminder", "billing@shop.com", "Please pay");
+
+        assertEquals(List.of(12L, 10L), ids(index.query("inv", 10)));
+        assertEquals(List.of(12L), ids(index.query("invoice remi", 10))); // Every term must match
+        assertTrue(index.query("inv ", 10).isEmpty()); // Trailing space ends the prefix
+    }
+
+    @Test
+    void testSealedAndPendingDocumentsAreBothSearchable() {
+        InboxIndex index = new InboxIndex(1L);
+        for (long id = 1; id <= 1_200; id++) {
+            index.add(id, "Report " + id, "team@example.com", id % 2 == 0 ? "even week" : "odd week");
+        }
+        index.add(5_000L, "Weekly report", "boss@example.com", "even better");
+
+        List<InboxIndex.Hit> hits = index.query("even", 5);
+        assertEquals(List.of(5_000L, 1_200L, 1_198L, 1_196L, 1_194L), ids(hits));
+        assertEquals(601, index.query("even", 10_000).size());
+        assertEquals(5_000L, index.getMaxEmailId());
+    }
+
+    @Test
+    void testDuplicateEmailIsIgnored() {
+        InboxIndex index = new InboxIndex(1L);
+        index.add(7L, "Hello", "a@b.com", "body");
+        index.add(7L, "Hello", "a@b.com", "body");
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws Exception {
+        InboxIndex index = new InboxIndex(3L);
+        index.add(1L, "Flight confirmation", "airline@fly.com", "Seat 12A");
+        index.add(2L, "Hotel booking", "hotel@stay.com", "Check-in at 3pm");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        InboxIndex restored = InboxIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(3L, restored.getInboxId());
+        assertEquals(2, restored.size());
+        assertEquals(List.of(1L), ids(restored.query("seat 12", 10)));
+        assertEquals("Hotel booking", restored.query("stay", 10).get(0).subject());
+
+        restored.add(3L, "Flight delayed", "airline@fly.com", "New time");
+        assertEquals(List.of(3L, 1L), ids(restored.query("flig", 10)));
+    }
+}
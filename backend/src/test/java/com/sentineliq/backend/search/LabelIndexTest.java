@@ -0,0 +1,95 @@
+package com.sentineliq.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelIndexTest {
+
+    private static LabelIndex sample() {
+        LabelIndex index = new LabelIndex(1L, 0);
+        index.set(10L, List.of("INBOX", "UNREAD"));
+        index.set(11L, List.of("INBOX", "CATEGORY_PROMOTIONS"));
+        index.set(12L, List.of("SPAM"));
+        index.set(13L, List.of("INBOX", "UNREAD", "CATEGORY_PROMOTIONS"));
+        index.set(14L, List.of());
+        return index;
+    }
+
+    @Test
+    void testIncludeAndExcludeHighestIdFirst() {
+        LabelIndex index = sample();
+
+        LabelIndex.Match match = index.query(List.of("INBOX"), List.of("CATEGORY_PROMOTIONS"), Long.MAX_VALUE, 10);
+        assertEquals(1, match.total());
+        assertEquals(List.of(10L), match.emailIds());
+
+        assertEquals(List.of(13L, 11L, 10L), index.query(List.of("INBOX"), List.of(), Long.MAX_VALUE, 10).emailIds());
+        assertEquals(List.of(13L), index.query(List.of("INBOX", "UNREAD", "CATEGORY_PROMOTIONS"), List.of(), Long.MAX_VALUE, 10).emailIds());
+    }
+
+    @Test
+    void testExcludeOnlyCoversEmailsWithoutLabels() {
+        LabelIndex.Match match = sample().query(List.of(), List.of("SPAM"), Long.MAX_VALUE, 10);
+
+        assertEquals(4, match.total());
+        assertEquals(List.of(14L, 13L, 11L, 10L), match.emailIds());
+    }
+
+    @Test
+    void testUnknownLabelMatchesNothing() {
+        assertEquals(0, sample().query(List.of("INBOX", "Label_42"), List.of(), Long.MAX_VALUE, 10).total());
+    }
+
+    @Test
+    void testPagingWithBeforeId() {
+        LabelIndex index = sample();
+
+        LabelIndex.Match first = index.query(List.of("INBOX"), List.of(), Long.MAX_VALUE, 2);
+        assertEquals(List.of(13L, 11L), first.emailIds());
+        assertEquals(3, first.total()); // Total ignores the page
+
+        assertEquals(List.of(10L), index.query(List.of("INBOX"), List.of(), 11L, 2).emailIds());
+        assertEquals(List.of(11L, 10L), index.query(List.of("INBOX"), List.of(), 12L, 2).emailIds()); // beforeId needn't match
+        assertEquals(List.of(), index.query(List.of("INBOX"), List.of(), 10L, 2).emailIds());
+    }
+
+    @Test
+    void testDeepPageStartsRightBelowBeforeId() {
+        LabelIndex index = new LabelIndex(1L, 0);
+        for (long id = 1; id <= 100_000; id++) {
+            index.set(id, id % 10 == 0 ? List.of("INBOX", "SPAM") : List.of("INBOX"));
+        }
+
+        LabelIndex.Match page = index.query(List.of("INBOX"), List.of("SPAM"), 50_000L, 3);
+        assertEquals(List.of(49_999L, 49_998L, 49_997L), page.emailIds());
+        assertEquals(List.of(9L, 8L), index.query(List.of("INBOX"), List.of("SPAM"), 10L, 2).emailIds()); // Skips 10 (spam)
+    }
+
+    @Test
+    void testSetReplacesPreviousLabels() {
+        LabelIndex index = sample();
+
+        index.set(12L, List.of("INBOX")); // Moved out of spam in Gmail
+
+        assertEquals(0, index.query(List.of("SPAM"), List.of(), Long.MAX_VALUE, 10).total());
+        assertEquals(List.of(13L, 12L, 11L, 10L), index.query(List.of("INBOX"), List.of(), Long.MAX_VALUE, 10).emailIds());
+        assertEquals(Map.of("INBOX", 4L, "UNREAD", 2L, "CATEGORY_PROMOTIONS", 2L), index.counts());
+    }
+
+    @Test
+    void testLargeRunsStayCompact() {
+        LabelIndex index = new LabelIndex(1L, 0);
+        for (long id = 1; id <= 100_000; id++) {
+            index.set(id, id % 10 == 0 ? List.of("INBOX", "SPAM") : List.of("INBOX"));
+        }
+        index.optimize();
+
+        assertEquals(90_000, index.query(List.of("INBOX"), List.of("SPAM"), Long.MAX_VALUE, 1).total());
+        // Far below the 8 bytes per ID per label of a plain long array
+        assertTrue(index.estimatedBytes() < 100_000, "estimated " + index.estimatedBytes());
+    }
+}
@@ -0,0 +1,49 @@
+package com.sentineliq.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SenderTrieTest {
+
+    private static List<String> addresses(List<SenderTrie.Suggestion> suggestions) {
+        return suggestions.stream().map(SenderTrie.Suggestion::address).toList();
+    }
+
+    @Test
+    void testTopSendersByFrequency() {
+        SenderTrie trie = new SenderTrie();
+        trie.add("Jane Doe <jane@example.com>", 3);
+        trie.add("Jack Smith <jack@example.com>", 10);
+        trie.add("billing@shop.com", 5);
+
+        assertEquals(List.of("jack@example.com", "jane@example.com"), addresses(trie.suggest("ja", 5)));
+        assertEquals(List.of("jack@example.com"), addresses(trie.suggest("ja", 1)));
+        assertEquals(List.of("jack@example.com", "billing@shop.com", "jane@example.com"), addresses(trie.suggest("", 5)));
+    }
+
+    @Test
+    void testMatchesDomainAndLaterNameWords() {
+        SenderTrie trie = new SenderTrie();
+        trie.add("\"Zoë Doe\" <ZOE@Example.com>", 1);
+
+        assertEquals(List.of("zoe@example.com"), addresses(trie.suggest("DOE", 5)));
+        assertEquals(List.of("zoe@example.com"), addresses(trie.suggest("examp", 5)));
+        assertEquals(List.of("zoe@example.com"), addresses(trie.suggest("zoe d", 5))); // Accents are ignored
+        assertEquals("Zoë Doe", trie.suggest("zoe", 1).get(0).displayName());
+    }
+
+    @Test
+    void testSameAddressIsMergedAcrossKeys() {
+        SenderTrie trie = new SenderTrie();
+        trie.add("Jane <jane@example.com>", 2);
+        trie.add("jane@example.com", 4);
+
+        List<SenderTrie.Suggestion> suggestions = trie.suggest("jane", 5);
+        assertEquals(1, suggestions.size()); // Name and address both match, reported once
+        assertEquals(6, suggestions.get(0).count());
+        assertEquals("Jane", suggestions.get(0).displayName());
+    }
+}
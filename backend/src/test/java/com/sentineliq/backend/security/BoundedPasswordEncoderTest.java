@@ -0,0 +1,97 @@
+package com.sentineliq.backend.security;
+
+import com.sentineliq.backend.exception.PasswordHashingRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void testDelegatesToBCrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, 5000);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash)); // Correct password verifies
+        assertFalse(encoder.matches("wrong", hash)); // Wrong password does not
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1, 5000);
+
+        // One request occupies the only worker, a second one fills the queue
+        callers.submit(() -> encoder.encode("first"));
+        callers.submit(() -> encoder.encode("second"));
+        waitUntil(() -> encoder.getQueuedCount() == 1);
+
+        // A third request has nowhere to go and is rejected immediately
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("third"));
+    }
+
+    @Test
+    void testRejectsWhenWaitTimesOut() {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1, 50);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("slow"));
+    }
+
+    @Test
+    void testUpgradeEncodingDetectsLowerCost() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, 5000);
+
+        assertTrue(encoder.upgradeEncoding(oldHash)); // Cost 4 < configured 5
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret"))); // Already at cost 5
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not reached in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    // Encoder that blocks until the test releases it, to keep the worker busy
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
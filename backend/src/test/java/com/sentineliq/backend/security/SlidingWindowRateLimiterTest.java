@@ -0,0 +1,75 @@
+package com.sentineliq.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterTest {
+
+    private static final long WINDOW = 60_000;
+
+    @Test
+    void testAllowsUpToLimitWithinWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, WINDOW, 100);
+        long now = 10 * WINDOW;
+
+        assertTrue(limiter.tryAcquire("1.2.3.4", now));
+        assertTrue(limiter.tryAcquire("1.2.3.4", now + 1));
+        assertTrue(limiter.tryAcquire("1.2.3.4", now + 2));
+        assertFalse(limiter.tryAcquire("1.2.3.4", now + 3)); // Fourth attempt is over the limit
+        assertTrue(limiter.tryAcquire("5.6.7.8", now + 3)); // Other keys are unaffected
+    }
+
+    @Test
+    void testPreviousWindowIsWeightedBySlidingOverlap() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, WINDOW, 100);
+        long start = 10 * WINDOW;
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("user", start + i));
+        }
+
+        // 25% into the next window, 75% of the previous 4 attempts still count (3.0)
+        assertTrue(limiter.tryAcquire("user", start + WINDOW + WINDOW / 4));
+        assertFalse(limiter.tryAcquire("user", start + WINDOW + WINDOW / 4 + 1));
+
+        // Two windows later everything has slid out
+        assertTrue(limiter.tryAcquire("user", start + 3 * WINDOW));
+    }
+
+    @Test
+    void testNewKeysAreRejectedWhenFullWithoutAffectingTrackedKeys() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(5, WINDOW, 10);
+        long now = 10 * WINDOW;
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("client-" + i, now));
+        }
+        for (int i = 10; i < 50; i++) {
+            assertFalse(limiter.tryAcquire("client-" + i, now)); // Untracked keys are rejected once full
+        }
+        assertEquals(10, limiter.trackedKeys());
+
+        // Tracked keys keep their own budget during the flood
+        assertTrue(limiter.tryAcquire("client-0", now + 1));
+    }
+
+    @Test
+    void testSweepEvictsIdleKeysAndFreesRoom() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(5, WINDOW, 10);
+        long now = 10 * WINDOW;
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client-" + i, now);
+        }
+
+        // One window later the keys still weigh on decisions and are kept
+        limiter.sweep(now + WINDOW);
+        assertEquals(10, limiter.trackedKeys());
+
+        // Two windows later they are idle and get swept
+        limiter.sweep(now + 2 * WINDOW);
+        assertEquals(0, limiter.trackedKeys());
+        assertTrue(limiter.tryAcquire("fresh", now + 2 * WINDOW));
+    }
+}
@@ -0,0 +1,124 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.BulkEmailRequest;
+import com.sentineliq.backend.dto.BulkEmailResult;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailStateRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkEmailServiceTest {
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher; // Mocked event publisher
+
+    private BulkEmailService bulkEmailService;
+
+    private static final List<Long> INBOXES = List.of(1L, 2L);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkEmailService = new BulkEmailService(emailRepository, eventPublisher, 3);
+    }
+
+    private static EmailStateRow row(long id, long inboxId, Boolean isSpam) {
+        EmailStateRow row = mock(EmailStateRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getInboxId()).thenReturn(inboxId);
+        when(row.getIsSpam()).thenReturn(isSpam);
+        when(row.getSenderAddress()).thenReturn("jane@example.com");
+        when(row.getSenderName()).thenReturn("Jane");
+        return row;
+    }
+
+    private static BulkEmailRequest request(BulkEmailRequest.Action action, Long... ids) {
+        return BulkEmailRequest.builder().action(action).ids(List.of(ids)).build();
+    }
+
+    @Test
+    void testUpdatesOnlyChangedRowsAndPublishesOneEventPerInbox() {
+        // Rows are built before stubbing; stubbing inside thenReturn(...) is not allowed
+        List<EmailStateRow> rows = List.of(row(10, 1, false), row(11, 1, true), row(20, 2, null));
+        when(emailRepository.findStates(any(), eq(INBOXES))).thenReturn(rows);
+        when(emailRepository.updateSpamFlag(any(), any(), anyBoolean())).thenReturn(2);
+
+        Optional<BulkEmailResult> result = bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_SPAM, 10L, 11L, 20L));
+
+        assertTrue(result.isPresent());
+        assertEquals(3, result.get().getRequested());
+        assertEquals(2, result.get().getUpdated());
+        verify(emailRepository).updateSpamFlag(List.of(10L, 20L), INBOXES, true);
+
+        ArgumentCaptor<EmailsUpdatedEvent> events = ArgumentCaptor.forClass(EmailsUpdatedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        EmailsUpdatedEvent first = events.getAllValues().get(0);
+        assertEquals(1L, first.getInboxId());
+        assertEquals(1, first.getEmails().size());
+        assertTrue(first.getEmails().get(0).getIsSpam());
+        assertEquals("Jane <jane@example.com>", first.getEmails().get(0).getSender());
+    }
+
+    @Test
+    void testUnownedIdRejectsWholeRequest() {
+        List<EmailStateRow> rows = List.of(row(10, 1, false));
+        when(emailRepository.findStates(any(), eq(INBOXES))).thenReturn(rows);
+
+        Optional<BulkEmailResult> result = bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_SPAM, 10L, 99L));
+
+        assertTrue(result.isEmpty());
+        verify(emailRepository, never()).updateSpamFlag(any(), any(), anyBoolean());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testNothingToChangeSkipsUpdate() {
+        List<EmailStateRow> rows = List.of(row(10, 1, false));
+        when(emailRepository.findStates(any(), eq(INBOXES))).thenReturn(rows);
+
+        Optional<BulkEmailResult> result = bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_NOT_SPAM, 10L));
+
+        assertEquals(0, result.orElseThrow().getUpdated());
+        verify(emailRepository, never()).updateSpamFlag(any(), any(), anyBoolean());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testDuplicateIdsCountOnce() {
+        List<EmailStateRow> rows = List.of(row(10, 1, true));
+        when(emailRepository.findStates(any(), eq(INBOXES))).thenReturn(rows);
+
+        Optional<BulkEmailResult> result = bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_SPAM, 10L, 10L));
+
+        assertEquals(1, result.orElseThrow().getRequested());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkEmailService.apply(INBOXES, request(null, 10L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_SPAM)));
+        assertThrows(IllegalArgumentException.class, // All-null ids count as no ids
+                () -> bulkEmailService.apply(INBOXES, BulkEmailRequest.builder()
+                        .action(BulkEmailRequest.Action.MARK_SPAM).ids(Arrays.asList(null, null)).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkEmailService.apply(INBOXES, request(BulkEmailRequest.Action.MARK_SPAM, 1L, 2L, 3L, 4L)));
+    }
+}
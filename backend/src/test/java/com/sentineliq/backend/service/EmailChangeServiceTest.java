@@ -0,0 +1,113 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailChanges;
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailTombstone;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailTombstoneRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailChangeServiceTest {
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private EmailTombstoneRepository tombstoneRepository; // Mocked repository
+
+    private EmailChangeService emailChangeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        emailChangeService = new EmailChangeService(emailRepository, tombstoneRepository, 30, "test-cursor-secret");
+        when(emailRepository.findChangeWatermark()).thenReturn(1000L);
+    }
+
+    private static Email email(long id, long xid, long seq) {
+        return Email.builder().id(id).subject("Subject " + id).changeXid(xid).changeSeq(seq).build();
+    }
+
+    private static EmailTombstone tombstone(long emailId, long xid, long seq) {
+        return EmailTombstone.builder().emailId(emailId).emailAccountId(1L).changeXid(xid).changeSeq(seq).build();
+    }
+
+    private String cursor(long xid, long seq) {
+        return emailChangeService.encode(new EmailChangeService.Cursor(xid, seq, System.currentTimeMillis()));
+    }
+
+    @Test
+    void testNoCursorReturnsCurrentWatermarkOnly() {
+        EmailChanges changes = emailChangeService.changesSince(1L, null, null);
+
+        assertTrue(changes.getChanged().isEmpty());
+        EmailChangeService.Cursor cursor = emailChangeService.decode(changes.getCursor());
+        assertEquals(1000L, cursor.xid());
+        assertEquals(0L, cursor.seq());
+        verify(emailRepository, never()).findChangedAfter(any(), anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void testChangesAndDeletionsAreMergedInTransactionThenSequenceOrder() {
+        // Transaction 501 took seq 11 but committed after 500's seq 12: it still comes first
+        when(emailRepository.findChangedAfter(eq(1L), eq(500L), eq(10L), eq(1000L), any()))
+                .thenReturn(List.of(email(100L, 500, 11), email(101L, 501, 9)));
+        when(tombstoneRepository.findChangedAfter(eq(1L), eq(500L), eq(10L), eq(1000L), any()))
+                .thenReturn(List.of(tombstone(90L, 500, 12), tombstone(91L, 502, 15)));
+
+        EmailChanges changes = emailChangeService.changesSince(1L, cursor(500, 10), 3);
+
+        assertEquals(List.of(100L, 101L), changes.getChanged().stream().map(EmailSummaryDto::getId).toList());
+        assertEquals(List.of(90L), changes.getDeleted()); // 91 (transaction 502) didn't fit in the page
+        assertTrue(changes.isHasMore());
+        EmailChangeService.Cursor next = emailChangeService.decode(changes.getCursor());
+        assertEquals(501L, next.xid());
+        assertEquals(9L, next.seq());
+    }
+
+    @Test
+    void testNothingChangedKeepsPosition() {
+        when(emailRepository.findChangedAfter(any(), anyLong(), anyLong(), anyLong(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedAfter(any(), anyLong(), anyLong(), anyLong(), any())).thenReturn(List.of());
+
+        EmailChanges changes = emailChangeService.changesSince(1L, cursor(700, 25), null);
+
+        assertFalse(changes.isHasMore());
+        EmailChangeService.Cursor cursor = emailChangeService.decode(changes.getCursor());
+        assertEquals(700L, cursor.xid());
+        assertEquals(25L, cursor.seq());
+    }
+
+    @Test
+    void testCursorOlderThanTombstoneRetentionRequiresResync() {
+        long issuedAt = System.currentTimeMillis() - Duration.ofDays(31).toMillis();
+        String old = emailChangeService.encode(new EmailChangeService.Cursor(500, 5, issuedAt));
+
+        assertTrue(emailChangeService.changesSince(1L, old, null).isResyncRequired());
+    }
+
+    @Test
+    void testForgedCursorIsRejected() {
+        // Same position with a fresh issue time, signed with another key
+        EmailChangeService other = new EmailChangeService(emailRepository, tombstoneRepository, 30, "another-secret");
+        String forged = other.encode(new EmailChangeService.Cursor(500, 5, System.currentTimeMillis()));
+
+        assertThrows(IllegalArgumentException.class, () -> emailChangeService.changesSince(1L, forged, null));
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> emailChangeService.changesSince(1L, "not-a-cursor", null));
+    }
+}
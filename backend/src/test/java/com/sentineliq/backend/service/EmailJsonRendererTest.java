@@ -0,0 +1,164 @@
+package com.sentineliq.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sentineliq.backend.dto.EmailDto;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailJsonRendererTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private JdbcTemplate jdbc;
+    private EmailJsonRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:renderer;DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE senders (id BIGINT PRIMARY KEY, address VARCHAR(320), domain VARCHAR(255))");
+        jdbc.execute("""
+                CREATE TABLE emails (id BIGINT PRIMARY KEY, email_account_id BIGINT, subject VARCHAR(1000),
+                    sender_id BIGINT, sender_name VARCHAR(255), plain_text_body VARCHAR(10000), html_body VARCHAR(10000),
+                    received_at TIMESTAMP, is_spam BOOLEAN, trust_score INT)
+                """);
+        jdbc.update("INSERT INTO senders VALUES (1, 'jane@example.com', 'example.com')");
+        jdbc.update("INSERT INTO senders VALUES (2, 'alerts@bank.co.uk', 'bank.co.uk')");
+        insert(10, 1, "Lunch?", 1L, "Jane Doe", "See you at \"noon\"", "<p>hi</p>", NOON.minusHours(1), false, 100);
+        insert(11, 1, "Your statement", 2L, null, "Attached", null, NOON, true, 12);
+        insert(12, 1, null, null, null, null, null, NOON.minusHours(2), null, null);
+        insert(20, 2, "Other inbox", 1L, "Jane (work)", "x", null, NOON, false, 100);
+
+        renderer = new EmailJsonRenderer(dataSource, new DataSourceTransactionManager(dataSource), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    private void insert(long id, long inboxId, String subject, Long senderId, String senderName, String body,
+                        String html, LocalDateTime receivedAt, Boolean isSpam, Integer trustScore) {
+        jdbc.update("INSERT INTO emails VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, inboxId, subject, senderId, senderName, body, html, receivedAt, isSpam, trustScore);
+    }
+
+    private String renderArray(String domain, Pageable pageable) throws IOException {
+        return renderArray(domain, pageable, EmailJsonRenderer.Field.ALL);
+    }
+
+    private String renderArray(String domain, Pageable pageable, Set<EmailJsonRenderer.Field> fields) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            renderer.writeArray(json, 1L, domain, pageable, fields);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testArrayMatchesEmailDtoSerialization() throws IOException {
+        List<EmailDto> expected = List.of(
+                new EmailDto(11L, "Your statement", "alerts@bank.co.uk", "Attached", null, NOON, true, 12),
+                new EmailDto(10L, "Lunch?", "Jane Doe <jane@example.com>", "See you at \"noon\"", "<p>hi</p>", NOON.minusHours(1), false, 100),
+                new EmailDto(12L, null, null, null, null, NOON.minusHours(2), null, null));
+
+        assertEquals(objectMapper.writeValueAsString(expected), renderArray(null, Pageable.unpaged()));
+    }
+
+    @Test
+    void testDomainFilter() throws IOException {
+        assertEquals(List.of(10L), ids(renderArray("example.com", Pageable.unpaged())));
+    }
+
+    @Test
+    void testPaging() throws IOException {
+        assertEquals(List.of(11L, 10L), ids(renderArray(null, PageRequest.of(0, 2))));
+        assertEquals(List.of(12L), ids(renderArray(null, PageRequest.of(1, 2))));
+    }
+
+    @Test
+    void testSparseFieldsetWritesOnlyRequestedFields() throws IOException {
+        Set<EmailJsonRenderer.Field> fields = EmailJsonRenderer.Field.parse("subject, sender");
+
+        assertEquals("""
+                [{"id":11,"subject":"Your statement","sender":"alerts@bank.co.uk"},\
+                {"id":10,"subject":"Lunch?","sender":"Jane Doe <jane@example.com>"},\
+                {"id":12,"subject":null,"sender":null}]""", renderArray(null, Pageable.unpaged(), fields));
+    }
+
+    @Test
+    void testSparseFieldsetWithDomainFilterStillJoinsSenders() throws IOException {
+        Set<EmailJsonRenderer.Field> fields = EmailJsonRenderer.Field.parse("receivedAt");
+
+        assertEquals("[{\"id\":10,\"receivedAt\":\"2024-05-01T11:00:00\"}]",
+                renderArray("example.com", Pageable.unpaged(), fields));
+    }
+
+    @Test
+    void testParseFields() {
+        assertSame(EmailJsonRenderer.Field.ALL, EmailJsonRenderer.Field.parse(null));
+        assertSame(EmailJsonRenderer.Field.ALL, EmailJsonRenderer.Field.parse(" "));
+        assertEquals(EnumSet.of(EmailJsonRenderer.Field.ID, EmailJsonRenderer.Field.TRUST_SCORE),
+                EmailJsonRenderer.Field.parse("trustScore,,"));
+        assertThrows(IllegalArgumentException.class, () -> EmailJsonRenderer.Field.parse("id,body"));
+    }
+
+    @Test
+    void testWriteOne() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            assertTrue(renderer.writeOne(json, 10L, EmailJsonRenderer.Field.parse("isSpam")));
+        }
+        assertEquals("{\"id\":10,\"isSpam\":false}", out.toString(StandardCharsets.UTF_8));
+
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(new ByteArrayOutputStream())) {
+            assertFalse(renderer.writeOne(json, 99L, EmailJsonRenderer.Field.ALL));
+        }
+    }
+
+    @Test
+    void testLinesAreOldestFirstOnePerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            written = renderer.writeLines(json, 1L);
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, written);
+        assertEquals(3, lines.length);
+        assertEquals(10, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals(12, objectMapper.readTree(lines[2]).get("id").asLong());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    private List<Long> ids(String json) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(json).forEach(node -> ids.add(node.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,190 @@
+package com.sentineliq.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sentineliq.backend.dto.EmailDto;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.model.User;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the two ways to render an inbox page as JSON.
+ *
+ * - entityPath: Hibernate query with the sender fetch-joined, EmailDto copies, ObjectMapper
+ *   (what EmailController did before EmailJsonRenderer)
+ * - rowPath: EmailJsonRenderer, JDBC rows straight into a JsonGenerator
+ * - summaryRowPath: rowPath with fields=subject,sender,receivedAt (body columns never read)
+ *
+ * Both read the same PAGE rows from an in-memory H2 database, so the difference is the
+ * per-row work in the application, not the database. Scores are per row, and the GC profiler
+ * reports allocated bytes per row (gc.alloc.rate.norm).
+ *
+ * Run from /backend after `./mvnw test-compile`:
+ *   java -cp "target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.sentineliq.backend.service.EmailReadPathBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailReadPathBenchmark {
+
+    private static final int PAGE = 200;
+    private static final String JDBC_URL = "jdbc:h2:mem:read-path;DB_CLOSE_DELAY=-1";
+
+    private static final String PAGE_HQL = """
+            SELECT e FROM Email e LEFT JOIN FETCH e.senderRef
+            WHERE e.emailAccount.id = :inboxId
+            ORDER BY e.receivedAt DESC, e.id DESC
+            """;
+
+    private static final Set<EmailJsonRenderer.Field> SUMMARY_FIELDS = EmailJsonRenderer.Field.parse("subject,sender,receivedAt");
+
+    // Plain-text body length; list responses include full bodies
+    @Param({"200", "4000"})
+    public int bodyChars;
+
+    private SessionFactory sessionFactory;
+    private EmailJsonRenderer renderer;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same table and column names as the application (Spring's default naming strategy)
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, JDBC_URL)
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .build())
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(EmailAccount.class)
+                .addAnnotatedClass(Sender.class)
+                .addAnnotatedClass(Email.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(JDBC_URL);
+        dataSource.setUser("sa");
+        renderer = new EmailJsonRenderer(dataSource, new DataSourceTransactionManager(dataSource), PAGE);
+
+        // Only emails and senders are read, so skip creating the user and inbox rows
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        Random random = new Random(42);
+        for (int id = 1; id <= 50; id++) {
+            jdbc.update("INSERT INTO senders (id, address, domain) VALUES (?, ?, ?)",
+                    id, "user" + id + "@example.com", "example.com");
+        }
+        String body = "x".repeat(bodyChars);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int id = 1; id <= PAGE * 5; id++) {
+            jdbc.update("""
+                    INSERT INTO emails (id, email_account_id, subject, sender_id, sender_name, plain_text_body,
+                                        html_body, gmail_message_id, received_at, is_spam, trust_score)
+                    VALUES (?, 1, ?, ?, ?, ?, NULL, ?, ?, FALSE, ?)
+                    """,
+                    id, "Subject " + id, 1 + random.nextInt(50), "User " + id, body, "msg-" + id,
+                    start.plusMinutes(id), random.nextInt(101));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public byte[] entityPath() throws IOException {
+        try (Session session = sessionFactory.openSession()) {
+            List<Email> emails = session.createQuery(PAGE_HQL, Email.class)
+                    .setParameter("inboxId", 1L)
+                    .setMaxResults(PAGE)
+                    .list();
+            List<EmailDto> dtos = emails.stream()
+                    .map(email -> EmailDto.builder()
+                            .id(email.getId())
+                            .subject(email.getSubject())
+                            .sender(email.getSender())
+                            .plainTextBody(email.getPlainTextBody())
+                            .htmlBody(email.getHtmlBody())
+                            .receivedAt(email.getReceivedAt())
+                            .isSpam(email.getIsSpam())
+                            .trustScore(email.getTrustScore())
+                            .build())
+                    .toList();
+            return objectMapper.writeValueAsBytes(dtos);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public byte[] rowPath() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            renderer.writeArray(json, 1L, null, PageRequest.of(0, PAGE), EmailJsonRenderer.Field.ALL);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public byte[] summaryRowPath() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            renderer.writeArray(json, 1L, null, PageRequest.of(0, PAGE), SUMMARY_FIELDS);
+        }
+        return out.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailReadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSearchPage;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailSearchRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailSearchServiceTest {
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository (the real query needs PostgreSQL)
+
+    private EmailSearchService emailSearchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        emailSearchService = new EmailSearchService(emailRepository);
+    }
+
+    @Test
+    void testFirstPageStartsFromTopAndReturnsCursor() {
+        // Rows are built before stubbing; stubbing inside thenReturn(...) is not allowed
+        List<EmailSearchRow> rows = List.of(row(30L, 0.9f), row(20L, 0.5f), row(10L, 0.1f));
+        when(emailRepository.search(eq(List.of(1L)), eq("invoice"), eq(Float.POSITIVE_INFINITY), eq(Long.MAX_VALUE), eq(3)))
+                .thenReturn(rows);
+
+        EmailSearchPage page = emailSearchService.search(List.of(1L), " invoice ", null, 2);
+
+        assertEquals(2, page.getResults().size()); // Extra row is only used to detect more pages
+        assertNotNull(page.getNextCursor());
+    }
+
+    @Test
+    void testCursorContinuesAfterLastRow() {
+        List<EmailSearchRow> rows = List.of(row(30L, 0.9f), row(20L, 0.5f), row(10L, 0.1f));
+        when(emailRepository.search(anyCollection(), anyString(), anyFloat(), anyLong(), anyInt())).thenReturn(rows);
+        String cursor = emailSearchService.search(List.of(1L), "invoice", null, 2).getNextCursor();
+
+        emailSearchService.search(List.of(1L), "invoice", cursor, 2);
+
+        // Second page asks for rows strictly after (0.5, 20)
+        verify(emailRepository).search(anyCollection(), eq("invoice"), eq(0.5f), eq(20L), eq(3));
+    }
+
+    @Test
+    void testLastPageHasNoCursor() {
+        List<EmailSearchRow> rows = List.of(row(30L, 0.9f));
+        when(emailRepository.search(anyCollection(), anyString(), anyFloat(), anyLong(), anyInt())).thenReturn(rows);
+
+        assertNull(emailSearchService.search(List.of(1L), "invoice", null, 20).getNextCursor());
+    }
+
+    @Test
+    void testBlankQueryDoesNotHitDatabase() {
+        assertTrue(emailSearchService.search(List.of(1L), "  ", null, 20).getResults().isEmpty());
+        verifyNoInteractions(emailRepository);
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> emailSearchService.search(List.of(1L), "invoice", "not-a-cursor", 20));
+    }
+
+    private static EmailSearchRow row(Long id, float rank) {
+        EmailSearchRow row = mock(EmailSearchRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getRank()).thenReturn(rank);
+        return row;
+    }
+}
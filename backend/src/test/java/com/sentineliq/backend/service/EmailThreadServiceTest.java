@@ -0,0 +1,186 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.EmailThreadPage;
+import com.sentineliq.backend.dto.EmailThreadSummary;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.EmailThread;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailThreadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailThreadServiceTest {
+
+    @Mock
+    private EmailThreadRepository threadRepository; // Mocked repository
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private PlatformTransactionManager transactionManager; // Mocked transactions
+
+    private EmailThreadService emailThreadService;
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        emailThreadService = new EmailThreadService(threadRepository, emailRepository, transactionManager);
+    }
+
+    private static Email email(long id, String threadId, String from, int minutesAgo, boolean isSpam, int trustScore) {
+        return Email.builder()
+                .id(id)
+                .threadId(threadId)
+                .subject("Subject " + id)
+                .sender(from)
+                .receivedAt(NOON.minusMinutes(minutesAgo))
+                .isSpam(isSpam)
+                .trustScore(trustScore)
+                .build();
+    }
+
+    private static EmailThread thread(long id, int minutesAgo) {
+        return EmailThread.builder()
+                .id(id)
+                .emailAccountId(1L)
+                .gmailThreadId("t" + id)
+                .latestAt(NOON.minusMinutes(minutesAgo))
+                .messageCount(1)
+                .build();
+    }
+
+    @Test
+    void testApplyFoldsMessagesIntoSummary() {
+        EmailThread thread = EmailThread.builder().emailAccountId(1L).gmailThreadId("t1").build();
+
+        EmailThreadService.apply(thread, email(11, "t1", "Bob <bob@example.com>", 0, false, 90));
+        EmailThreadService.apply(thread, email(10, "t1", "\"Jane Doe\" <Jane@Example.com>", 5, true, 20));
+        EmailThreadService.apply(thread, email(12, "t1", "bob@example.com", 9, false, 100));
+
+        assertEquals(3, thread.getMessageCount());
+        assertEquals(11L, thread.getLatestEmailId()); // Newest, not last folded
+        assertEquals("Subject 11", thread.getLatestSubject());
+        assertEquals("Bob <bob@example.com>", thread.getLatestSender());
+        assertEquals(NOON, thread.getLatestAt());
+        assertEquals("bob@example.com, jane@example.com", thread.getParticipants());
+        assertEquals(1, thread.getSpamCount());
+        assertEquals(20, thread.getMinTrustScore());
+    }
+
+    @Test
+    void testParticipantsAreCapped() {
+        EmailThread thread = EmailThread.builder().emailAccountId(1L).gmailThreadId("t1").build();
+
+        for (int i = 0; i < EmailThreadService.MAX_PARTICIPANTS + 5; i++) {
+            EmailThreadService.apply(thread, email(i + 1, "t1", "user" + i + "@example.com", i, false, 100));
+        }
+
+        assertEquals(EmailThreadService.MAX_PARTICIPANTS + 5, thread.getMessageCount());
+        assertEquals(EmailThreadService.MAX_PARTICIPANTS, thread.getParticipants().split(", ").length);
+    }
+
+    @Test
+    void testIngestCreatesOneSummaryPerThread() {
+        when(threadRepository.findForUpdate(eq(1L), anyString())).thenReturn(Optional.empty());
+
+        emailThreadService.onEmailsIngested(new EmailsIngestedEvent(1L, 7L, List.of(
+                email(10, "t1", "a@example.com", 5, false, 100),
+                email(11, "t2", "b@example.com", 4, false, 100),
+                email(12, "t1", "c@example.com", 3, false, 100),
+                email(13, null, "d@example.com", 2, false, 100))));
+
+        ArgumentCaptor<EmailThread> saved = ArgumentCaptor.forClass(EmailThread.class);
+        verify(threadRepository, times(2)).saveAndFlush(saved.capture());
+        EmailThread first = saved.getAllValues().get(0);
+        assertEquals("t1", first.getGmailThreadId());
+        assertEquals(2, first.getMessageCount());
+        assertEquals(12L, first.getLatestEmailId());
+        assertEquals("t2", saved.getAllValues().get(1).getGmailThreadId());
+    }
+
+    @Test
+    void testIngestFoldsIntoExistingSummary() {
+        EmailThread existing = thread(5, 60);
+        existing.setLatestEmailId(4L);
+        when(threadRepository.findForUpdate(1L, "t5")).thenReturn(Optional.of(existing));
+
+        emailThreadService.onEmailsIngested(new EmailsIngestedEvent(1L, 7L, List.of(
+                email(20, "t5", "a@example.com", 0, true, 10))));
+
+        verify(threadRepository).saveAndFlush(existing);
+        assertEquals(2, existing.getMessageCount());
+        assertEquals(20L, existing.getLatestEmailId());
+        assertEquals(1, existing.getSpamCount());
+    }
+
+    @Test
+    void testConcurrentCreateIsRetried() {
+        EmailThread existing = thread(5, 60);
+        existing.setLatestEmailId(4L);
+        when(threadRepository.findForUpdate(1L, "t5")).thenReturn(Optional.empty(), Optional.of(existing));
+        when(threadRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate"))
+                .thenReturn(existing);
+
+        emailThreadService.record(1L, "t5", List.of(email(20, "t5", "a@example.com", 0, false, 100)));
+
+        assertEquals(2, existing.getMessageCount());
+    }
+
+    @Test
+    void testRescoringRefreshesVerdict() {
+        EmailRepository.ThreadVerdictRow verdict = mock(EmailRepository.ThreadVerdictRow.class);
+        when(verdict.getSpamCount()).thenReturn(2L);
+        when(verdict.getMinTrustScore()).thenReturn(15);
+        when(emailRepository.findThreadIds(1L, List.of(10L))).thenReturn(List.of("t1"));
+        when(emailRepository.findThreadVerdict(1L, "t1")).thenReturn(verdict);
+
+        emailThreadService.onEmailsUpdated(new EmailsUpdatedEvent(1L,
+                List.of(EmailSummaryDto.builder().id(10L).inboxId(1L).isSpam(true).build())));
+
+        verify(threadRepository).updateVerdict(1L, "t1", 2, 15);
+    }
+
+    @Test
+    void testPageReturnsCursorWhenMoreThreadsExist() {
+        when(threadRepository.findPageBefore(eq(1L), any(), any(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(thread(3, 0), thread(2, 5), thread(1, 9)));
+
+        EmailThreadPage page = emailThreadService.page(1L, null, 2);
+
+        assertEquals(List.of(3L, 2L), page.getThreads().stream().map(EmailThreadSummary::getId).toList());
+        assertEquals(new UnifiedInboxService.Cursor(NOON.minusMinutes(5), 2L).encode(), page.getNextCursor());
+    }
+
+    @Test
+    void testLastPageHasNoCursor() {
+        when(threadRepository.findPageBefore(eq(1L), any(), any(), any())).thenReturn(List.of(thread(1, 0)));
+
+        assertNull(emailThreadService.page(1L, null, 2).getNextCursor());
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> emailThreadService.page(1L, "%%%", 2));
+    }
+}
@@ -0,0 +1,194 @@
+package com.sentineliq.backend.service;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.gmail.Gmail;
+import com.google.api.services.gmail.model.History;
+import com.google.api.services.gmail.model.HistoryLabelAdded;
+import com.google.api.services.gmail.model.HistoryLabelRemoved;
+import com.google.api.services.gmail.model.ListHistoryResponse;
+import com.google.api.services.gmail.model.Message;
+import com.google.api.services.gmail.model.Profile;
+import com.sentineliq.backend.analytics.BurstDetectionService;
+import com.sentineliq.backend.event.EmailLabelsChangedEvent;
+import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.GmailIdRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GmailServiceTest {
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private EmailAccountRepository emailAccountRepository; // Mocked repository
+
+    @Mock
+    private SenderService senderService; // Mocked sender lookup
+
+    @Mock
+    private BurstDetectionService burstDetectionService; // Mocked burst detection
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher; // Mocked event publisher
+
+    // Mocked Gmail client, one mock per level of the request builder chain
+    private Gmail gmail;
+    private Gmail.Users.History.List historyList;
+    private Gmail.Users.GetProfile getProfile;
+
+    private GmailService gmailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        gmailService = new GmailService(emailRepository, emailAccountRepository, senderService,
+                burstDetectionService, eventPublisher);
+
+        gmail = mock(Gmail.class);
+        Gmail.Users users = mock(Gmail.Users.class);
+        Gmail.Users.History history = mock(Gmail.Users.History.class);
+        historyList = mock(Gmail.Users.History.List.class);
+        getProfile = mock(Gmail.Users.GetProfile.class);
+        when(gmail.users()).thenReturn(users);
+        when(users.history()).thenReturn(history);
+        when(users.getProfile("me")).thenReturn(getProfile);
+        when(history.list("me")).thenReturn(historyList);
+        when(historyList.setStartHistoryId(any())).thenReturn(historyList);
+        when(historyList.setHistoryTypes(any())).thenReturn(historyList);
+        when(historyList.setPageToken(any())).thenReturn(historyList);
+        when(getProfile.execute()).thenReturn(new Profile().setHistoryId(BigInteger.valueOf(900)));
+    }
+
+    private static EmailAccount account(Long historyId) {
+        return EmailAccount.builder().id(1L).emailAddress("me@example.com").gmailHistoryId(historyId).build();
+    }
+
+    private static Message message(String gmailId, String... labels) {
+        return new Message().setId(gmailId).setLabelIds(List.of(labels));
+    }
+
+    private static History added(Message message) {
+        return new History().setLabelsAdded(List.of(new HistoryLabelAdded().setMessage(message)));
+    }
+
+    private static History removed(Message message) {
+        return new History().setLabelsRemoved(List.of(new HistoryLabelRemoved().setMessage(message)));
+    }
+
+    private static GmailIdRow row(long id, String gmailId) {
+        GmailIdRow row = mock(GmailIdRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getGmailMessageId()).thenReturn(gmailId);
+        return row;
+    }
+
+    @Test
+    void testFirstSyncOnlyRecordsPosition() throws IOException {
+        EmailAccount account = account(null);
+
+        gmailService.syncLabelChanges(gmail, account);
+
+        verify(emailAccountRepository).updateGmailHistoryId(1L, 900L);
+        assertEquals(900L, account.getGmailHistoryId());
+        verify(historyList, never()).execute();
+        verifyNoInteractions(emailRepository, eventPublisher);
+    }
+
+    @Test
+    void testHistoryPagesAreFollowedAndLatestLabelsApplied() throws IOException {
+        when(historyList.execute()).thenReturn(
+                new ListHistoryResponse()
+                        .setHistory(List.of(added(message("g1", "INBOX", "STARRED")), added(message("g2", "INBOX"))))
+                        .setNextPageToken("page-2"),
+                new ListHistoryResponse()
+                        .setHistory(List.of(removed(message("g1", "INBOX")), added(message("unknown", "INBOX"))))
+                        .setHistoryId(BigInteger.valueOf(510)));
+        // Rows are built before stubbing; stubbing inside thenReturn(...) is not allowed
+        List<GmailIdRow> rows = List.of(row(10L, "g1"), row(11L, "g2"));
+        when(emailRepository.findIdsByGmailMessageIds(eq(1L), any())).thenReturn(rows);
+        EmailAccount account = account(500L);
+
+        gmailService.syncLabelChanges(gmail, account);
+
+        verify(historyList).setStartHistoryId(BigInteger.valueOf(500));
+        verify(historyList).setPageToken(null);
+        verify(historyList).setPageToken("page-2");
+        verify(historyList, times(2)).execute();
+
+        // g1's last change wins; messages we never stored are ignored
+        verify(emailRepository).updateLabelIds(10L, "INBOX");
+        verify(emailRepository).updateLabelIds(11L, "INBOX");
+        verify(emailRepository, times(2)).updateLabelIds(anyLong(), any());
+
+        ArgumentCaptor<EmailLabelsChangedEvent> event = ArgumentCaptor.forClass(EmailLabelsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1L, event.getValue().getInboxId());
+        assertEquals(Map.of(10L, List.of("INBOX"), 11L, List.of("INBOX")), event.getValue().getLabels());
+
+        // The position moves to the history ID of the last page
+        verify(emailAccountRepository).updateGmailHistoryId(1L, 510L);
+        assertEquals(510L, account.getGmailHistoryId());
+        verify(getProfile, never()).execute();
+    }
+
+    @Test
+    void testNoChangesStillAdvancesPositionWithoutEvent() throws IOException {
+        when(historyList.execute()).thenReturn(new ListHistoryResponse().setHistoryId(BigInteger.valueOf(520)));
+        EmailAccount account = account(500L);
+
+        gmailService.syncLabelChanges(gmail, account);
+
+        verify(emailAccountRepository).updateGmailHistoryId(1L, 520L);
+        verify(emailRepository, never()).updateLabelIds(anyLong(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testExpiredPositionRestartsFromCurrentProfile() throws IOException {
+        when(historyList.execute())
+                .thenReturn(new ListHistoryResponse()
+                        .setHistory(List.of(added(message("g1", "INBOX"))))
+                        .setNextPageToken("page-2"))
+                .thenThrow(new GoogleJsonResponseException(
+                        new HttpResponseException.Builder(404, "Not Found", new HttpHeaders()), null));
+        EmailAccount account = account(100L);
+
+        gmailService.syncLabelChanges(gmail, account);
+
+        // Changes read before the 404 are dropped along with the rest of the expired range
+        verify(emailRepository, never()).updateLabelIds(anyLong(), any());
+        verifyNoInteractions(eventPublisher);
+        verify(emailAccountRepository).updateGmailHistoryId(1L, 900L);
+        assertEquals(900L, account.getGmailHistoryId());
+    }
+
+    @Test
+    void testOtherHistoryErrorsKeepPosition() throws IOException {
+        when(historyList.execute()).thenThrow(new GoogleJsonResponseException(
+                new HttpResponseException.Builder(500, "Backend Error", new HttpHeaders()), null));
+        EmailAccount account = account(100L);
+
+        assertThrows(GoogleJsonResponseException.class, () -> gmailService.syncLabelChanges(gmail, account));
+
+        verify(emailAccountRepository, never()).updateGmailHistoryId(any(), any());
+        assertEquals(100L, account.getGmailHistoryId());
+    }
+}
@@ -0,0 +1,122 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.InboxDeletionProgress;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.EmailAccount;
+import com.sentineliq.backend.model.User;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailThreadRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InboxDeletionServiceTest {
+
+    @Mock
+    private EmailAccountRepository emailAccountRepository; // Mocked repository
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private EmailThreadRepository threadRepository; // Mocked repository
+
+    @Mock
+    private InboxStatsRepository statsRepository; // Mocked repository
+
+    @Mock
+    private UserLookupService userLookupService; // Mocked cache
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher; // Mocked event publisher
+
+    private InboxDeletionService inboxDeletionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inboxDeletionService = new InboxDeletionService(
+                emailAccountRepository, emailRepository, threadRepository, statsRepository, userLookupService, eventPublisher, 2, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        inboxDeletionService.shutdown();
+    }
+
+    private static EmailAccount inbox(boolean deleting) {
+        return EmailAccount.builder().id(5L).user(User.builder().id(1L).build()).deleting(deleting).build();
+    }
+
+    @Test
+    void testRequestMarksInboxAndAnnouncesIt() {
+        when(emailAccountRepository.markDeleting(5L)).thenReturn(1);
+
+        assertTrue(inboxDeletionService.requestDeletion(inbox(false)));
+
+        verify(userLookupService).evictInboxes(1L);
+        verify(eventPublisher).publishEvent(new InboxDeletedEvent(5L, 1L));
+    }
+
+    @Test
+    void testSecondRequestDoesNothing() {
+        when(emailAccountRepository.markDeleting(5L)).thenReturn(0);
+
+        assertFalse(inboxDeletionService.requestDeletion(inbox(true)));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testPurgeDeletesInChunksThenTheInbox() throws InterruptedException {
+        // 5 emails, chunks of 2: bounds at ids 3 and 5, then the rest
+        when(emailRepository.findIdAtOffset(5L, 2)).thenReturn(Optional.of(3L), Optional.of(5L), Optional.empty());
+        when(emailRepository.deleteChunk(eq(5L), anyLong())).thenReturn(2, 2, 1);
+
+        inboxDeletionService.purge(5L);
+
+        InOrder order = inOrder(emailRepository, threadRepository, statsRepository, emailAccountRepository);
+        order.verify(emailRepository).deleteChunk(5L, 3L);
+        order.verify(emailRepository).deleteChunk(5L, 5L);
+        order.verify(emailRepository).deleteChunk(5L, Long.MAX_VALUE);
+        // Rows a running sync derived after the deletion started go just before the inbox
+        order.verify(threadRepository).deleteByInbox(5L);
+        order.verify(statsRepository).deleteByInbox(5L);
+        order.verify(emailAccountRepository).deleteByIdWithoutCascade(5L);
+    }
+
+    @Test
+    void testPurgeRetriesWhenEmailsArrivedMeanwhile() throws InterruptedException {
+        when(emailRepository.findIdAtOffset(5L, 2)).thenReturn(Optional.empty());
+        when(emailAccountRepository.deleteByIdWithoutCascade(5L))
+                .thenThrow(new DataIntegrityViolationException("fk"))
+                .thenReturn(1);
+
+        inboxDeletionService.purge(5L);
+
+        verify(emailRepository, times(2)).deleteChunk(5L, Long.MAX_VALUE);
+        verify(emailAccountRepository, times(2)).deleteByIdWithoutCascade(5L);
+    }
+
+    @Test
+    void testProgressOnlyForDeletingInboxes() {
+        when(emailRepository.countByEmailAccountId(5L)).thenReturn(42L);
+
+        assertTrue(inboxDeletionService.progress(inbox(false)).isEmpty());
+        InboxDeletionProgress progress = inboxDeletionService.progress(inbox(true)).orElseThrow();
+        assertEquals(42L, progress.getRemainingEmails());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sentineliq.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InboxExportServiceTest {
+
+    @Mock
+    private EmailJsonRenderer emailJsonRenderer; // Mocked row renderer
+
+    private InboxExportService inboxExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inboxExportService = new InboxExportService(emailJsonRenderer, new ObjectMapper());
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void testRenderedLinesAreGzipped() throws IOException {
+        when(emailJsonRenderer.writeLines(any(), eq(1L))).thenAnswer(invocation -> {
+            JsonGenerator json = invocation.getArgument(0);
+            json.writeRaw("{\"id\":1}\n{\"id\":2}\n");
+            return 2L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, inboxExportService.export(1L, out));
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testEmptyInboxIsAValidEmptyFile() throws IOException {
+        when(emailJsonRenderer.writeLines(any(), eq(1L))).thenReturn(0L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, inboxExportService.export(1L, out));
+        assertEquals("", gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testResponseStreamIsLeftOpen() throws IOException {
+        when(emailJsonRenderer.writeLines(any(), eq(1L))).thenReturn(0L);
+        OutputStream out = spy(new ByteArrayOutputStream());
+
+        inboxExportService.export(1L, out);
+
+        verify(out, never()).close();
+    }
+}
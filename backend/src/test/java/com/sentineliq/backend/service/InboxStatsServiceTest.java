@@ -0,0 +1,169 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.InboxStats;
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.event.EmailsUpdatedEvent;
+import com.sentineliq.backend.event.InboxDeletedEvent;
+import com.sentineliq.backend.model.Email;
+import com.sentineliq.backend.model.InboxStatsBucket;
+import com.sentineliq.backend.model.InboxStatsBucket.Granularity;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository;
+import com.sentineliq.backend.repository.InboxStatsRepository.BucketTotalsRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class InboxStatsServiceTest {
+
+    @Mock
+    private InboxStatsRepository statsRepository; // Mocked repository
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    @Mock
+    private PlatformTransactionManager transactionManager; // Mocked transactions
+
+    private InboxStatsService inboxStatsService;
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inboxStatsService = new InboxStatsService(statsRepository, emailRepository, transactionManager);
+    }
+
+    private static Email email(LocalDateTime receivedAt, boolean isSpam, Integer trustScore) {
+        return Email.builder().receivedAt(receivedAt).isSpam(isSpam).trustScore(trustScore).build();
+    }
+
+    private static BucketTotalsRow totals(long emails, long spam, long trustScoreSum, long trustScoreCount) {
+        BucketTotalsRow row = mock(BucketTotalsRow.class);
+        when(row.getEmails()).thenReturn(emails);
+        when(row.getSpam()).thenReturn(spam);
+        when(row.getTrustScoreSum()).thenReturn(trustScoreSum);
+        when(row.getTrustScoreCount()).thenReturn(trustScoreCount);
+        return row;
+    }
+
+    @Test
+    void testIngestRecomputesEachTouchedBucketOnce() {
+        // Rows are built before stubbing; stubbing inside thenReturn(...) is not allowed
+        BucketTotalsRow zero = totals(0, 0, 0, 0);
+        BucketTotalsRow hour = totals(2, 1, 100, 2);
+        BucketTotalsRow day = totals(3, 1, 100, 2);
+        when(emailRepository.sumReceivedBetween(anyLong(), any(), any())).thenReturn(zero);
+        when(statsRepository.sumRange(anyLong(), any(), any(), any())).thenReturn(zero);
+        when(emailRepository.sumReceivedBetween(1L, DAY.plusHours(9), DAY.plusHours(10))).thenReturn(hour);
+        when(statsRepository.sumRange(1L, Granularity.HOUR, DAY, DAY.plusDays(1))).thenReturn(day);
+
+        inboxStatsService.onEmailsIngested(new EmailsIngestedEvent(1L, 7L, List.of(
+                email(DAY.plusHours(9).plusMinutes(5), false, 90),
+                email(DAY.plusHours(9).plusMinutes(50), true, 10),
+                email(DAY.plusHours(14), false, null),
+                email(DAY.plusDays(1).plusHours(2), false, 100))));
+
+        // Three distinct hours over two days, one sum each
+        verify(emailRepository, times(3)).sumReceivedBetween(anyLong(), any(), any());
+        verify(statsRepository, times(2)).sumRange(anyLong(), any(), any(), any());
+        verify(statsRepository).replace(1L, "HOUR", DAY.plusHours(9), 2, 1, 100, 2);
+        verify(statsRepository).replace(1L, "DAY", DAY, 3, 1, 100, 2);
+        verify(statsRepository, times(5)).lockBucket(anyLong(), any(), any());
+        verify(statsRepository, times(5)).replace(anyLong(), any(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testBucketIsLockedBeforeItIsSummed() {
+        BucketTotalsRow hour = totals(2, 1, 100, 2);
+        BucketTotalsRow day = totals(2, 1, 100, 2);
+        when(emailRepository.sumReceivedBetween(1L, DAY.plusHours(9), DAY.plusHours(10))).thenReturn(hour);
+        when(statsRepository.sumRange(1L, Granularity.HOUR, DAY, DAY.plusDays(1))).thenReturn(day);
+
+        inboxStatsService.onEmailsIngested(new EmailsIngestedEvent(1L, 7L, List.of(
+                email(DAY.plusHours(9).plusMinutes(5), false, 90))));
+
+        // A concurrent ingest or re-score of the bucket waits on the lock, then sums the latest emails
+        InOrder order = inOrder(statsRepository, emailRepository);
+        order.verify(statsRepository).lockBucket(1L, "HOUR", DAY.plusHours(9));
+        order.verify(emailRepository).sumReceivedBetween(1L, DAY.plusHours(9), DAY.plusHours(10));
+        order.verify(statsRepository).replace(1L, "HOUR", DAY.plusHours(9), 2, 1, 100, 2);
+        order.verify(statsRepository).lockBucket(1L, "DAY", DAY);
+        order.verify(statsRepository).sumRange(1L, Granularity.HOUR, DAY, DAY.plusDays(1));
+        order.verify(statsRepository).replace(1L, "DAY", DAY, 2, 1, 100, 2);
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testRescoringRecomputesTouchedBuckets() {
+        BucketTotalsRow hour = totals(4, 2, 200, 4);
+        BucketTotalsRow day = totals(30, 5, 2500, 28);
+        when(emailRepository.sumReceivedBetween(1L, DAY.plusHours(9), DAY.plusHours(10))).thenReturn(hour);
+        when(statsRepository.sumRange(1L, Granularity.HOUR, DAY, DAY.plusDays(1))).thenReturn(day);
+
+        inboxStatsService.onEmailsUpdated(new EmailsUpdatedEvent(1L, List.of(
+                EmailSummaryDto.builder().id(10L).receivedAt(DAY.plusHours(9).plusMinutes(1)).isSpam(true).build(),
+                EmailSummaryDto.builder().id(11L).receivedAt(DAY.plusHours(9).plusMinutes(2)).isSpam(true).build())));
+
+        verify(statsRepository).replace(1L, "HOUR", DAY.plusHours(9), 4, 2, 200, 4);
+        verify(statsRepository).replace(1L, "DAY", DAY, 30, 5, 2500, 28);
+        verify(emailRepository, times(1)).sumReceivedBetween(anyLong(), any(), any());
+    }
+
+    @Test
+    void testStatsReadsOnlyTheRange() {
+        InboxStatsBucket bucket = InboxStatsBucket.builder()
+                .emailAccountId(1L)
+                .granularity(Granularity.HOUR)
+                .bucketStart(DAY.plusHours(3))
+                .emailCount(4)
+                .spamCount(1)
+                .trustScoreSum(300)
+                .trustScoreCount(4)
+                .build();
+        when(statsRepository.findRange(1L, Granularity.HOUR, DAY.plusHours(2), DAY.plusHours(6))).thenReturn(List.of(bucket));
+
+        InboxStats stats = inboxStatsService.stats(1L, "2024-05-01T02:30", "2024-05-01T06:00", "hour");
+
+        assertEquals(DAY.plusHours(2), stats.getFrom()); // Rounded down to its bucket
+        assertEquals(1, stats.getBuckets().size());
+        assertEquals(0.25, stats.getBuckets().get(0).getSpamRate());
+        assertEquals(75.0, stats.getBuckets().get(0).getAvgTrustScore());
+    }
+
+    @Test
+    void testDefaultsToDailyBuckets() {
+        InboxStats stats = inboxStatsService.stats(1L, "2024-04-01", "2024-05-01", null);
+
+        assertEquals(Granularity.DAY, stats.getGranularity());
+        verify(statsRepository).findRange(1L, Granularity.DAY, DAY.minusDays(30), DAY);
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> inboxStatsService.stats(1L, null, null, "minute"));
+        assertThrows(IllegalArgumentException.class, () -> inboxStatsService.stats(1L, "yesterday", null, "day"));
+        assertThrows(IllegalArgumentException.class, () -> inboxStatsService.stats(1L, "2024-05-02", "2024-05-01", "day"));
+        // A year of hours is too many buckets
+        assertThrows(IllegalArgumentException.class, () -> inboxStatsService.stats(1L, "2023-05-01", "2024-05-01", "hour"));
+    }
+
+    @Test
+    void testDeletedInboxLosesItsStats() {
+        inboxStatsService.onInboxDeleted(new InboxDeletedEvent(1L, 7L));
+
+        verify(statsRepository).deleteByInbox(1L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.event.EmailsIngestedEvent;
+import com.sentineliq.backend.repository.EmailAccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InboxVersionServiceTest {
+
+    @Mock
+    private EmailAccountRepository emailAccountRepository; // Mocked repository
+
+    private InboxVersionService inboxVersionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        inboxVersionService = new InboxVersionService(emailAccountRepository, new SimpleMeterRegistry(), 100, 60_000);
+    }
+
+    @Test
+    void testVersionIsReadOnceThenServedFromMemory() {
+        when(emailAccountRepository.findSyncVersionById(1L)).thenReturn(Optional.of(4L));
+
+        assertEquals(OptionalLong.of(4L), inboxVersionService.currentVersion(1L));
+        assertEquals(OptionalLong.of(4L), inboxVersionService.currentVersion(1L));
+
+        verify(emailAccountRepository, times(1)).findSyncVersionById(1L);
+    }
+
+    @Test
+    void testIngestBumpsVersionAndIsVisibleImmediately() {
+        when(emailAccountRepository.findSyncVersionById(1L)).thenReturn(Optional.of(4L), Optional.of(5L));
+        inboxVersionService.currentVersion(1L);
+
+        inboxVersionService.onEmailsIngested(new EmailsIngestedEvent(1L, 9L, List.of()));
+
+        verify(emailAccountRepository).incrementSyncVersion(1L);
+        assertEquals(OptionalLong.of(5L), inboxVersionService.currentVersion(1L));
+    }
+
+    @Test
+    void testUnknownInboxHasNoVersion() {
+        when(emailAccountRepository.findSyncVersionById(2L)).thenReturn(Optional.empty());
+
+        assertTrue(inboxVersionService.currentVersion(2L).isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.model.RevokedRefreshToken;
+import com.sentineliq.backend.repository.RevokedRefreshTokenRepository;
+import com.sentineliq.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RevokedRefreshTokenRepository revokedRepository; // Mocked revocation table
+
+    @Mock
+    private JwtUtil jwtUtil; // Mocked JWT helper
+
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        refreshTokenService = new RefreshTokenService(revokedRepository, jwtUtil);
+    }
+
+    @Test
+    void testTokenCanBeConsumedOnlyOnce() {
+        Claims claims = refreshClaims(UUID.randomUUID());
+
+        assertTrue(refreshTokenService.consume(claims)); // First use succeeds
+        assertFalse(refreshTokenService.consume(claims)); // Replay is answered from memory
+
+        // Only the first use touched the database
+        verify(revokedRepository, times(1)).save(any(RevokedRefreshToken.class));
+    }
+
+    @Test
+    void testConcurrentConsumeOnAnotherReplicaIsRejected() {
+        Claims claims = refreshClaims(UUID.randomUUID());
+
+        // Another replica already inserted this jti
+        when(revokedRepository.save(any(RevokedRefreshToken.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate jti"));
+
+        assertFalse(refreshTokenService.consume(claims));
+    }
+
+    @Test
+    void testTokenWithoutJtiIsRejected() {
+        assertFalse(refreshTokenService.consume(refreshClaims(null)));
+        verify(revokedRepository, never()).save(any(RevokedRefreshToken.class));
+    }
+
+    @Test
+    void testSyncPicksUpRevocationsFromOtherReplicas() {
+        UUID jti = UUID.randomUUID();
+        when(revokedRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                RevokedRefreshToken.builder()
+                        .jti(jti.toString())
+                        .expiresAt(LocalDateTime.now().plusDays(1))
+                        .revokedAt(LocalDateTime.now())
+                        .build()));
+
+        refreshTokenService.syncFromDatabase();
+
+        assertTrue(refreshTokenService.isRevoked(jti));
+        assertFalse(refreshTokenService.consume(refreshClaims(jti)));
+    }
+
+    private static Claims refreshClaims(UUID jti) {
+        Claims claims = mock(Claims.class);
+        when(claims.getId()).thenReturn(jti != null ? jti.toString() : null);
+        when(claims.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 60_000));
+        when(claims.get("username", String.class)).thenReturn("testuser");
+        return claims;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.model.Sender;
+import com.sentineliq.backend.repository.SenderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SenderServiceTest {
+
+    @Mock
+    private SenderRepository senderRepository; // Mocked repository
+
+    private SenderService senderService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        senderService = new SenderService(senderRepository, new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    void testCreatesParsedSenderOnce() {
+        when(senderRepository.findByAddress("jane@mail.example.co.uk")).thenReturn(Optional.empty());
+        when(senderRepository.save(any(Sender.class))).thenAnswer(invocation -> {
+            Sender sender = invocation.getArgument(0);
+            sender.setId(7L);
+            return sender;
+        });
+
+        Sender first = senderService.resolve("\"Jane Doe\" <Jane@Mail.Example.co.uk>");
+        Sender again = senderService.resolve("Jane <jane@mail.example.co.uk>");
+
+        ArgumentCaptor<Sender> saved = ArgumentCaptor.forClass(Sender.class);
+        verify(senderRepository).save(saved.capture());
+        assertEquals("jane@mail.example.co.uk", saved.getValue().getAddress());
+        assertEquals("example.co.uk", saved.getValue().getDomain());
+        assertSame(first, again); // Second lookup is served from the cache, fully loaded
+        verify(senderRepository, times(1)).findByAddress(anyString());
+        verify(senderRepository, never()).getReferenceById(any());
+    }
+
+    @Test
+    void testConcurrentInsertFallsBackToExistingRow() {
+        Sender existing = Sender.builder().id(3L).address("news@shop.com").domain("shop.com").build();
+        when(senderRepository.findByAddress("news@shop.com")).thenReturn(Optional.empty(), Optional.of(existing));
+        when(senderRepository.save(any(Sender.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertSame(existing, senderService.resolve("news@shop.com"));
+    }
+
+    @Test
+    void testDisplayNameIsTakenFromEachHeader() {
+        assertEquals("PayPal Support", senderService.displayName("\"PayPal Support\" <x@evil.example>"));
+        assertEquals("Your Bank", senderService.displayName("Your Bank <x@evil.example>"));
+        assertNull(senderService.displayName("x@evil.example"));
+        assertEquals(255, senderService.displayName("A".repeat(300) + " <x@evil.example>").length());
+    }
+}
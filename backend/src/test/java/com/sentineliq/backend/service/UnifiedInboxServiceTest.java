@@ -0,0 +1,96 @@
+package com.sentineliq.backend.service;
+
+import com.sentineliq.backend.dto.EmailSummaryDto;
+import com.sentineliq.backend.dto.UnifiedInboxPage;
+import com.sentineliq.backend.repository.EmailRepository;
+import com.sentineliq.backend.repository.EmailRepository.EmailStateRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UnifiedInboxServiceTest {
+
+    @Mock
+    private EmailRepository emailRepository; // Mocked repository
+
+    private UnifiedInboxService unifiedInboxService;
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        unifiedInboxService = new UnifiedInboxService(emailRepository);
+    }
+
+    private static EmailStateRow email(long id, long inboxId, int minutesAgo) {
+        EmailStateRow row = mock(EmailStateRow.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getInboxId()).thenReturn(inboxId);
+        when(row.getSubject()).thenReturn("Subject " + id);
+        when(row.getReceivedAt()).thenReturn(NOON.minusMinutes(minutesAgo));
+        return row;
+    }
+
+    @Test
+    void testMergesInboxesNewestFirst() {
+        // Rows are built before stubbing; stubbing inside thenReturn(...) is not allowed
+        List<EmailStateRow> first = List.of(email(10, 1, 0), email(11, 1, 5), email(12, 1, 9));
+        List<EmailStateRow> second = List.of(email(20, 2, 2), email(21, 2, 7));
+        when(emailRepository.findPageBefore(eq(1L), any(), any(), any())).thenReturn(first);
+        when(emailRepository.findPageBefore(eq(2L), any(), any(), any())).thenReturn(second);
+
+        UnifiedInboxPage page = unifiedInboxService.page(List.of(1L, 2L), null, 4);
+
+        assertEquals(List.of(10L, 20L, 11L, 21L), page.getEmails().stream().map(EmailSummaryDto::getId).toList());
+        assertEquals(2L, page.getEmails().get(1).getInboxId());
+        assertNotNull(page.getNextCursor());
+        verify(emailRepository).findPageBefore(eq(1L), any(), eq(Long.MAX_VALUE), eq(PageRequest.of(0, 5)));
+    }
+
+    @Test
+    void testSameTimestampIsOrderedById() {
+        List<EmailStateRow> first = List.of(email(5, 1, 0));
+        List<EmailStateRow> second = List.of(email(9, 2, 0));
+        when(emailRepository.findPageBefore(eq(1L), any(), any(), any())).thenReturn(first);
+        when(emailRepository.findPageBefore(eq(2L), any(), any(), any())).thenReturn(second);
+
+        UnifiedInboxPage page = unifiedInboxService.page(List.of(1L, 2L), null, 10);
+
+        assertEquals(List.of(9L, 5L), page.getEmails().stream().map(EmailSummaryDto::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testCursorContinuesAfterLastEmail() {
+        List<EmailStateRow> rows = List.of(email(10, 1, 0), email(11, 1, 5));
+        when(emailRepository.findPageBefore(eq(1L), any(), any(), any())).thenReturn(rows);
+
+        String cursor = unifiedInboxService.page(List.of(1L), null, 1).getNextCursor();
+        unifiedInboxService.page(List.of(1L), cursor, 1);
+
+        verify(emailRepository).findPageBefore(1L, NOON, 10L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> unifiedInboxService.page(List.of(1L), "not-a-cursor", 10));
+    }
+
+    @Test
+    void testNoInboxesReturnsEmptyPage() {
+        UnifiedInboxPage page = unifiedInboxService.page(List.of(), null, 10);
+
+        assertTrue(page.getEmails().isEmpty());
+        verifyNoInteractions(emailRepository);
+    }
+}
@@ -0,0 +1,71 @@
+package com.sentineliq.backend.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamConnectionTest {
+
+    // Records what would be written to the client
+    private static class RecordingEmitter extends SseEmitter {
+        final List<SseEventBuilder> sent = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("client gone");
+            }
+            sent.add(builder);
+        }
+    }
+
+    // Runs queued tasks only when asked, so the test controls when the buffer drains
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    void testSlowClientDropsOldestEvents() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        StreamConnection connection = new StreamConnection(1L, emitter, tasks::add, 3);
+
+        List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name("email").data(i);
+            events.add(event);
+            connection.offer(event);
+        }
+        assertEquals(1, tasks.size()); // One drain task no matter how many events were queued
+
+        runTasks();
+
+        assertEquals(4, emitter.sent.size()); // "dropped" notice + the 3 newest events
+        assertEquals(events.subList(2, 5), emitter.sent.subList(1, 4));
+    }
+
+    @Test
+    void testFailedSendClosesConnection() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failing = true;
+        StreamConnection connection = new StreamConnection(1L, emitter, tasks::add, 3);
+
+        connection.offer(SseEmitter.event().comment("hb"));
+        runTasks();
+
+        assertTrue(connection.isClosed());
+        connection.offer(SseEmitter.event().comment("hb"));
+        assertTrue(tasks.isEmpty()); // Closed connections don't queue more work
+    }
+}
@@ -0,0 +1,89 @@
+package com.sentineliq.backend.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the token validation paths used by JwtAuthenticationFilter.
+ *
+ * - rebuildKeyAndParser: the old path (new HMAC key + new JwtParser on every call)
+ * - sharedParser:        signature check with the cached key/parser, no token cache
+ * - verifiedTokenCache:  JwtUtil.validateToken, i.e. the same access token seen again
+ *
+ * Run from /backend after `./mvnw test-compile`:
+ *   java -cp "target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.sentineliq.backend.util.JwtUtilBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "hxMsfA1Z9160xeQiAm+VXOOBlJ//GYvgbVd/8IAMQDs=";
+
+    private JwtUtil cachedUtil;
+    private JwtUtil uncachedUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedUtil = newJwtUtil(10_000);
+        uncachedUtil = newJwtUtil(0);
+        token = cachedUtil.generateAccessToken("benchmark-user", "USER");
+        cachedUtil.validateToken(token); // prime the cache like a first request would
+    }
+
+    private static JwtUtil newJwtUtil(long cacheSize) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secretKey", SECRET);
+        ReflectionTestUtils.setField(util, "verifiedCacheMaxSize", cacheSize);
+        util.init();
+        return util;
+    }
+
+    @Benchmark
+    public Claims rebuildKeyAndParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParser() {
+        return uncachedUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims verifiedTokenCache() {
+        return cachedUtil.validateToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
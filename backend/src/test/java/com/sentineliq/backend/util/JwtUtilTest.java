@@ -7,7 +7,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ApplicationContext;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest // Enable Spring Boot test context
 public class JwtUtilTest {
@@ -41,4 +46,28 @@ public class JwtUtilTest {
         String extractedUsername = jwtUtil.getUsernameFromToken(token); // Extract username from token
         assertEquals(username, extractedUsername); // Assert that the extracted username matches
     }
+
+    // Repeated validation of the same token is served from the verified-token cache
+    @Test
+    void testValidateTokenReusesVerifiedClaims() {
+        String token = jwtUtil.generateAccessToken("cacheduser", "USER");
+
+        Claims first = jwtUtil.validateToken(token);
+        Claims second = jwtUtil.validateToken(token);
+
+        assertSame(first, second); // Same cached claims instance
+        assertEquals("cacheduser", second.get("username", String.class));
+    }
+
+    // A tampered signature must still fail, even after the original token was cached
+    @Test
+    void testTamperedTokenIsRejectedAfterCaching() {
+        String token = jwtUtil.generateAccessToken("cacheduser", "USER");
+        jwtUtil.validateToken(token);
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.validateToken(tampered));
+    }
 }
@@ -0,0 +1,32 @@
+package com.sentineliq.backend.util;
+
+import com.sentineliq.backend.util.SenderAddressParser.ParsedSender;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SenderAddressParserTest {
+
+    @Test
+    void testParsesNameAndAddress() {
+        ParsedSender sender = SenderAddressParser.parse("\"Jane Doe\" <Jane.Doe@Example.com>");
+
+        assertEquals("Jane Doe", sender.displayName());
+        assertEquals("jane.doe@example.com", sender.address());
+        assertEquals("example.com", sender.domain());
+    }
+
+    @Test
+    void testBareAddressAndMissingAddress() {
+        assertEquals(new ParsedSender("billing@shop.com", "billing@shop.com", "shop.com"),
+                SenderAddressParser.parse("billing@shop.com"));
+        assertEquals(new ParsedSender("(Unknown Sender)", "", ""),
+                SenderAddressParser.parse("(Unknown Sender)"));
+    }
+
+    @Test
+    void testDomainIsRegistrablePart() {
+        assertEquals("bank.co.uk", SenderAddressParser.parse("alerts@mail.bank.co.uk").domain());
+        assertEquals("google.com", SenderAddressParser.parse("Google <no-reply@accounts.google.com>").domain());
+    }
+}
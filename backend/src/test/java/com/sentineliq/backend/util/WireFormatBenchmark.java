@@ -0,0 +1,165 @@
+package com.sentineliq.backend.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.sentineliq.backend.dto.EmailDto;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JMH comparison of response formats for an email list page (200 emails with bodies).
+ *
+ * - json / smile / cbor: time to serialize the page with each format's ObjectMapper
+ * - Payload sizes (raw and gzip-compressed, as sent with server.compression) are reported as
+ *   the secondary results rawBytes and gzipBytes of each benchmark. They are computed once per
+ *   trial, so the timed methods only copy them into the counters.
+ *
+ * Run from /backend after `./mvnw test-compile`:
+ *   java -cp "target/test-classes:target/classes:$(./mvnw -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *        com.sentineliq.backend.util.WireFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final String[] WORDS = {
+            "invoice", "meeting", "report", "project", "update", "payment", "travel", "account",
+            "security", "alert", "weekly", "summary", "order", "shipping", "receipt", "password"
+    };
+
+    // Plain-text body length in words
+    @Param({"20", "400"})
+    public int bodyWords;
+
+    private List<EmailDto> page;
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private long[] jsonSize;
+    private long[] smileSize;
+    private long[] cborSize;
+
+    /**
+     * Payload size of the format under test, reported by JMH next to its timing.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long rawBytes;
+        public long gzipBytes;
+
+        void record(long[] size) {
+            rawBytes = size[0];
+            gzipBytes = size[1];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        jsonMapper = mapper(new JsonFactory());
+        smileMapper = mapper(new SmileFactory());
+        cborMapper = mapper(new CBORFactory());
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        page = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            page.add(EmailDto.builder()
+                    .id(id)
+                    .subject(sentence(random, 6))
+                    .sender("User " + random.nextInt(50) + " <user" + random.nextInt(50) + "@example.com>")
+                    .plainTextBody(sentence(random, bodyWords))
+                    .receivedAt(start.plusMinutes(id))
+                    .isSpam(random.nextInt(10) == 0)
+                    .trustScore(random.nextInt(101))
+                    .build());
+        }
+
+        jsonSize = size(jsonMapper);
+        smileSize = size(smileMapper);
+        cborSize = size(cborMapper);
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        // Same date handling as the application's mappers
+        return new ObjectMapper(factory)
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static byte[] gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    private long[] size(ObjectMapper mapper) throws IOException {
+        byte[] raw = mapper.writeValueAsBytes(page);
+        return new long[] {raw.length, gzip(raw).length};
+    }
+
+    @Benchmark
+    public byte[] json(PayloadSize size) throws JsonProcessingException {
+        size.record(jsonSize);
+        return jsonMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] smile(PayloadSize size) throws JsonProcessingException {
+        size.record(smileSize);
+        return smileMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] cbor(PayloadSize size) throws JsonProcessingException {
+        size.record(cborSize);
+        return cborMapper.writeValueAsBytes(page);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,39 @@
+package com.sentineliq.backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+
+    @Test
+    void testMissingOrWildcardAcceptIsJson() {
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept(null));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept(""));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("application/*"));
+    }
+
+    @Test
+    void testBinaryFormatsAreRecognized() {
+        assertEquals(WireFormat.SMILE, WireFormat.fromAccept("application/x-jackson-smile"));
+        assertEquals(WireFormat.CBOR, WireFormat.fromAccept("application/cbor"));
+    }
+
+    @Test
+    void testQualityDecides() {
+        assertEquals(WireFormat.CBOR, WireFormat.fromAccept("application/json;q=0.5, application/cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("application/cbor;q=0, */*"));
+    }
+
+    @Test
+    void testClientOrderBreaksTies() {
+        assertEquals(WireFormat.SMILE, WireFormat.fromAccept("application/x-jackson-smile, application/json"));
+    }
+
+    @Test
+    void testUnknownOrInvalidAcceptFallsBackToJson() {
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("text/html"));
+        assertEquals(WireFormat.JSON, WireFormat.fromAccept("not a media type;;"));
+    }
+}